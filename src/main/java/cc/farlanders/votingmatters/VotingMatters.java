@@ -6,6 +6,8 @@ import org.bukkit.Bukkit;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import cc.farlanders.votingmatters.api.VoteHttpClient;
+import cc.farlanders.votingmatters.commands.VoteAdminCommand;
 import cc.farlanders.votingmatters.commands.VoteCheckCommand;
 import cc.farlanders.votingmatters.commands.VoteCommand;
 import cc.farlanders.votingmatters.commands.VoteReloadCommand;
@@ -16,10 +18,13 @@ import cc.farlanders.votingmatters.config.ConfigManager;
 import cc.farlanders.votingmatters.database.DatabaseManager;
 import cc.farlanders.votingmatters.listeners.PlayerListener;
 import cc.farlanders.votingmatters.listeners.VoteListener;
+import cc.farlanders.votingmatters.managers.LeaderboardManager;
 import cc.farlanders.votingmatters.managers.RewardManager;
 import cc.farlanders.votingmatters.managers.VoteManager;
 import cc.farlanders.votingmatters.placeholders.VotingPlaceholders;
-import cc.farlanders.votingmatters.tasks.VoteCheckTask;
+import cc.farlanders.votingmatters.tasks.LeaderboardRefreshTask;
+import cc.farlanders.votingmatters.tasks.VoteCompactionTask;
+import cc.farlanders.votingmatters.tasks.VotePollTask;
 import cc.farlanders.votingmatters.utils.MessageUtils;
 import net.milkbowl.vault.economy.Economy;
 
@@ -31,6 +36,8 @@ public class VotingMatters extends JavaPlugin {
     private DatabaseManager databaseManager;
     private VoteManager voteManager;
     private RewardManager rewardManager;
+    private LeaderboardManager leaderboardManager;
+    private VoteHttpClient httpClient;
     private Economy economy;
     private boolean placeholderAPIEnabled;
 
@@ -43,8 +50,11 @@ public class VotingMatters extends JavaPlugin {
         // Initialize managers
         this.configManager = new ConfigManager(this);
         this.databaseManager = new DatabaseManager(this);
+        this.httpClient = new VoteHttpClient("VotingMatters/" + getPluginMeta().getVersion());
         this.voteManager = new VoteManager(this);
         this.rewardManager = new RewardManager(this);
+        this.leaderboardManager = new LeaderboardManager(this);
+        leaderboardManager.rebuild();
 
         // Initialize MessageUtils
         MessageUtils.initialize(this);
@@ -67,13 +77,33 @@ public class VotingMatters extends JavaPlugin {
         // Register listeners
         registerListeners();
 
-        // Start vote checking task
-        new VoteCheckTask(this).runTaskTimerAsynchronously(this, 20L,
-                configManager.getConfig().getInt("vote-check.interval", 300) * 20L);
+        // Start receiving votes pushed by voting sites
+        voteManager.startVotifier();
+        voteManager.startWebhook();
+
+        // Start polling each vote site on its own interval
+        new VotePollTask(this).runTaskTimerAsynchronously(this, 20L, 20L);
+
+        // Start vote record compaction task
+        long compactionInterval = Math.max(1, configManager.getConfig().getLong("database.compaction.interval", 6))
+                * 60 * 60 * 20L;
+        new VoteCompactionTask(this).runTaskTimerAsynchronously(this, 20L * 60, compactionInterval);
+
+        // Start leaderboard snapshot refresh task
+        long leaderboardInterval = Math.max(1, configManager.getConfig().getLong("leaderboard.update-interval", 300))
+                * 20L;
+        new LeaderboardRefreshTask(this).runTaskTimerAsynchronously(this, 20L, leaderboardInterval);
     }
 
     @Override
     public void onDisable() {
+        if (voteManager != null) {
+            voteManager.stopVotifier();
+            voteManager.stopWebhook();
+        }
+        if (httpClient != null) {
+            httpClient.shutdown();
+        }
         if (databaseManager != null) {
             databaseManager.close();
         }
@@ -99,6 +129,9 @@ public class VotingMatters extends JavaPlugin {
         if (getCommand("votetop") != null) {
             getCommand("votetop").setExecutor(new VoteTopCommand(this));
         }
+        if (getCommand("voteadmin") != null) {
+            getCommand("voteadmin").setExecutor(new VoteAdminCommand(this));
+        }
     }
 
     private void registerListeners() {
@@ -121,6 +154,7 @@ public class VotingMatters extends JavaPlugin {
     public void reload() {
         try {
             configManager.reload();
+            MessageUtils.compileMessages();
             getLogger().info("Configuration reloaded successfully!");
         } catch (Exception e) {
             getLogger().log(Level.SEVERE, "Error reloading configuration: {0}", e.getMessage());
@@ -152,6 +186,14 @@ public class VotingMatters extends JavaPlugin {
         return rewardManager;
     }
 
+    public LeaderboardManager getLeaderboardManager() {
+        return leaderboardManager;
+    }
+
+    public VoteHttpClient getHttpClient() {
+        return httpClient;
+    }
+
     public Economy getEconomy() {
         return economy;
     }
@@ -0,0 +1,144 @@
+package cc.farlanders.votingmatters.api;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * The HTTP client every vote site shares. One connection pool and dispatcher
+ * back all requests, so polls reuse kept-alive connections (HTTP/2 where the
+ * site offers it, with gzip handled transparently) instead of paying for a new
+ * TCP and TLS handshake each time. Sites with different timeouts get clients
+ * derived from the shared one, which keep sharing its pool and threads.
+ */
+public class VoteHttpClient {
+
+    /**
+     * Reads a successful response body
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(Reader body) throws IOException;
+    }
+
+    private final OkHttpClient client;
+    private final String userAgent;
+    // Clients derived from the shared one, by timeout
+    private final Map<Duration, OkHttpClient> timeoutClients = new ConcurrentHashMap<>();
+
+    public VoteHttpClient(String userAgent) {
+        this.userAgent = userAgent;
+
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "VotingMatters HTTP " + threadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Dispatcher dispatcher = new Dispatcher(executor);
+        dispatcher.setMaxRequestsPerHost(4);
+
+        this.client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(8, 5, TimeUnit.MINUTES))
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(Duration.ofSeconds(5))
+                .readTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * GET a URL and return the body as a string
+     *
+     * @param timeout Limit on the whole call, including connecting and reading
+     */
+    public CompletableFuture<String> get(String url, Duration timeout) {
+        return get(url, timeout, body -> {
+            StringBuilder content = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+            return content.toString();
+        });
+    }
+
+    /**
+     * GET a URL and read the body as it arrives, on an HTTP thread. The future
+     * fails with an {@link IOException} if the request fails or the response is
+     * not successful; cancelling it cancels the request.
+     *
+     * @param timeout Limit on the whole call, including connecting and reading
+     */
+    public <T> CompletableFuture<T> get(String url, Duration timeout, BodyReader<T> reader) {
+        Request request;
+        try {
+            request = new Request.Builder().url(url).header("User-Agent", userAgent).get().build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new IOException("Invalid URL: " + e.getMessage(), e));
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Call call = clientFor(timeout).newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failed, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call completed, Response response) {
+                try (response) {
+                    ResponseBody body = response.body();
+                    if (!response.isSuccessful() || body == null) {
+                        result.completeExceptionally(new IOException("HTTP " + response.code()));
+                        return;
+                    }
+                    result.complete(reader.read(body.charStream()));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return result;
+    }
+
+    private OkHttpClient clientFor(Duration timeout) {
+        return timeoutClients.computeIfAbsent(timeout, key -> client.newBuilder().callTimeout(key).build());
+    }
+
+    /**
+     * Cancel running requests and release the pooled connections and threads
+     */
+    public void shutdown() {
+        client.dispatcher().cancelAll();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
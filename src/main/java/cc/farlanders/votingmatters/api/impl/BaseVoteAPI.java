@@ -1,11 +1,25 @@
 package cc.farlanders.votingmatters.api.impl;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
 import cc.farlanders.votingmatters.VotingMatters;
 import cc.farlanders.votingmatters.api.VoteAPI;
+import cc.farlanders.votingmatters.api.VoteHttpClient;
 import cc.farlanders.votingmatters.models.VoteRecord;
 
 /**
@@ -16,6 +30,8 @@ public abstract class BaseVoteAPI implements VoteAPI {
     protected final VotingMatters plugin;
     protected final String siteName;
     protected long lastCheck = -1;
+    // Newest vote this site has reported; loaded from the database on the first poll
+    private volatile VoteCursor cursor;
 
     protected BaseVoteAPI(VotingMatters plugin, String siteName) {
         this.plugin = plugin;
@@ -55,6 +71,183 @@ public abstract class BaseVoteAPI implements VoteAPI {
         return plugin.getConfigManager().getConfig().getString("vote-sites." + siteName + ".server-id", "");
     }
 
+    /**
+     * Limit on one request to this site, from {@code vote-sites.<site>.timeout}
+     */
+    protected Duration getTimeout() {
+        long seconds = plugin.getConfigManager().getConfig().getLong("vote-sites." + siteName + ".timeout", 10);
+        return Duration.ofSeconds(Math.max(1, seconds));
+    }
+
+    /**
+     * GET a URL with the plugin's shared HTTP client
+     */
+    protected CompletableFuture<String> fetch(String url) {
+        return plugin.getHttpClient().get(url, getTimeout());
+    }
+
+    /**
+     * GET a URL with the plugin's shared HTTP client, reading the body as it
+     * arrives
+     */
+    protected <T> CompletableFuture<T> fetch(String url, VoteHttpClient.BodyReader<T> reader) {
+        return plugin.getHttpClient().get(url, getTimeout(), reader);
+    }
+
+    /**
+     * Fetch a JSON voter list and keep only the votes not seen on earlier
+     * polls. The body is parsed as it streams in, and for sites listing votes
+     * newest first ({@code vote-sites.<site>.newest-first}, the default) reading
+     * stops at the first vote already seen, so the cost of a poll depends on the
+     * new votes rather than the size of the list.
+     *
+     * @param arrayName The response field holding the voters
+     * @throws CompletionException If the request or the response fails
+     */
+    protected List<VoteRecord> fetchNewVotes(String url, String arrayName) {
+        VoteCursor start = getCursor();
+        boolean newestFirst = plugin.getConfigManager().getConfig()
+                .getBoolean("vote-sites." + siteName + ".newest-first", true);
+
+        List<VoteRecord> votes = new ArrayList<>();
+        VoteCursor end = fetch(url, body -> readVoters(body, arrayName, siteName, start, newestFirst, votes::add))
+                .join();
+        if (!end.equals(start)) {
+            cursor = end;
+            plugin.getDatabaseManager().setLastSeenVote(siteName, new Timestamp(end.time() * 1000L));
+        }
+        return votes;
+    }
+
+    private VoteCursor getCursor() {
+        VoteCursor current = cursor;
+        if (current == null) {
+            Optional<Timestamp> lastSeen = plugin.getDatabaseManager().getLastSeenVote(siteName).join();
+            if (lastSeen == null) {
+                // Without the cursor every listed vote would count again
+                throw new CompletionException(new IOException("Could not read the last vote seen"));
+            }
+            current = lastSeen.map(time -> new VoteCursor(time.getTime() / 1000L, null)).orElse(VoteCursor.NONE);
+            cursor = current;
+        }
+        return current;
+    }
+
+    /**
+     * Read voters from a JSON body as it streams in, passing on each vote the
+     * cursor has not seen. Voters are objects with a username and a timestamp
+     * in epoch seconds or milliseconds, and optionally an address.
+     *
+     * @param arrayName   The field holding the voter array; a body that is an
+     *                    array itself is read directly
+     * @param newestFirst Whether to stop at the first vote older than the cursor
+     * @return The cursor after the new votes
+     */
+    protected static VoteCursor readVoters(Reader body, String arrayName, String siteName, VoteCursor cursor,
+            boolean newestFirst, Consumer<VoteRecord> consumer) throws IOException {
+        JsonReader reader = openVoters(body, arrayName);
+        VoteCursor next = cursor;
+        while (reader.hasNext()) {
+            Voter voter = readVoter(reader);
+            if (voter == null) {
+                continue;
+            }
+            if (newestFirst && cursor.isPast(voter.time())) {
+                break;
+            }
+            if (cursor.isNew(voter.time(), voter.username())) {
+                UUID playerUuid = UUID.nameUUIDFromBytes(voter.username().getBytes(StandardCharsets.UTF_8));
+                consumer.accept(new VoteRecord(0, playerUuid, siteName, new Timestamp(voter.time() * 1000L),
+                        voter.address(), false));
+                next = next.advance(voter.time(), voter.username());
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Whether a JSON voter list names a player, reading only as far as needed
+     */
+    protected static boolean listsVoter(Reader body, String arrayName, String username) throws IOException {
+        JsonReader reader = openVoters(body, arrayName);
+        while (reader.hasNext()) {
+            Voter voter = readVoter(reader);
+            if (voter != null && voter.username().equalsIgnoreCase(username)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Voter(String username, long time, String address) {
+    }
+
+    /**
+     * Position a reader at the first voter of a voter list
+     */
+    private static JsonReader openVoters(Reader body, String arrayName) throws IOException {
+        JsonReader reader = new JsonReader(body);
+        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext() && !reader.nextName().equals(arrayName)) {
+                reader.skipValue();
+            }
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                throw new IOException("Response has no " + arrayName + " list");
+            }
+        }
+        reader.beginArray();
+        return reader;
+    }
+
+    private static Voter readVoter(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        String username = null;
+        String address = null;
+        long time = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            if (token == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "username", "nickname", "name" -> username = reader.nextString();
+                case "address", "ip" -> address = reader.nextString();
+                case "timestamp", "time", "date" -> time = readTime(reader, token);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (username == null || username.isEmpty() || time < 0) {
+            return null;
+        }
+        return new Voter(username, time, address);
+    }
+
+    private static long readTime(JsonReader reader, JsonToken token) throws IOException {
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            reader.skipValue();
+            return -1;
+        }
+        try {
+            long time = reader.nextLong();
+            // Some sites send milliseconds
+            return time > 100_000_000_000L ? time / 1000L : time;
+        } catch (NumberFormatException e) {
+            // Not a number; the value is still unread
+            reader.skipValue();
+            return -1;
+        }
+    }
+
     @Override
     public List<VoteRecord> checkForNewVotes() {
         if (!isEnabled()) {
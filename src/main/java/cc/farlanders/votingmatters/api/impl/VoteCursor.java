@@ -0,0 +1,51 @@
+package cc.farlanders.votingmatters.api.impl;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The newest vote a site has reported, so later polls only take newer ones.
+ * Sites report vote times to the second, so the names that voted in that
+ * second are kept too; when they are not known (after a restart) every vote in
+ * that second counts as seen.
+ *
+ * @param time  Epoch seconds of the newest vote, or -1 if none has been seen
+ * @param names Lower case names that voted at {@code time}, or null if unknown
+ */
+public record VoteCursor(long time, Set<String> names) {
+
+    public static final VoteCursor NONE = new VoteCursor(-1, Set.of());
+
+    /**
+     * Whether a vote has not been seen yet
+     */
+    public boolean isNew(long voteTime, String username) {
+        if (voteTime != time) {
+            return voteTime > time;
+        }
+        return names != null && !names.contains(username.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Whether a site listing votes newest first has nothing new after this vote
+     */
+    public boolean isPast(long voteTime) {
+        return voteTime < time;
+    }
+
+    /**
+     * The cursor after a new vote
+     */
+    public VoteCursor advance(long voteTime, String username) {
+        if (voteTime < time) {
+            return this;
+        }
+        Set<String> seen = new HashSet<>();
+        if (voteTime == time && names != null) {
+            seen.addAll(names);
+        }
+        seen.add(username.toLowerCase(Locale.ROOT));
+        return new VoteCursor(voteTime, Set.copyOf(seen));
+    }
+}
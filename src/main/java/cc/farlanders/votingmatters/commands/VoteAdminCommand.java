@@ -0,0 +1,230 @@
+package cc.farlanders.votingmatters.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import cc.farlanders.votingmatters.VotingMatters;
+import cc.farlanders.votingmatters.database.ConnectionPool;
+import cc.farlanders.votingmatters.database.DataExporter;
+import cc.farlanders.votingmatters.database.DataImporter;
+import cc.farlanders.votingmatters.database.FileImportSource;
+import cc.farlanders.votingmatters.database.PlayerDataCache;
+import cc.farlanders.votingmatters.database.TableImportSource;
+import cc.farlanders.votingmatters.database.DatabaseExecutor;
+import cc.farlanders.votingmatters.database.WriteBehindBuffer;
+import cc.farlanders.votingmatters.utils.MessageUtils;
+
+public class VoteAdminCommand implements CommandExecutor {
+
+    private static final String USAGE = "Usage: /voteadmin <dbstats|export|import>";
+    private static final String EXPORT_USAGE = "Usage: /voteadmin export <players|votes> [ndjson|csv]";
+    private static final String IMPORT_USAGE = "Usage: /voteadmin import <file|table> <name>";
+    private static final DateTimeFormatter EXPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final VotingMatters plugin;
+
+    public VoteAdminCommand(VotingMatters plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("votingmatters.admin")) {
+            sender.sendMessage(MessageUtils.getMessage("errors.no-permission"));
+            return true;
+        }
+
+        if (args.length == 0) {
+            sender.sendMessage(USAGE);
+            return false;
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "dbstats" -> {
+                return handleDatabaseStats(sender);
+            }
+            case "export" -> {
+                return handleExport(sender, args);
+            }
+            case "import" -> {
+                return handleImport(sender, args);
+            }
+            default -> {
+                sender.sendMessage("Unknown subcommand. " + USAGE);
+                return false;
+            }
+        }
+    }
+
+    private boolean handleDatabaseStats(CommandSender sender) {
+        ConnectionPool.Stats stats = plugin.getDatabaseManager().getPoolStats();
+        if (stats == null) {
+            sender.sendMessage(MessageUtils.getMessage("errors.database-error"));
+            return true;
+        }
+
+        sender.sendMessage("Key Format: " + plugin.getDatabaseManager().getKeyFormat());
+        sender.sendMessage("Database Connection Pool:");
+        sender.sendMessage(String.format("Connections: %d active, %d idle, %d open (max %d)",
+                stats.active(), stats.idle(), stats.total(), stats.maxSize()));
+        sender.sendMessage(String.format("Waiting Threads: %d", stats.waiting()));
+        sender.sendMessage(String.format("Borrows: %d (%d timed out)", stats.borrows(), stats.timeouts()));
+        sender.sendMessage(String.format("Wait Time: %.2fms avg, %.2fms max",
+                stats.averageWaitMillis(), stats.maxWaitMillis()));
+        sender.sendMessage(String.format("Statement Cache: %d hits, %d misses",
+                stats.statementCacheHits(), stats.statementCacheMisses()));
+
+        ConnectionPool.Stats readStats = plugin.getDatabaseManager().getReadPoolStats();
+        if (readStats != null) {
+            sender.sendMessage("Read-Only Connection Pool:");
+            sender.sendMessage(String.format("Connections: %d active, %d idle, %d open (max %d)",
+                    readStats.active(), readStats.idle(), readStats.total(), readStats.maxSize()));
+            sender.sendMessage(String.format("Borrows: %d (%d timed out)", readStats.borrows(), readStats.timeouts()));
+        }
+
+        DatabaseExecutor.Stats executorStats = plugin.getDatabaseManager().getExecutorStats();
+        sender.sendMessage("Database Executor:");
+        sender.sendMessage(String.format("Threads: %d (%d busy)", executorStats.threads(), executorStats.active()));
+        sender.sendMessage(String.format("Queue: %d/%d (peak %d)", executorStats.queued(),
+                executorStats.queueCapacity(), executorStats.peakQueued()));
+        sender.sendMessage(String.format("Operations: %d completed, %d rejected", executorStats.completed(),
+                executorStats.rejected()));
+        sender.sendMessage(String.format("Queue Time: %.2fms avg, %.2fms max",
+                executorStats.averageQueueMillis(), executorStats.maxQueueMillis()));
+
+        DatabaseExecutor.Stats writerStats = plugin.getDatabaseManager().getWriteExecutorStats();
+        if (writerStats != null) {
+            sender.sendMessage("Database Writer:");
+            sender.sendMessage(String.format("Queue: %d/%d (peak %d)", writerStats.queued(),
+                    writerStats.queueCapacity(), writerStats.peakQueued()));
+            sender.sendMessage(String.format("Operations: %d completed, %d rejected", writerStats.completed(),
+                    writerStats.rejected()));
+        }
+
+        WriteBehindBuffer.Stats bufferStats = plugin.getDatabaseManager().getWriteBufferStats();
+        sender.sendMessage("Write-Behind Buffer:");
+        sender.sendMessage(String.format("Pending: %d upserts, %d inserts", bufferStats.pendingUpserts(),
+                bufferStats.pendingInserts()));
+        sender.sendMessage(String.format("Flushes: %d (%d failed), %d rows written, %d saves coalesced",
+                bufferStats.flushes(), bufferStats.failedFlushes(), bufferStats.rowsWritten(),
+                bufferStats.coalesced()));
+
+        PlayerDataCache.Stats cacheStats = plugin.getDatabaseManager().getPlayerCacheStats();
+        sender.sendMessage("Player Data Cache:");
+        sender.sendMessage(String.format("Entries: %d/%d (%d evicted)", cacheStats.size(), cacheStats.maxSize(),
+                cacheStats.evictions()));
+        sender.sendMessage(String.format("Lookups: %d hits, %d negative hits, %d misses (%.1f%% hit rate)",
+                cacheStats.hits(), cacheStats.negativeHits(), cacheStats.misses(), cacheStats.hitRate() * 100));
+        sender.sendMessage(String.format("Player Sessions: %d", plugin.getDatabaseManager().getSessionCount()));
+        return true;
+    }
+
+    private boolean handleExport(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(EXPORT_USAGE);
+            return true;
+        }
+
+        DataExporter.Table table = DataExporter.parseTable(args[1]);
+        DataExporter.Format format = args.length > 2 ? DataExporter.parseFormat(args[2]) : DataExporter.Format.NDJSON;
+        if (table == null || format == null) {
+            sender.sendMessage(EXPORT_USAGE);
+            return true;
+        }
+
+        File directory = new File(plugin.getDataFolder(), "exports");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            sender.sendMessage("Could not create the exports folder.");
+            return true;
+        }
+        String name = table.name().toLowerCase() + "-" + LocalDateTime.now().format(EXPORT_TIMESTAMP) + "."
+                + format.extension() + ".gz";
+        File output = new File(directory, name);
+
+        sender.sendMessage("Exporting " + table.name().toLowerCase() + " to exports/" + name + "...");
+        long startedAt = System.currentTimeMillis();
+        plugin.getDatabaseManager()
+                .exportTable(table, format, output, rows -> sender.sendMessage("Exported " + rows + " rows..."))
+                .whenComplete((rows, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+                        sender.sendMessage("Export failed: " + cause.getMessage());
+                        return;
+                    }
+                    sender.sendMessage(String.format("Exported %d rows to exports/%s in %.1fs", rows, name,
+                            (System.currentTimeMillis() - startedAt) / 1000.0));
+                });
+        return true;
+    }
+
+    private boolean handleImport(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            sender.sendMessage(IMPORT_USAGE);
+            return true;
+        }
+
+        FileConfiguration config = plugin.getConfigManager().getConfig();
+        DataImporter.ColumnMapping mapping = new DataImporter.ColumnMapping(
+                config.getString("database.import.columns.uuid", "player_uuid"),
+                config.getString("database.import.columns.username", "username"),
+                config.getString("database.import.columns.site", "site_name"),
+                config.getString("database.import.columns.time", "vote_time"),
+                config.getString("database.import.columns.rewarded", "rewarded"),
+                config.getString("database.import.default-site", "imported"));
+
+        DataImporter.Source source;
+        try {
+            switch (args[1].toLowerCase()) {
+                case "file" -> {
+                    File directory = new File(plugin.getDataFolder(), "imports");
+                    File file = new File(directory, args[2]);
+                    // Only files directly inside the imports folder
+                    if (!directory.equals(file.getParentFile()) || !file.isFile()) {
+                        sender.sendMessage("File not found: imports/" + args[2]);
+                        return true;
+                    }
+                    source = new FileImportSource(file, mapping);
+                }
+                case "table" -> source = new TableImportSource(args[2],
+                        config.getString("database.import.id-column", "id"), mapping);
+                default -> {
+                    sender.sendMessage(IMPORT_USAGE);
+                    return true;
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            sender.sendMessage("Cannot import " + args[2] + ": " + e.getMessage());
+            return true;
+        }
+
+        sender.sendMessage("Importing votes from " + source.getName() + "...");
+        plugin.getDatabaseManager().importVotes(source, progress -> sender.sendMessage(String.format(
+                "Imported %d votes (%.0f/s)...", progress.imported(), progress.rowsPerSecond())))
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+                        sender.sendMessage("Import failed: " + cause.getMessage()
+                                + ". Run the command again to resume.");
+                        return;
+                    }
+                    if (result.alreadyCompleted()) {
+                        sender.sendMessage(String.format("%s was already imported (%d votes).", result.source(),
+                                result.imported()));
+                        return;
+                    }
+                    sender.sendMessage(String.format("Imported %d votes in %.1fs (%.0f/s), %d rows skipped",
+                            result.imported(), result.elapsedMillis() / 1000.0, result.rowsPerSecond(),
+                            result.skipped()));
+                    // Imported totals bypass the vote path that keeps the index current
+                    plugin.getLeaderboardManager().rebuild();
+                });
+        return true;
+    }
+}
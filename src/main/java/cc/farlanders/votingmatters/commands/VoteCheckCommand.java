@@ -28,8 +28,7 @@ public class VoteCheckCommand implements CommandExecutor {
         if (args.length > 0) {
             target = Bukkit.getPlayer(args[0]);
             if (target == null) {
-                String message = MessageUtils.getMessage("errors.player-not-found")
-                        .replace("%player%", args[0]);
+                String message = MessageUtils.getMessage("errors.player-not-found", "player", args[0]);
                 sender.sendMessage(message);
                 return false;
             }
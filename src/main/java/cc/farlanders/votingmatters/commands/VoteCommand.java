@@ -61,9 +61,7 @@ public class VoteCommand implements CommandExecutor {
 
         player.sendMessage(MessageUtils.getMessage("vote.sites-header"));
         for (Map.Entry<String, String> site : votingSites.entrySet()) {
-            String message = MessageUtils.getMessage("vote.site-format")
-                    .replace("%site%", site.getKey())
-                    .replace("%url%", site.getValue());
+            String message = MessageUtils.getMessage("vote.site-format", "site", site.getKey(), "url", site.getValue());
             player.sendMessage(message);
         }
 
@@ -71,9 +69,8 @@ public class VoteCommand implements CommandExecutor {
         plugin.getDatabaseManager().getPlayerData(player.getUniqueId())
                 .thenAccept(playerData -> {
                     if (playerData != null) {
-                        String stats = MessageUtils.getMessage("vote.stats")
-                                .replace("%total_votes%", String.valueOf(playerData.getTotalVotes()))
-                                .replace("%streak%", String.valueOf(playerData.getCurrentStreak()));
+                        String stats = MessageUtils.getMessage("vote.stats",
+                                "total_votes", playerData.getTotalVotes(), "streak", playerData.getCurrentStreak());
                         player.sendMessage(stats);
                     }
                 });
@@ -92,8 +89,7 @@ public class VoteCommand implements CommandExecutor {
                     // Process offline votes
                     plugin.getVoteManager().processOfflineVotes(player);
 
-                    String message = MessageUtils.getMessage("offline.claimed")
-                            .replace("%count%", String.valueOf(playerData.getOfflineVotes()));
+                    String message = MessageUtils.getMessage("offline.claimed", "count", playerData.getOfflineVotes());
                     player.sendMessage(message);
                 });
     }
@@ -107,27 +103,31 @@ public class VoteCommand implements CommandExecutor {
                     }
 
                     player.sendMessage(MessageUtils.getMessage("stats.header"));
-                    player.sendMessage(MessageUtils.getMessage("stats.player-stats")
-                            .replace("%player%", player.getName()));
-                    player.sendMessage(MessageUtils.getMessage("stats.total-votes")
-                            .replace("%total%", String.valueOf(playerData.getTotalVotes())));
-                    player.sendMessage(MessageUtils.getMessage("stats.current-streak")
-                            .replace("%streak%", String.valueOf(playerData.getCurrentStreak())));
-                    player.sendMessage(MessageUtils.getMessage("stats.best-streak")
-                            .replace("%best_streak%", String.valueOf(playerData.getBestStreak())));
+                    player.sendMessage(MessageUtils.getMessage("stats.player-stats", "player", player.getName()));
+                    player.sendMessage(MessageUtils.getMessage("stats.total-votes",
+                            "total", playerData.getTotalVotes()));
+                    player.sendMessage(MessageUtils.getMessage("stats.current-streak",
+                            "streak", playerData.getCurrentStreak()));
+                    player.sendMessage(MessageUtils.getMessage("stats.best-streak",
+                            "best_streak", playerData.getBestStreak()));
+
+                    int rank = plugin.getLeaderboardManager().getRank(player.getUniqueId());
+                    if (rank > 0) {
+                        player.sendMessage(MessageUtils.getMessage("stats.rank", "rank", rank,
+                                "ranked_players", plugin.getLeaderboardManager().getRankedPlayers()));
+                    }
 
                     if (playerData.getLastVoteTime() != null) {
-                        player.sendMessage(MessageUtils.getMessage("stats.last-vote")
-                                .replace("%last_vote%", playerData.getLastVoteTime().toString()));
+                        player.sendMessage(MessageUtils.getMessage("stats.last-vote",
+                                "last_vote", playerData.getLastVoteTime().toString()));
                     }
 
                     long hoursUntilNext = playerData.getHoursUntilNextVote();
                     if (hoursUntilNext > 0) {
-                        player.sendMessage(MessageUtils.getMessage("stats.next-vote")
-                                .replace("%next_vote%", hoursUntilNext + " hours"));
+                        player.sendMessage(MessageUtils.getMessage("stats.next-vote",
+                                "next_vote", hoursUntilNext + " hours"));
                     } else {
-                        player.sendMessage(MessageUtils.getMessage("stats.next-vote")
-                                .replace("%next_vote%", "Now!"));
+                        player.sendMessage(MessageUtils.getMessage("stats.next-vote", "next_vote", "Now!"));
                     }
                 });
     }
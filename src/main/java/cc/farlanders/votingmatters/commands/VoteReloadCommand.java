@@ -27,8 +27,7 @@ public class VoteReloadCommand implements CommandExecutor {
             sender.sendMessage(MessageUtils.getMessage("admin.reload-success"));
             return true;
         } catch (Exception e) {
-            String message = MessageUtils.getMessage("admin.reload-error")
-                    .replace("%error%", e.getMessage());
+            String message = MessageUtils.getMessage("admin.reload-error", "error", e.getMessage());
             sender.sendMessage(message);
             return false;
         }
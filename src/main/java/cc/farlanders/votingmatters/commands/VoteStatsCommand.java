@@ -27,8 +27,7 @@ public class VoteStatsCommand implements CommandExecutor {
         if (args.length > 0) {
             target = Bukkit.getPlayer(args[0]);
             if (target == null) {
-                String message = MessageUtils.getMessage("errors.player-not-found")
-                        .replace("%player%", args[0]);
+                String message = MessageUtils.getMessage("errors.player-not-found", "player", args[0]);
                 sender.sendMessage(message);
                 return true;
             }
@@ -48,18 +47,17 @@ public class VoteStatsCommand implements CommandExecutor {
                     }
 
                     sender.sendMessage(MessageUtils.getMessage("stats.header"));
-                    sender.sendMessage(MessageUtils.getMessage("stats.player-stats")
-                            .replace("%player%", target.getName()));
-                    sender.sendMessage(MessageUtils.getMessage("stats.total-votes")
-                            .replace("%total%", String.valueOf(playerData.getTotalVotes())));
-                    sender.sendMessage(MessageUtils.getMessage("stats.current-streak")
-                            .replace("%streak%", String.valueOf(playerData.getCurrentStreak())));
-                    sender.sendMessage(MessageUtils.getMessage("stats.best-streak")
-                            .replace("%best_streak%", String.valueOf(playerData.getBestStreak())));
+                    sender.sendMessage(MessageUtils.getMessage("stats.player-stats", "player", target.getName()));
+                    sender.sendMessage(MessageUtils.getMessage("stats.total-votes",
+                            "total", playerData.getTotalVotes()));
+                    sender.sendMessage(MessageUtils.getMessage("stats.current-streak",
+                            "streak", playerData.getCurrentStreak()));
+                    sender.sendMessage(MessageUtils.getMessage("stats.best-streak",
+                            "best_streak", playerData.getBestStreak()));
 
                     if (playerData.getLastVoteTime() != null) {
-                        sender.sendMessage(MessageUtils.getMessage("stats.last-vote")
-                                .replace("%last_vote%", playerData.getLastVoteTime().toString()));
+                        sender.sendMessage(MessageUtils.getMessage("stats.last-vote",
+                                "last_vote", playerData.getLastVoteTime().toString()));
                     }
                 });
 
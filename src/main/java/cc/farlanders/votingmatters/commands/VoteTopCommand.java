@@ -7,6 +7,8 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 
 import cc.farlanders.votingmatters.VotingMatters;
+import cc.farlanders.votingmatters.leaderboard.RollingLeaderboard;
+import cc.farlanders.votingmatters.models.LeaderboardPage;
 import cc.farlanders.votingmatters.models.PlayerVoteData;
 import cc.farlanders.votingmatters.utils.MessageUtils;
 
@@ -20,10 +22,14 @@ public class VoteTopCommand implements CommandExecutor {
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        // /votetop [daily|weekly|monthly] [page]
+        RollingLeaderboard.Window window = args.length > 0 ? RollingLeaderboard.Window.parse(args[0]) : null;
+        int pageArg = window != null ? 1 : 0;
+
         int tempPage = 1;
-        if (args.length > 0) {
+        if (args.length > pageArg) {
             try {
-                tempPage = Integer.parseInt(args[0]);
+                tempPage = Integer.parseInt(args[pageArg]);
                 tempPage = Math.max(1, tempPage);
             } catch (NumberFormatException e) {
                 tempPage = 1;
@@ -31,39 +37,44 @@ public class VoteTopCommand implements CommandExecutor {
         }
         final int page = tempPage; // Make final for lambda
 
-        int limit = plugin.getConfigManager().getConfig().getInt("leaderboard.top-players", 10);
+        int pageSize = Math.max(1, plugin.getConfigManager().getConfig().getInt("leaderboard.top-players", 10));
+
+        if (window != null) {
+            // Windowed leaderboards are kept in memory
+            showLeaderboard(sender, plugin.getLeaderboardManager().getWindowPage(window, page, pageSize), window);
+            return true;
+        }
 
-        plugin.getDatabaseManager().getTopVoters(limit)
-                .thenAccept(topVoters -> showLeaderboard(sender, topVoters, page));
+        plugin.getLeaderboardManager().getPage(page, pageSize)
+                .thenAccept(leaderboardPage -> showLeaderboard(sender, leaderboardPage, null));
 
         return true;
     }
 
-    private void showLeaderboard(CommandSender sender, List<PlayerVoteData> topVoters, int page) {
-        if (topVoters.isEmpty()) {
+    private void showLeaderboard(CommandSender sender, LeaderboardPage leaderboardPage,
+            RollingLeaderboard.Window window) {
+        List<PlayerVoteData> entries = leaderboardPage.entries();
+        if (entries.isEmpty()) {
             sender.sendMessage(MessageUtils.getMessage("leaderboard.no-data"));
             return;
         }
 
-        sender.sendMessage(MessageUtils.getMessage("leaderboard.header"));
-
-        int start = (page - 1) * 10;
-        int end = Math.min(start + 10, topVoters.size());
+        sender.sendMessage(window != null
+                ? MessageUtils.getMessage("leaderboard.header-" + window.name().toLowerCase())
+                : MessageUtils.getMessage("leaderboard.header"));
 
-        for (int i = start; i < end; i++) {
-            PlayerVoteData voter = topVoters.get(i);
-            String entry = MessageUtils.getMessage("leaderboard.entry")
-                    .replace("%position%", String.valueOf(i + 1))
-                    .replace("%player%", voter.getUsername())
-                    .replace("%votes%", String.valueOf(voter.getTotalVotes()));
+        int position = leaderboardPage.firstPosition();
+        for (PlayerVoteData voter : entries) {
+            String entry = MessageUtils.getMessage("leaderboard.entry", "position", position++,
+                    "player", voter.getUsername(), "votes", voter.getTotalVotes());
             sender.sendMessage(entry);
         }
 
-        int maxPages = (int) Math.ceil((double) topVoters.size() / 10);
-        String footer = MessageUtils.getMessage("leaderboard.footer")
-                .replace("%page%", String.valueOf(page))
-                .replace("%max_pages%", String.valueOf(maxPages))
-                .replace("%next_page%", String.valueOf(Math.min(page + 1, maxPages)));
+        int page = leaderboardPage.page();
+        int maxPages = Math.max(page, leaderboardPage.maxPages());
+        String nextPage = (window != null ? window.name().toLowerCase() + " " : "") + Math.min(page + 1, maxPages);
+        String footer = MessageUtils.getMessage("leaderboard.footer", "page", page, "max_pages", maxPages,
+                "next_page", nextPage);
         sender.sendMessage(footer);
     }
 }
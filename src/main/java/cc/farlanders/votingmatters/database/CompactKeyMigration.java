@@ -0,0 +1,244 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Online migration from text keys to compact keys. Rows are copied in small
+ * chunks while the plugin keeps using the text tables, with progress stored in
+ * {@code schema_settings} so an interrupted migration resumes where it left
+ * off. {@link #finish(PooledConnection)} copies whatever changed meanwhile and
+ * marks the database as compact.
+ */
+public class CompactKeyMigration {
+
+    public static final String FORMAT_MIGRATING = "migrating";
+
+    private static final String KEY_FORMAT = "key-format";
+    private static final String PLAYER_CURSOR = "compact-player-cursor";
+    private static final String VOTE_CURSOR = "compact-vote-cursor";
+    private static final String STARTED_AT = "compact-started-at";
+    private static final String PLAYERS_DONE = "done";
+    private static final int PROGRESS_LOG_INTERVAL = 50_000;
+
+    private final KeyCodec target;
+    private final Logger logger;
+    private final int chunkSize;
+    private long copiedVotes;
+
+    public CompactKeyMigration(KeyCodec target, Logger logger, int chunkSize) {
+        this.target = target;
+        this.logger = logger;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Read the key format the database is stored in
+     *
+     * @return {@link KeyCodec#FORMAT_TEXT}, {@link KeyCodec#FORMAT_COMPACT} or
+     *         {@link #FORMAT_MIGRATING}
+     */
+    public static String readFormat(PooledConnection connection) throws SQLException {
+        String format = getSetting(connection, KEY_FORMAT);
+        return format != null ? format : KeyCodec.FORMAT_TEXT;
+    }
+
+    /**
+     * Mark the migration as started unless it already is
+     */
+    public void start(PooledConnection connection) throws SQLException {
+        if (FORMAT_MIGRATING.equals(readFormat(connection))) {
+            logger.info("Resuming compact key migration");
+            return;
+        }
+
+        // Player rows changed after this point are copied again by finish()
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT CURRENT_TIMESTAMP")) {
+            rs.next();
+            putSetting(connection, STARTED_AT, rs.getString(1));
+        }
+        putSetting(connection, PLAYER_CURSOR, "");
+        putSetting(connection, VOTE_CURSOR, "0");
+        putSetting(connection, KEY_FORMAT, FORMAT_MIGRATING);
+        logger.info("Starting compact key migration; existing data is copied in the background");
+    }
+
+    /**
+     * Copy the next chunk of players, or of vote records once all players are
+     * copied
+     *
+     * @return Whether there is anything left to copy
+     */
+    public boolean copyNextChunk(PooledConnection connection) throws SQLException {
+        String playerCursor = getSetting(connection, PLAYER_CURSOR);
+        if (!PLAYERS_DONE.equals(playerCursor)) {
+            String last = copyPlayers(connection, "WHERE uuid > ? ORDER BY uuid LIMIT " + chunkSize,
+                    playerCursor != null ? playerCursor : "");
+            putSetting(connection, PLAYER_CURSOR, last != null ? last : PLAYERS_DONE);
+            return true;
+        }
+
+        long voteCursor = Long.parseLong(getSetting(connection, VOTE_CURSOR));
+        long last = copyVotes(connection, voteCursor, chunkSize);
+        if (last == voteCursor) {
+            return false;
+        }
+        putSetting(connection, VOTE_CURSOR, Long.toString(last));
+        return true;
+    }
+
+    /**
+     * Copy rows written since the migration started and switch the database to
+     * compact keys. Callers must ensure nothing writes to the text tables while
+     * this runs.
+     */
+    public void finish(PooledConnection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            copyPlayers(connection, "WHERE updated_at >= ?", getSetting(connection, STARTED_AT));
+            copyVotes(connection, Long.parseLong(getSetting(connection, VOTE_CURSOR)), Integer.MAX_VALUE);
+
+            copyRollups(connection);
+
+            // Votes rewarded, or deferred back to unrewarded, after they were copied
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("""
+                        UPDATE vote_records_compact
+                        SET rewarded = (SELECT v.rewarded FROM vote_records v WHERE v.id = vote_records_compact.id)
+                        WHERE rewarded <> (SELECT v.rewarded FROM vote_records v WHERE v.id = vote_records_compact.id)
+                        """);
+            }
+
+            putSetting(connection, KEY_FORMAT, KeyCodec.FORMAT_COMPACT);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        logger.info("Compact key migration complete; the text key tables are no longer used");
+    }
+
+    /**
+     * @return The last uuid copied, or null if no rows matched
+     */
+    private String copyPlayers(PooledConnection connection, String condition, String parameter)
+            throws SQLException {
+        PreparedStatement select = connection.prepareStatement(
+                "SELECT uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes, created_at, updated_at FROM player_vote_data "
+                        + condition);
+        select.setString(1, parameter);
+        PreparedStatement insert = connection.prepareStatement("""
+                REPLACE INTO player_vote_data_compact (uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """);
+
+        String last = null;
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                last = rs.getString("uuid");
+                target.setUuid(insert, 1, UUID.fromString(last));
+                insert.setString(2, rs.getString("username"));
+                insert.setInt(3, rs.getInt("total_votes"));
+                insert.setInt(4, rs.getInt("current_streak"));
+                insert.setInt(5, rs.getInt("best_streak"));
+                insert.setTimestamp(6, rs.getTimestamp("last_vote_time"));
+                insert.setInt(7, rs.getInt("offline_votes"));
+                insert.setTimestamp(8, rs.getTimestamp("created_at"));
+                insert.setTimestamp(9, rs.getTimestamp("updated_at"));
+                insert.addBatch();
+            }
+        }
+        if (last != null) {
+            insert.executeBatch();
+        }
+        return last;
+    }
+
+    /**
+     * @return The id of the last vote record copied, or {@code afterId} if none
+     */
+    private long copyVotes(PooledConnection connection, long afterId, int limit) throws SQLException {
+        PreparedStatement select = connection.prepareStatement(
+                "SELECT id, player_uuid, site_name, vote_time, ip_address, rewarded FROM vote_records WHERE id > ? ORDER BY id LIMIT ?");
+        select.setLong(1, afterId);
+        select.setInt(2, limit);
+        // Ids are kept so markVoteRewarded and the final rewarded sync line up
+        PreparedStatement insert = connection.prepareStatement("""
+                REPLACE INTO vote_records_compact (id, player_uuid, site_id, vote_time, ip_address, rewarded)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """);
+
+        long last = afterId;
+        int rows = 0;
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                last = rs.getLong("id");
+                insert.setLong(1, last);
+                target.setUuid(insert, 2, UUID.fromString(rs.getString("player_uuid")));
+                target.setSite(connection, insert, 3, rs.getString("site_name"));
+                insert.setTimestamp(4, rs.getTimestamp("vote_time"));
+                insert.setString(5, rs.getString("ip_address"));
+                insert.setBoolean(6, rs.getBoolean("rewarded"));
+                insert.addBatch();
+                rows++;
+            }
+        }
+        if (rows > 0) {
+            insert.executeBatch();
+            if ((copiedVotes + rows) / PROGRESS_LOG_INTERVAL > copiedVotes / PROGRESS_LOG_INTERVAL) {
+                logger.log(Level.INFO, "Compact key migration: copied vote records up to id {0}", last);
+            }
+            copiedVotes += rows;
+        }
+        return last;
+    }
+
+    /**
+     * Copy the vote rollups; compaction is paused while migrating, so they
+     * cannot change under the copy
+     */
+    private void copyRollups(PooledConnection connection) throws SQLException {
+        PreparedStatement insert = connection.prepareStatement("""
+                REPLACE INTO vote_rollups_compact (player_uuid, site_id, vote_day, vote_count)
+                VALUES (?, ?, ?, ?)
+                """);
+        int rows = 0;
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT player_uuid, site_name, vote_day, vote_count FROM vote_rollups")) {
+            while (rs.next()) {
+                target.setUuid(insert, 1, UUID.fromString(rs.getString("player_uuid")));
+                target.setSite(connection, insert, 2, rs.getString("site_name"));
+                insert.setLong(3, rs.getLong("vote_day"));
+                insert.setInt(4, rs.getInt("vote_count"));
+                insert.addBatch();
+                rows++;
+            }
+        }
+        if (rows > 0) {
+            insert.executeBatch();
+        }
+    }
+
+    private static String getSetting(PooledConnection connection, String name) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement("SELECT value FROM schema_settings WHERE name = ?");
+        stmt.setString(1, name);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getString("value") : null;
+        }
+    }
+
+    private static void putSetting(PooledConnection connection, String name, String value) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement("REPLACE INTO schema_settings (name, value) VALUES (?, ?)");
+        stmt.setString(1, name);
+        stmt.setString(2, value);
+        stmt.executeUpdate();
+    }
+}
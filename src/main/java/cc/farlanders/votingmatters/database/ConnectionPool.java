@@ -0,0 +1,238 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool with per-connection prepared statement caching,
+ * validation on borrow and idle eviction.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection to the database
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * Settings for a {@link ConnectionPool}
+     */
+    public record Settings(int maxSize, int minIdle, long connectionTimeoutMillis, long idleTimeoutMillis,
+            int validationTimeoutSeconds, int statementCacheSize) {
+
+        public Settings {
+            maxSize = Math.max(1, maxSize);
+            minIdle = Math.max(0, Math.min(minIdle, maxSize));
+            connectionTimeoutMillis = Math.max(0, connectionTimeoutMillis);
+            idleTimeoutMillis = Math.max(1000, idleTimeoutMillis);
+            validationTimeoutSeconds = Math.max(1, validationTimeoutSeconds);
+            statementCacheSize = Math.max(0, statementCacheSize);
+        }
+    }
+
+    /**
+     * Point-in-time view of the pool, used to size it
+     */
+    public record Stats(int active, int idle, int total, int maxSize, int waiting, long borrows, long timeouts,
+            double averageWaitMillis, double maxWaitMillis, long statementCacheHits, long statementCacheMisses) {
+    }
+
+    // Connections idle for less than this are handed out without a validation round trip
+    private static final long VALIDATION_SKIP_MILLIS = 500;
+    private static final long EVICTION_INTERVAL_SECONDS = 30;
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final Logger logger;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionFactory factory, Settings settings, Logger logger) throws SQLException {
+        this.factory = factory;
+        this.settings = settings;
+        this.logger = logger;
+        this.permits = new Semaphore(settings.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "VotingMatters-DB-Housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Warm up the minimum number of idle connections so the first burst doesn't pay for them
+        for (int i = 0; i < settings.minIdle(); i++) {
+            idle.offerFirst(open());
+        }
+
+        housekeeper.scheduleWithFixedDelay(this::evictIdle, EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the configured connection timeout for one
+     * to become free. The connection must be closed to return it to the pool.
+     */
+    public PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.connectionTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + settings.connectionTimeoutMillis()
+                        + "ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection connection = takeIdle();
+            if (connection == null) {
+                connection = open();
+            }
+            connection.markBorrowed();
+            active.incrementAndGet();
+            borrows.incrementAndGet();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (isUsable(connection)) {
+                return connection;
+            }
+            discard(connection);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        if (connection.idleMillis() < VALIDATION_SKIP_MILLIS) {
+            return true;
+        }
+        try {
+            return connection.getConnection().isValid(settings.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        PooledConnection connection = new PooledConnection(this, factory.create(), settings.statementCacheSize());
+        total.incrementAndGet();
+        return connection;
+    }
+
+    /**
+     * Called by {@link PooledConnection#close()} to hand a connection back
+     */
+    void release(PooledConnection connection, boolean reusable) {
+        active.decrementAndGet();
+        try {
+            if (closed || !reusable) {
+                discard(connection);
+            } else {
+                connection.markIdle();
+                idle.offerFirst(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        total.decrementAndGet();
+        connection.closePhysical();
+    }
+
+    private void evictIdle() {
+        try {
+            Iterator<PooledConnection> iterator = idle.descendingIterator();
+            while (iterator.hasNext() && total.get() > settings.minIdle()) {
+                PooledConnection connection = iterator.next();
+                if (connection.idleMillis() >= settings.idleTimeoutMillis() && idle.remove(connection)) {
+                    discard(connection);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to evict idle database connections: {0}", e.getMessage());
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordStatementCache(boolean hit) {
+        (hit ? statementCacheHits : statementCacheMisses).incrementAndGet();
+    }
+
+    public Stats getStats() {
+        long borrowCount = borrows.get();
+        double averageWait = borrowCount == 0 ? 0 : totalWaitNanos.get() / (double) borrowCount / 1_000_000.0;
+        return new Stats(
+                active.get(),
+                idle.size(),
+                total.get(),
+                settings.maxSize(),
+                permits.getQueueLength(),
+                borrowCount,
+                timeouts.get(),
+                averageWait,
+                maxWaitNanos.get() / 1_000_000.0,
+                statementCacheHits.get(),
+                statementCacheMisses.get());
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+}
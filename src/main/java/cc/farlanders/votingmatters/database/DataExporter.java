@@ -0,0 +1,204 @@
+package cc.farlanders.votingmatters.database;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streams a table to a gzip-compressed NDJSON or CSV file. Rows are read with
+ * a forward-only cursor and written as they arrive, so memory use does not
+ * depend on the table size.
+ */
+public class DataExporter {
+
+    public enum Table {
+        PLAYERS("uuid", "username", "total_votes", "current_streak", "best_streak", "last_vote_time",
+                "offline_votes"),
+        VOTES("id", "player_uuid", "site_name", "vote_time", "ip_address", "rewarded");
+
+        private final String[] columns;
+
+        Table(String... columns) {
+            this.columns = columns;
+        }
+
+        String[] columns() {
+            return columns;
+        }
+    }
+
+    public enum Format {
+        NDJSON("ndjson"),
+        CSV("csv");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private final int fetchSize;
+
+    public DataExporter(int fetchSize) {
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    /**
+     * Write every row of the table to the file
+     *
+     * @param progress Called with the number of rows written every 10,000 rows
+     * @return The number of rows written
+     */
+    public long export(PooledConnection connection, KeyCodec keys, Table table, Format format, File output,
+            LongConsumer progress) throws SQLException, IOException {
+        String sql = switch (table) {
+            case PLAYERS ->
+                "SELECT uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes FROM {players}";
+            case VOTES -> "SELECT id, player_uuid, {site}, vote_time, ip_address, rewarded FROM {votes}";
+        };
+
+        long rows = 0;
+        try (Statement stmt = connection.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(
+                        new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(output))),
+                        StandardCharsets.UTF_8))) {
+            stmt.setFetchSize(fetchSize);
+            if (format == Format.CSV) {
+                writer.write(String.join(",", table.columns()));
+                writer.write('\n');
+            }
+
+            try (ResultSet rs = stmt.executeQuery(keys.sql(sql))) {
+                Object[] values = new Object[table.columns().length];
+                while (rs.next()) {
+                    readRow(connection, keys, table, rs, values);
+                    if (format == Format.CSV) {
+                        writeCsv(writer, values);
+                    } else {
+                        writeJson(writer, table.columns(), values);
+                    }
+
+                    rows++;
+                    if (rows % PROGRESS_INTERVAL == 0) {
+                        progress.accept(rows);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void readRow(PooledConnection connection, KeyCodec keys, Table table, ResultSet rs, Object[] values)
+            throws SQLException {
+        if (table == Table.PLAYERS) {
+            values[0] = keys.getUuid(rs, "uuid").toString();
+            values[1] = rs.getString("username");
+            values[2] = rs.getInt("total_votes");
+            values[3] = rs.getInt("current_streak");
+            values[4] = rs.getInt("best_streak");
+            values[5] = formatTime(rs.getTimestamp("last_vote_time"));
+            values[6] = rs.getInt("offline_votes");
+        } else {
+            values[0] = rs.getLong("id");
+            values[1] = keys.getUuid(rs, "player_uuid").toString();
+            values[2] = keys.getSite(connection, rs, keys.siteColumn());
+            values[3] = formatTime(rs.getTimestamp("vote_time"));
+            values[4] = rs.getString("ip_address");
+            values[5] = rs.getBoolean("rewarded");
+        }
+    }
+
+    private String formatTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant().toString() : null;
+    }
+
+    private void writeJson(Writer writer, String[] columns, Object[] values) throws IOException {
+        // One JsonWriter per line; closing it would close the file
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        for (int i = 0; i < columns.length; i++) {
+            json.name(columns[i]);
+            Object value = values[i];
+            if (value == null) {
+                json.nullValue();
+            } else if (value instanceof Number number) {
+                json.value(number);
+            } else if (value instanceof Boolean bool) {
+                json.value(bool);
+            } else {
+                json.value(value.toString());
+            }
+        }
+        json.endObject();
+        json.flush();
+        writer.write('\n');
+    }
+
+    private void writeCsv(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Parse a table name as typed in the export command
+     *
+     * @return The table, or null if unknown
+     */
+    public static Table parseTable(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "players" -> Table.PLAYERS;
+            case "votes" -> Table.VOTES;
+            default -> null;
+        };
+    }
+
+    /**
+     * Parse a format name as typed in the export command
+     *
+     * @return The format, or null if unknown
+     */
+    public static Format parseFormat(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "ndjson", "json" -> Format.NDJSON;
+            case "csv" -> Format.CSV;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,306 @@
+package cc.farlanders.votingmatters.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes vote history from another source straight into the vote and player
+ * tables. Each chunk is read, written and checkpointed in one transaction, so
+ * an interrupted import resumes where it stopped without duplicating votes.
+ * Nothing goes through the vote manager, so no events fire and no rewards are
+ * given.
+ */
+public class DataImporter {
+
+    /**
+     * One vote read from an import source
+     */
+    public record ImportRow(UUID playerUuid, String username, String siteName, Timestamp voteTime,
+            boolean rewarded) {
+    }
+
+    /**
+     * Source column or field names for each vote property. Blank names mean the
+     * source does not have that property.
+     */
+    public record ColumnMapping(String uuid, String username, String site, String time, String rewarded,
+            String defaultSite) {
+    }
+
+    /**
+     * Checkpoint of an import source
+     */
+    public record Progress(long position, long rowsImported, boolean completed) {
+    }
+
+    /**
+     * Outcome of an import run, or its state so far
+     */
+    public record Result(String source, long imported, long skipped, long elapsedMillis, boolean alreadyCompleted) {
+
+        public double rowsPerSecond() {
+            return elapsedMillis > 0 ? imported * 1000.0 / elapsedMillis : imported;
+        }
+    }
+
+    /**
+     * Rows to import, read in order. Positions are opaque to the importer and
+     * only need to let {@link #seek(long)} continue after the last read row.
+     */
+    public interface Source extends Closeable {
+
+        /**
+         * Key the progress of this source is stored under
+         */
+        String getName();
+
+        /**
+         * Continue reading after a position returned by {@link #getPosition()}
+         */
+        void seek(long position) throws IOException, SQLException;
+
+        /**
+         * Read up to {@code max} rows; an empty list means the source is exhausted
+         */
+        List<ImportRow> read(PooledConnection connection, int max) throws IOException, SQLException;
+
+        long getPosition();
+
+        /**
+         * Number of rows skipped because they could not be parsed
+         */
+        long getSkipped();
+    }
+
+    private record PlayerTotals(String username, int votes, Timestamp lastVoteTime) {
+    }
+
+    private static final String UNKNOWN_USERNAME = "Unknown";
+    private static final int MAX_USERNAME_LENGTH = 16;
+    private static final int MAX_SITE_LENGTH = 50;
+    // Numeric times below this are seconds rather than milliseconds (year 5138)
+    private static final long MAX_EPOCH_SECONDS = 100_000_000_000L;
+
+    private final String upsertPlayerSql;
+
+    public DataImporter(String dbType) {
+        // Imported votes add to existing totals; names of known players are kept
+        this.upsertPlayerSql = dbType.equalsIgnoreCase("sqlite")
+                ? """
+                        INSERT INTO {players} (uuid, username, total_votes, last_vote_time, updated_at)
+                        VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+                        ON CONFLICT(uuid) DO UPDATE SET total_votes = total_votes + excluded.total_votes,
+                            last_vote_time = CASE WHEN last_vote_time IS NULL OR excluded.last_vote_time > last_vote_time
+                                THEN excluded.last_vote_time ELSE last_vote_time END,
+                            updated_at = CURRENT_TIMESTAMP
+                        """
+                : """
+                        INSERT INTO {players} (uuid, username, total_votes, last_vote_time, updated_at)
+                        VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+                        ON DUPLICATE KEY UPDATE total_votes = total_votes + VALUES(total_votes),
+                            last_vote_time = CASE WHEN last_vote_time IS NULL OR VALUES(last_vote_time) > last_vote_time
+                                THEN VALUES(last_vote_time) ELSE last_vote_time END,
+                            updated_at = CURRENT_TIMESTAMP
+                        """;
+    }
+
+    /**
+     * Load the checkpoint of a source
+     *
+     * @return The checkpoint, or an empty one if the source was never imported
+     */
+    public Progress loadProgress(PooledConnection connection, String sourceName) throws SQLException {
+        PreparedStatement stmt = connection
+                .prepareStatement("SELECT position, rows_imported, completed FROM import_progress WHERE source = ?");
+        stmt.setString(1, sourceName);
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return new Progress(rs.getLong("position"), rs.getLong("rows_imported"), rs.getBoolean("completed"));
+            }
+        }
+        return new Progress(0, 0, false);
+    }
+
+    /**
+     * Import the next chunk of the source in one transaction. If this fails the
+     * source may have moved past the chunk, so the import has to be restarted
+     * from the stored checkpoint.
+     *
+     * @return The checkpoint after the chunk; completed once the source is
+     *         exhausted
+     */
+    public Progress importChunk(PooledConnection connection, KeyCodec keys, Source source, Progress progress,
+            int chunkSize) throws IOException, SQLException {
+        connection.setAutoCommit(false);
+        try {
+            List<ImportRow> rows = source.read(connection, chunkSize);
+            Progress next = new Progress(source.getPosition(), progress.rowsImported() + rows.size(),
+                    rows.isEmpty());
+            if (!rows.isEmpty()) {
+                writeRows(connection, keys, rows);
+            }
+            saveProgress(connection, source.getName(), next);
+            connection.commit();
+            return next;
+        } catch (IOException | SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void writeRows(PooledConnection connection, KeyCodec keys, List<ImportRow> rows) throws SQLException {
+        Map<UUID, PlayerTotals> players = new LinkedHashMap<>();
+        for (ImportRow row : rows) {
+            players.merge(row.playerUuid(), new PlayerTotals(row.username(), 1, row.voteTime()),
+                    (current, added) -> new PlayerTotals(
+                            added.username() != null ? added.username() : current.username(),
+                            current.votes() + 1,
+                            added.lastVoteTime().after(current.lastVoteTime()) ? added.lastVoteTime()
+                                    : current.lastVoteTime()));
+        }
+
+        // Players first, since vote_records references them
+        PreparedStatement upsert = connection.prepareStatement(keys.sql(upsertPlayerSql));
+        for (Map.Entry<UUID, PlayerTotals> entry : players.entrySet()) {
+            PlayerTotals totals = entry.getValue();
+            keys.setUuid(upsert, 1, entry.getKey());
+            upsert.setString(2, totals.username() != null ? totals.username() : UNKNOWN_USERNAME);
+            upsert.setInt(3, totals.votes());
+            upsert.setTimestamp(4, totals.lastVoteTime());
+            upsert.addBatch();
+        }
+        upsert.executeBatch();
+
+        PreparedStatement insert = connection.prepareStatement(keys.sql(
+                "INSERT INTO {votes} (player_uuid, {site}, vote_time, rewarded) VALUES (?, ?, ?, ?)"));
+        for (ImportRow row : rows) {
+            keys.setUuid(insert, 1, row.playerUuid());
+            keys.setSite(connection, insert, 2, row.siteName());
+            insert.setTimestamp(3, row.voteTime());
+            insert.setBoolean(4, row.rewarded());
+            insert.addBatch();
+        }
+        insert.executeBatch();
+    }
+
+    private void saveProgress(PooledConnection connection, String sourceName, Progress progress)
+            throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement("""
+                REPLACE INTO import_progress (source, position, rows_imported, completed, updated_at)
+                VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+                """);
+        stmt.setString(1, sourceName);
+        stmt.setLong(2, progress.position());
+        stmt.setLong(3, progress.rowsImported());
+        stmt.setBoolean(4, progress.completed());
+        stmt.executeUpdate();
+    }
+
+    /**
+     * Build a row from raw source values
+     *
+     * @return The row, or null if the player or vote time cannot be parsed
+     */
+    static ImportRow toRow(ColumnMapping mapping, Object uuid, Object username, Object site, Object time,
+            Object rewarded) {
+        UUID playerUuid = parseUuid(uuid);
+        Timestamp voteTime = parseTime(time);
+        if (playerUuid == null || voteTime == null) {
+            return null;
+        }
+
+        String name = username != null ? username.toString().trim() : "";
+        if (name.length() > MAX_USERNAME_LENGTH) {
+            name = name.substring(0, MAX_USERNAME_LENGTH);
+        }
+        String siteName = site != null && !site.toString().isBlank() ? site.toString().trim()
+                : mapping.defaultSite();
+        if (siteName.length() > MAX_SITE_LENGTH) {
+            siteName = siteName.substring(0, MAX_SITE_LENGTH);
+        }
+        return new ImportRow(playerUuid, name.isEmpty() ? null : name, siteName, voteTime,
+                rewarded == null || parseBoolean(rewarded));
+    }
+
+    static UUID parseUuid(Object value) {
+        if (value instanceof byte[] bytes) {
+            return bytes.length == 16 ? KeyCodec.fromBytes(bytes) : null;
+        }
+        if (value == null) {
+            return null;
+        }
+
+        String text = value.toString().trim();
+        if (text.length() == 32) {
+            text = text.substring(0, 8) + "-" + text.substring(8, 12) + "-" + text.substring(12, 16) + "-"
+                    + text.substring(16, 20) + "-" + text.substring(20);
+        }
+        try {
+            return UUID.fromString(text);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse a vote time given as a timestamp, epoch seconds or milliseconds, an
+     * ISO-8601 instant or a SQL timestamp string
+     *
+     * @return The time, or null if it cannot be parsed
+     */
+    static Timestamp parseTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp;
+        }
+        if (value instanceof java.util.Date date) {
+            return new Timestamp(date.getTime());
+        }
+        if (value instanceof Number number) {
+            long time = number.longValue();
+            return new Timestamp(Math.abs(time) < MAX_EPOCH_SECONDS ? time * 1000 : time);
+        }
+        if (value == null || value.toString().isBlank()) {
+            return null;
+        }
+
+        String text = value.toString().trim();
+        try {
+            return parseTime(Long.parseLong(text));
+        } catch (NumberFormatException e) {
+            // Not a number
+        }
+        try {
+            return Timestamp.from(Instant.parse(text));
+        } catch (DateTimeParseException e) {
+            // Not an ISO-8601 instant
+        }
+        try {
+            return Timestamp.valueOf(text);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean parseBoolean(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof Number number) {
+            return number.intValue() != 0;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() || text.equalsIgnoreCase("true") || text.equals("1");
+    }
+}
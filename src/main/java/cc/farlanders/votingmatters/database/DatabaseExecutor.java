@@ -0,0 +1,173 @@
+package cc.farlanders.votingmatters.database;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Named, bounded executor that runs all blocking database work so that a slow
+ * database cannot starve the shared common pool. Saturation is reported through
+ * {@link #getStats()} rather than showing up as unexplained stalls.
+ */
+public class DatabaseExecutor implements Executor {
+
+    /**
+     * Point-in-time view of the executor
+     */
+    public record Stats(int threads, int active, int queued, int queueCapacity, long completed, long rejected,
+            int peakQueued, double averageQueueMillis, double maxQueueMillis) {
+    }
+
+    private static final long REJECTION_WARNING_INTERVAL_MILLIS = 60_000;
+
+    private final ThreadPoolExecutor executor;
+    private final Logger logger;
+    private final int queueCapacity;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicInteger peakQueued = new AtomicInteger();
+    private final AtomicLong startedTasks = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+    private final AtomicLong lastRejectionWarning = new AtomicLong();
+
+    public DatabaseExecutor(int threads, int queueCapacity, Logger logger) {
+        this(threads, queueCapacity, logger, "VotingMatters-DB");
+    }
+
+    public DatabaseExecutor(int threads, int queueCapacity, Logger logger, String threadName) {
+        this.logger = logger;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), new NamedThreadFactory(threadName),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Run a task on the database executor and complete the returned future with
+     * its result. After shutdown the future fails with a
+     * {@link RejectedExecutionException}; the task never runs on the caller.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        if (executor.isShutdown()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Database executor is shut down"));
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            execute(() -> {
+                try {
+                    future.complete(task.get());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Run a task on the database executor
+     */
+    public CompletableFuture<Void> run(Runnable task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                recordQueueTime(System.nanoTime() - queuedAt);
+                command.run();
+            });
+        } catch (RejectedExecutionException e) {
+            onRejected();
+            throw e;
+        }
+        peakQueued.accumulateAndGet(executor.getQueue().size(), Math::max);
+    }
+
+    private void recordQueueTime(long nanos) {
+        startedTasks.incrementAndGet();
+        totalQueueNanos.addAndGet(nanos);
+        maxQueueNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void onRejected() {
+        long count = rejected.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long last = lastRejectionWarning.get();
+        if (now - last >= REJECTION_WARNING_INTERVAL_MILLIS && lastRejectionWarning.compareAndSet(last, now)) {
+            logger.log(Level.WARNING,
+                    "Database executor is saturated ({0} queued); {1} operations rejected so far. "
+                            + "Consider raising database.executor.queue-capacity or database.pool.max-size.",
+                    new Object[] { executor.getQueue().size(), count });
+        }
+    }
+
+    public Stats getStats() {
+        long started = startedTasks.get();
+        double averageQueue = started == 0 ? 0 : totalQueueNanos.get() / (double) started / 1_000_000.0;
+        return new Stats(
+                executor.getPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                executor.getCompletedTaskCount(),
+                rejected.get(),
+                peakQueued.get(),
+                averageQueue,
+                maxQueueNanos.get() / 1_000_000.0);
+    }
+
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /**
+     * Stop accepting work and wait for queued operations to finish
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, unit)) {
+                logger.log(Level.WARNING, "Database executor did not finish within {0}ms; {1} operations dropped",
+                        new Object[] { unit.toMillis(timeout), executor.shutdownNow().size() });
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String name;
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
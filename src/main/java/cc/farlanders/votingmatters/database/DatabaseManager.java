@@ -1,7 +1,8 @@
 package cc.farlanders.votingmatters.database;
 
 import java.io.File;
-import java.sql.Connection;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -9,25 +10,80 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.logging.Level;
 
+import org.bukkit.configuration.file.FileConfiguration;
+
 import cc.farlanders.votingmatters.VotingMatters;
+import cc.farlanders.votingmatters.models.LeaderboardPage;
+import cc.farlanders.votingmatters.models.PlayerSession;
 import cc.farlanders.votingmatters.models.PlayerVoteData;
 import cc.farlanders.votingmatters.models.VoteRecord;
 
 public class DatabaseManager {
 
+    private static final String INSERT_VOTE_SQL = "INSERT INTO {votes} (player_uuid, {site}, vote_time, ip_address, rewarded) VALUES (?, ?, ?, ?, ?)";
+
     private final VotingMatters plugin;
-    private Connection connection;
+    private ConnectionPool pool;
+    private ConnectionPool readPool;
+    private SqliteEngine sqliteEngine;
+    private final DatabaseExecutor executor;
+    private final DatabaseExecutor writeExecutor;
+    private final WriteBehindBuffer writeBuffer;
+    private final PlayerDataCache playerCache;
+    private final PlayerSessionStore sessions = new PlayerSessionStore();
     private final String dbType;
+    private final String upsertPlayerSql;
+    private final String selectPlayerForUpdateSql;
+    private final ReentrantReadWriteLock keyLock = new ReentrantReadWriteLock();
+    private volatile KeyCodec keys = KeyCodec.text();
+    private volatile String keyFormat = KeyCodec.FORMAT_TEXT;
+
+    /**
+     * Last row of a leaderboard page, where the next page starts
+     */
+    public record PageStart(int totalVotes, UUID uuid) {
+    }
+
+    private record PlayerCount(int count, long countedAt) {
+    }
+
+    private final VoteCompactor compactor;
+    private final AtomicBoolean compactionRunning = new AtomicBoolean();
+    private final AtomicBoolean exportRunning = new AtomicBoolean();
+    private final DataImporter importer;
+    private final AtomicBoolean importRunning = new AtomicBoolean();
+    private volatile PlayerCount playerCount;
 
     public DatabaseManager(VotingMatters plugin) {
         this.plugin = plugin;
         this.dbType = plugin.getConfigManager().getConfig().getString("database.type", "sqlite");
+        this.upsertPlayerSql = buildUpsertPlayerSql();
+        this.compactor = new VoteCompactor(dbType);
+        this.importer = new DataImporter(dbType);
+        // SQLite has a single writer, so only MySQL needs the row lock
+        this.selectPlayerForUpdateSql = "SELECT uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes FROM {players} WHERE uuid = ?"
+                + (dbType.equalsIgnoreCase("sqlite") ? "" : " FOR UPDATE");
         initialize();
+        this.executor = createExecutor();
+        this.writeExecutor = createWriteExecutor();
+        this.writeBuffer = createWriteBuffer();
+        this.playerCache = createPlayerCache();
+        initializeKeyFormat();
     }
 
     private void initialize() {
@@ -49,8 +105,17 @@ public class DatabaseManager {
             dataFolder.mkdirs();
         }
 
+        FileConfiguration config = plugin.getConfigManager().getConfig();
         String url = "jdbc:sqlite:" + dataFolder.getAbsolutePath() + File.separator + "votes.db";
-        connection = DriverManager.getConnection(url);
+        SqliteEngine.Settings settings = new SqliteEngine.Settings(
+                config.getString("database.sqlite.journal-mode", "WAL"),
+                config.getString("database.sqlite.synchronous", "NORMAL"),
+                config.getInt("database.sqlite.busy-timeout", 5000),
+                config.getLong("database.sqlite.mmap-size", 268435456L),
+                config.getInt("database.sqlite.read-connections", 4));
+        sqliteEngine = new SqliteEngine(url, settings, readPoolSettings(Integer.MAX_VALUE), plugin.getLogger());
+        pool = sqliteEngine.getWriter();
+        readPool = sqliteEngine.getReaders();
     }
 
     private void setupMySQL() throws SQLException {
@@ -60,218 +125,1235 @@ public class DatabaseManager {
         String username = plugin.getConfigManager().getConfig().getString("database.username");
         String password = plugin.getConfigManager().getConfig().getString("database.password");
 
-        String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=false&serverTimezone=UTC",
+        String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=false&serverTimezone=UTC&useCursorFetch=true",
                 host, port, database);
-        connection = DriverManager.getConnection(url, username, password);
+        ConnectionPool.Settings settings = readPoolSettings(Integer.MAX_VALUE);
+        pool = new ConnectionPool(() -> DriverManager.getConnection(url, username, password), settings,
+                plugin.getLogger());
+        readPool = pool;
     }
 
-    private void createTables() throws SQLException {
-        // Player vote data table
-        String createPlayerData = """
-                    CREATE TABLE IF NOT EXISTS player_vote_data (
-                        uuid VARCHAR(36) PRIMARY KEY,
-                        username VARCHAR(16) NOT NULL,
-                        total_votes INTEGER DEFAULT 0,
-                        current_streak INTEGER DEFAULT 0,
-                        best_streak INTEGER DEFAULT 0,
-                        last_vote_time TIMESTAMP,
-                        offline_votes INTEGER DEFAULT 0,
-                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                    )
-                """;
-
-        // Vote records table
-        String createVoteRecords = """
-                    CREATE TABLE IF NOT EXISTS vote_records (
-                        id INTEGER PRIMARY KEY %s,
-                        player_uuid VARCHAR(36) NOT NULL,
-                        site_name VARCHAR(50) NOT NULL,
-                        vote_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                        ip_address VARCHAR(45),
-                        rewarded BOOLEAN DEFAULT FALSE,
-                        FOREIGN KEY (player_uuid) REFERENCES player_vote_data(uuid)
-                    )
-                """.formatted(dbType.equalsIgnoreCase("sqlite") ? "AUTOINCREMENT" : "AUTO_INCREMENT");
-
-        // Vote site status table
-        String createSiteStatus = """
-                    CREATE TABLE IF NOT EXISTS vote_site_status (
-                        site_name VARCHAR(50) PRIMARY KEY,
-                        last_check TIMESTAMP,
-                        status VARCHAR(20) DEFAULT 'UNKNOWN',
-                        error_message TEXT
-                    )
-                """;
-
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createPlayerData);
-            stmt.execute(createVoteRecords);
-            stmt.execute(createSiteStatus);
+    private ConnectionPool.Settings readPoolSettings(int sizeCap) {
+        FileConfiguration config = plugin.getConfigManager().getConfig();
+        int maxSize = Math.min(sizeCap, config.getInt("database.pool.max-size", 8));
+        return new ConnectionPool.Settings(
+                maxSize,
+                Math.min(maxSize, config.getInt("database.pool.min-idle", 2)),
+                config.getLong("database.pool.connection-timeout", 5000),
+                config.getLong("database.pool.idle-timeout", 600000),
+                config.getInt("database.pool.validation-timeout", 3),
+                config.getInt("database.pool.statement-cache-size", 32));
+    }
+
+    private DatabaseExecutor createExecutor() {
+        FileConfiguration config = plugin.getConfigManager().getConfig();
+        // Threads beyond the pool size would only block waiting for a connection
+        int threads = config.getInt("database.executor.threads", 4);
+        if (readPool != null) {
+            threads = Math.min(threads, readPool.getSettings().maxSize());
         }
+        return new DatabaseExecutor(threads, config.getInt("database.executor.queue-capacity", 1000),
+                plugin.getLogger());
     }
 
-    public CompletableFuture<PlayerVoteData> getPlayerData(UUID playerUuid) {
-        return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes FROM player_vote_data WHERE uuid = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, playerUuid.toString());
-                ResultSet rs = stmt.executeQuery();
-
-                if (rs.next()) {
-                    return new PlayerVoteData(
-                            UUID.fromString(rs.getString("uuid")),
-                            rs.getString("username"),
-                            rs.getInt("total_votes"),
-                            rs.getInt("current_streak"),
-                            rs.getInt("best_streak"),
-                            rs.getTimestamp("last_vote_time"),
-                            rs.getInt("offline_votes"));
+    private DatabaseExecutor createWriteExecutor() {
+        if (sqliteEngine == null) {
+            return executor;
+        }
+        // SQLite has one writer connection, so writes get one thread of their own
+        // instead of tying up reader threads while they wait for it
+        return new DatabaseExecutor(1, plugin.getConfigManager().getConfig()
+                .getInt("database.executor.queue-capacity", 1000), plugin.getLogger(), "VotingMatters-DB-Writer");
+    }
+
+    private PlayerDataCache createPlayerCache() {
+        FileConfiguration config = plugin.getConfigManager().getConfig();
+        return new PlayerDataCache(config.getBoolean("database.cache.enabled", true),
+                config.getInt("database.cache.max-size", 1000),
+                config.getLong("database.cache.expire-after-access", 600) * 1000);
+    }
+
+    private WriteBehindBuffer createWriteBuffer() {
+        FileConfiguration config = plugin.getConfigManager().getConfig();
+        return new WriteBehindBuffer(this::writeBatch, writeExecutor, plugin.getLogger(),
+                config.getBoolean("database.write-behind.enabled", true),
+                config.getLong("database.write-behind.flush-interval", 250),
+                config.getInt("database.write-behind.max-batch-size", 500));
+    }
+
+    /**
+     * Pick up the key format the database is stored in, and start or resume the
+     * compact key migration if it is enabled
+     */
+    private void initializeKeyFormat() {
+        if (pool == null) {
+            return;
+        }
+
+        FileConfiguration config = plugin.getConfigManager().getConfig();
+        KeyCodec compactKeys = KeyCodec.compact();
+        CompactKeyMigration migration = new CompactKeyMigration(compactKeys, plugin.getLogger(),
+                config.getInt("database.compact-keys.chunk-size", 1000));
+        try {
+            keyFormat = withConnection(CompactKeyMigration::readFormat);
+            if (keyFormat.equals(KeyCodec.FORMAT_COMPACT)) {
+                keys = compactKeys;
+                return;
+            }
+
+            boolean enabled = config.getBoolean("database.compact-keys.enabled", false);
+            if (enabled || keyFormat.equals(CompactKeyMigration.FORMAT_MIGRATING)) {
+                withConnection(connection -> {
+                    migration.start(connection);
+                    return null;
+                });
+                keyFormat = CompactKeyMigration.FORMAT_MIGRATING;
+                copyCompactKeyChunk(migration, compactKeys);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to prepare compact key migration: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Copy one chunk on the database executor, queueing the next chunk behind any
+     * work submitted meanwhile so regular operations are not held up
+     */
+    private void copyCompactKeyChunk(CompactKeyMigration migration, KeyCodec compactKeys) {
+        writeExecutor.run(() -> {
+            if (pool.isClosed()) {
+                return;
+            }
+            try {
+                if (withConnection(migration::copyNextChunk)) {
+                    copyCompactKeyChunk(migration, compactKeys);
+                    return;
+                }
+
+                // Block all other database work while the last changes are copied
+                keyLock.writeLock().lock();
+                try {
+                    withConnection(connection -> {
+                        migration.finish(connection);
+                        return null;
+                    });
+                    keys = compactKeys;
+                    keyFormat = KeyCodec.FORMAT_COMPACT;
+                } finally {
+                    keyLock.writeLock().unlock();
                 }
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to get player data: {0}", e.getMessage());
+                plugin.getLogger().log(Level.WARNING,
+                        "Compact key migration paused, it will resume on the next start: {0}", e.getMessage());
             }
+        }).exceptionally(throwable -> {
+            plugin.getLogger().log(Level.WARNING,
+                    "Compact key migration paused, it will resume on the next start: {0}", throwable.getMessage());
             return null;
         });
     }
 
-    public CompletableFuture<Void> savePlayerData(PlayerVoteData data) {
-        String sql = """
-                INSERT INTO player_vote_data (uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes, updated_at)
+    /**
+     * Get the key format the database is stored in
+     *
+     * @return text, migrating or compact
+     */
+    public String getKeyFormat() {
+        return keyFormat;
+    }
+
+    private String buildUpsertPlayerSql() {
+        boolean sqlite = dbType.equalsIgnoreCase("sqlite");
+        // SQLite refers to the incoming row as excluded.col, MySQL as VALUES(col)
+        String[] columns = { "username", "total_votes", "current_streak", "best_streak", "last_vote_time",
+                "offline_votes" };
+        StringBuilder assignments = new StringBuilder();
+        for (String column : columns) {
+            assignments.append(column).append(" = ")
+                    .append(sqlite ? "excluded." + column : "VALUES(" + column + ")")
+                    .append(",\n    ");
+        }
+        assignments.append("updated_at = CURRENT_TIMESTAMP");
+
+        return """
+                INSERT INTO {players} (uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes, updated_at)
                 VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
                 ON %s
-                SET username = VALUES(username),
-                    total_votes = VALUES(total_votes),
-                    current_streak = VALUES(current_streak),
-                    best_streak = VALUES(best_streak),
-                    last_vote_time = VALUES(last_vote_time),
-                    offline_votes = VALUES(offline_votes),
-                    updated_at = CURRENT_TIMESTAMP
+                SET %s
                 """
-                .formatted(dbType.equalsIgnoreCase("sqlite") ? "CONFLICT(uuid) DO UPDATE" : "DUPLICATE KEY UPDATE");
+                .formatted(sqlite ? "CONFLICT(uuid) DO UPDATE" : "DUPLICATE KEY UPDATE", assignments);
+    }
+
+    /**
+     * Unit of work run against a pooled connection
+     */
+    @FunctionalInterface
+    private interface SqlFunction<T> {
+        T apply(PooledConnection connection) throws SQLException;
+    }
+
+    /**
+     * Borrow a connection for the duration of {@code work}. Connections that fail
+     * with a connection-level error are discarded rather than pooled again.
+     * {@link #keys} must be read inside {@code work}, since the key format can
+     * only change while no work is running.
+     */
+    private <T> T withConnection(SqlFunction<T> work) throws SQLException {
+        return withConnection(pool, work);
+    }
+
+    /**
+     * Like {@link #withConnection(SqlFunction)}, but on a connection that may be
+     * read-only
+     */
+    private <T> T withReadConnection(SqlFunction<T> work) throws SQLException {
+        return withConnection(readPool, work);
+    }
+
+    private <T> T withConnection(ConnectionPool source, SqlFunction<T> work) throws SQLException {
+        if (source == null) {
+            throw new SQLException("Database is not initialized");
+        }
+        keyLock.readLock().lock();
+        try (PooledConnection connection = source.borrow()) {
+            try {
+                return work.apply(connection);
+            } catch (SQLException e) {
+                if (e.getSQLState() != null && e.getSQLState().startsWith("08")) {
+                    connection.invalidate();
+                }
+                throw e;
+            }
+        } finally {
+            keyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the current connection pool statistics
+     *
+     * @return The pool statistics, or null if the database failed to initialize
+     */
+    public ConnectionPool.Stats getPoolStats() {
+        return pool != null ? pool.getStats() : null;
+    }
+
+    /**
+     * Get the read-only connection pool statistics
+     *
+     * @return The pool statistics, or null if reads share the main pool
+     */
+    public ConnectionPool.Stats getReadPoolStats() {
+        return readPool != null && readPool != pool ? readPool.getStats() : null;
+    }
+
+    /**
+     * Get the current database executor statistics
+     *
+     * @return The executor statistics
+     */
+    public DatabaseExecutor.Stats getExecutorStats() {
+        return executor.getStats();
+    }
+
+    /**
+     * Get the writer executor statistics
+     *
+     * @return The executor statistics, or null if writes share the main executor
+     */
+    public DatabaseExecutor.Stats getWriteExecutorStats() {
+        return writeExecutor != executor ? writeExecutor.getStats() : null;
+    }
+
+    /**
+     * Get the executor that runs all database work. Continuations that go on to
+     * issue further database calls should run here rather than on the common
+     * pool.
+     *
+     * @return The database executor
+     */
+    public DatabaseExecutor getExecutor() {
+        return executor;
+    }
+
+    private void createTables() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(dbType, plugin.getLogger());
+        int version = withConnection(migrator::migrate);
+        plugin.getLogger().log(Level.INFO, "Database schema is at version {0}", version);
+    }
+
+    /**
+     * Get a player's data only if it is already in memory; never touches the
+     * database
+     *
+     * @return The hit, whose data is null if the player has none, or null if the
+     *         player has to be loaded with {@link #getPlayerData(UUID)}
+     */
+    public PlayerDataCache.Hit getCachedPlayerData(UUID playerUuid) {
+        PlayerSession session = sessions.get(playerUuid);
+        if (session != null) {
+            return new PlayerDataCache.Hit(session.getData());
+        }
+        return playerCache.get(playerUuid);
+    }
+
+    public CompletableFuture<PlayerVoteData> getPlayerData(UUID playerUuid) {
+        PlayerSession session = sessions.get(playerUuid);
+        if (session != null) {
+            return CompletableFuture.completedFuture(session.getData());
+        }
+
+        PlayerDataCache.Hit hit = playerCache.get(playerUuid);
+        if (hit != null) {
+            return CompletableFuture.completedFuture(hit.data());
+        }
+
+        // Buffered writes are newer than anything stored
+        PlayerVoteData pending = writeBuffer.getPending(playerUuid);
+        if (pending != null) {
+            return CompletableFuture.completedFuture(pending);
+        }
+
+        long stamp = playerCache.loadStamp();
+        return executor.supply(() -> {
+            String sql = "SELECT uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes FROM {players} WHERE uuid = ?";
+            try {
+                return withReadConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    PreparedStatement stmt = connection.prepareStatement(keys.sql(sql));
+                    keys.setUuid(stmt, 1, playerUuid);
+                    PlayerVoteData data;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        data = rs.next() ? readPlayerData(rs, keys) : null;
+                    }
+                    playerCache.putLoaded(playerUuid, data, stamp);
+                    return data;
+                });
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to get player data: {0}", e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Load a player's session so their reads are served from memory until
+     * {@link #unloadSession(UUID)}. A load that races with a write is retried.
+     *
+     * @return The session, or null if it could not be loaded
+     */
+    public CompletableFuture<PlayerSession> loadSession(UUID playerUuid) {
+        return writeBuffer.awaitPending(playerUuid).thenCompose(ignored -> executor.supply(() -> {
+            try {
+                for (int attempt = 0; attempt < 3; attempt++) {
+                    long stamp = sessions.loadStamp();
+                    PlayerSession session = withReadConnection(connection -> readSession(connection, keys, playerUuid));
+                    if (sessions.putLoaded(playerUuid, session, stamp)) {
+                        return session;
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to load player session: {0}", e.getMessage());
+            }
+            return null;
+        }));
+    }
+
+    private PlayerSession readSession(PooledConnection connection, KeyCodec keys, UUID playerUuid)
+            throws SQLException {
+        PreparedStatement player = connection.prepareStatement(keys.sql(
+                "SELECT uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes FROM {players} WHERE uuid = ?"));
+        keys.setUuid(player, 1, playerUuid);
+        PlayerVoteData data;
+        try (ResultSet rs = player.executeQuery()) {
+            data = rs.next() ? readPlayerData(rs, keys) : null;
+        }
+
+        PreparedStatement unrewarded = connection.prepareStatement(
+                keys.sql("SELECT COUNT(*) FROM {votes} WHERE player_uuid = ? AND rewarded = FALSE"));
+        keys.setUuid(unrewarded, 1, playerUuid);
+        int unrewardedVotes;
+        try (ResultSet rs = unrewarded.executeQuery()) {
+            unrewardedVotes = rs.next() ? rs.getInt(1) : 0;
+        }
+
+        PreparedStatement lastVotes = connection.prepareStatement(keys.sql(
+                "SELECT {site}, MAX(vote_time) AS last_vote FROM {votes} WHERE player_uuid = ? GROUP BY {site}"));
+        keys.setUuid(lastVotes, 1, playerUuid);
+        Map<String, Timestamp> lastVoteTimes = new HashMap<>();
+        try (ResultSet rs = lastVotes.executeQuery()) {
+            while (rs.next()) {
+                lastVoteTimes.put(keys.getSite(connection, rs, keys.siteColumn()), rs.getTimestamp("last_vote"));
+            }
+        }
+        return new PlayerSession(data, unrewardedVotes, lastVoteTimes);
+    }
+
+    public void unloadSession(UUID playerUuid) {
+        sessions.remove(playerUuid);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public CompletableFuture<Void> savePlayerData(PlayerVoteData data) {
+        playerCache.put(data);
+        sessions.update(data.getUuid(), session -> session.setData(data));
+        return writeBuffer.upsert(data);
+    }
+
+    public CompletableFuture<Void> addVoteRecord(VoteRecord record) {
+        return writeBuffer.insert(record);
+    }
+
+    /**
+     * Store a vote and apply it to the player's statistics in a single
+     * transaction
+     *
+     * @param voteRecord The vote to store
+     * @param username   The username to use if the player has no data yet
+     * @param offline    Whether the player is offline, so the vote is counted as
+     *                   an offline vote to claim later. Votes of online players
+     *                   are paid right away and so are stored as rewarded.
+     * @return The player's updated data, or null if the vote could not be stored
+     */
+    public CompletableFuture<PlayerVoteData> recordVote(VoteRecord voteRecord, String username, boolean offline) {
+        UUID playerUuid = voteRecord.getPlayerUuid();
+        return writeExecutor.supply(() -> {
+            // Buffered writes for the player must land first, both so they are the
+            // starting point and so they cannot overwrite the result later
+            if (writeBuffer.hasPending(playerUuid)) {
+                writeBuffer.flush();
+            }
+
+            try {
+                return withConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    connection.setAutoCommit(false);
+                    try {
+                        PlayerVoteData stored = selectPlayerForUpdate(connection, keys, playerUuid);
+                        PlayerVoteData data = stored != null ? stored : new PlayerVoteData(playerUuid, username);
+                        data.applyVote(voteRecord.getVoteTime());
+                        if (offline) {
+                            data.addOfflineVote();
+                        } else {
+                            voteRecord.setRewarded(true);
+                        }
+
+                        writeRows(connection, keys, List.of(data), List.of());
+                        voteRecord.setId(insertVote(connection, keys, voteRecord));
+                        connection.commit();
+                        playerCache.put(data);
+                        sessions.update(playerUuid, session -> session.recordVote(voteRecord, data));
+                        return data;
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                });
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to record vote: {0}", e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Mark a player's votes as rewarded and take them off their offline vote
+     * count in one transaction. Votes that were already rewarded, e.g. by a
+     * concurrent claim, are left out so no vote is paid twice.
+     *
+     * @return The votes that were claimed and should be rewarded
+     */
+    public CompletableFuture<List<VoteRecord>> claimOfflineVotes(UUID playerUuid, List<VoteRecord> votes) {
+        return writeExecutor.supply(() -> {
+            if (writeBuffer.hasPending(playerUuid)) {
+                writeBuffer.flush();
+            }
+
+            List<VoteRecord> claimed = new ArrayList<>();
+            try {
+                PlayerVoteData updated = withConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    connection.setAutoCommit(false);
+                    try {
+                        PreparedStatement mark = connection.prepareStatement(
+                                keys.sql("UPDATE {votes} SET rewarded = TRUE WHERE id = ? AND rewarded = FALSE"));
+                        for (VoteRecord vote : votes) {
+                            mark.setInt(1, vote.getId());
+                            if (mark.executeUpdate() > 0) {
+                                claimed.add(vote);
+                            }
+                        }
+
+                        PlayerVoteData data = selectPlayerForUpdate(connection, keys, playerUuid);
+                        if (data != null) {
+                            data.setOfflineVotes(Math.max(0, data.getOfflineVotes() - claimed.size()));
+                            writeRows(connection, keys, List.of(data), List.of());
+                        }
+                        connection.commit();
+                        return data;
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                });
+
+                claimed.forEach(vote -> vote.setRewarded(true));
+                if (updated != null) {
+                    playerCache.put(updated);
+                }
+                sessions.update(playerUuid, session -> {
+                    if (updated != null) {
+                        session.setData(updated);
+                    }
+                    claimed.forEach(vote -> session.voteRewarded());
+                });
+                return claimed;
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to claim offline votes: {0}", e.getMessage());
+            }
+            return new ArrayList<>();
+        });
+    }
+
+    /**
+     * Put a vote stored as rewarded back to be claimed later and count it as an
+     * offline vote, e.g. because its player left before it could be paid
+     */
+    public CompletableFuture<Void> deferVoteReward(VoteRecord vote) {
+        UUID playerUuid = vote.getPlayerUuid();
+        return writeExecutor.run(() -> {
+            if (writeBuffer.hasPending(playerUuid)) {
+                writeBuffer.flush();
+            }
+
+            try {
+                PlayerVoteData updated = withConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    connection.setAutoCommit(false);
+                    try {
+                        PreparedStatement unmark = connection.prepareStatement(
+                                keys.sql("UPDATE {votes} SET rewarded = FALSE WHERE id = ? AND rewarded = TRUE"));
+                        unmark.setInt(1, vote.getId());
+                        if (unmark.executeUpdate() == 0) {
+                            connection.rollback();
+                            return null;
+                        }
+
+                        PlayerVoteData data = selectPlayerForUpdate(connection, keys, playerUuid);
+                        if (data != null) {
+                            data.addOfflineVote();
+                            writeRows(connection, keys, List.of(data), List.of());
+                        }
+                        connection.commit();
+                        return data;
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                });
 
-        return CompletableFuture.runAsync(() -> {
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, data.getUuid().toString());
+                if (updated != null) {
+                    vote.setRewarded(false);
+                    playerCache.put(updated);
+                    sessions.update(playerUuid, session -> {
+                        session.setData(updated);
+                        session.voteDeferred();
+                    });
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to store offline vote: {0}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Read a player's row, locking it for the rest of the transaction
+     *
+     * @return The player's data, or null if they have none
+     */
+    private PlayerVoteData selectPlayerForUpdate(PooledConnection connection, KeyCodec keys, UUID playerUuid)
+            throws SQLException {
+        PreparedStatement select = connection.prepareStatement(keys.sql(selectPlayerForUpdateSql));
+        keys.setUuid(select, 1, playerUuid);
+        try (ResultSet rs = select.executeQuery()) {
+            return rs.next() ? readPlayerData(rs, keys) : null;
+        }
+    }
+
+    /**
+     * Write a batch of buffered player upserts and vote record inserts in one
+     * transaction
+     */
+    private void writeBatch(List<PlayerVoteData> upserts, List<VoteRecord> inserts) throws SQLException {
+        withConnection(connection -> {
+            KeyCodec keys = this.keys;
+            connection.setAutoCommit(false);
+            try {
+                writeRows(connection, keys, upserts, inserts);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Upsert players, then insert vote records, as JDBC batches in the caller's
+     * transaction
+     */
+    private void writeRows(PooledConnection connection, KeyCodec keys, List<PlayerVoteData> upserts,
+            List<VoteRecord> inserts) throws SQLException {
+        if (!upserts.isEmpty()) {
+            PreparedStatement stmt = connection.prepareStatement(keys.sql(upsertPlayerSql));
+            for (PlayerVoteData data : upserts) {
+                keys.setUuid(stmt, 1, data.getUuid());
                 stmt.setString(2, data.getUsername());
                 stmt.setInt(3, data.getTotalVotes());
                 stmt.setInt(4, data.getCurrentStreak());
                 stmt.setInt(5, data.getBestStreak());
                 stmt.setTimestamp(6, data.getLastVoteTime());
                 stmt.setInt(7, data.getOfflineVotes());
-                stmt.executeUpdate();
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        if (!inserts.isEmpty()) {
+            PreparedStatement stmt = connection.prepareStatement(keys.sql(INSERT_VOTE_SQL));
+            for (VoteRecord record : inserts) {
+                bindVote(connection, keys, stmt, record);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Insert one vote record in the caller's transaction
+     *
+     * @return The id the record was stored under
+     */
+    private int insertVote(PooledConnection connection, KeyCodec keys, VoteRecord record) throws SQLException {
+        try (PreparedStatement stmt = connection.getConnection().prepareStatement(keys.sql(INSERT_VOTE_SQL),
+                Statement.RETURN_GENERATED_KEYS)) {
+            bindVote(connection, keys, stmt, record);
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private void bindVote(PooledConnection connection, KeyCodec keys, PreparedStatement stmt, VoteRecord record)
+            throws SQLException {
+        keys.setUuid(stmt, 1, record.getPlayerUuid());
+        keys.setSite(connection, stmt, 2, record.getSiteName());
+        stmt.setTimestamp(3, record.getVoteTime());
+        stmt.setString(4, record.getIpAddress());
+        stmt.setBoolean(5, record.isRewarded());
+    }
+
+    /**
+     * Receives one player's total votes
+     */
+    @FunctionalInterface
+    public interface PlayerTotalConsumer {
+        void accept(UUID playerUuid, String username, int totalVotes);
+    }
+
+    /**
+     * Receives a number of votes a player cast on one day
+     */
+    @FunctionalInterface
+    public interface VoteCountConsumer {
+        void accept(UUID playerUuid, long voteDay, int count);
+    }
+
+    /**
+     * Stream every player's total votes through {@code consumer} on a database
+     * thread, e.g. to build an in-memory index
+     *
+     * @return Completes once every player was passed on; fails if the read failed
+     */
+    public CompletableFuture<Void> loadVoteTotals(PlayerTotalConsumer consumer) {
+        int fetchSize = plugin.getConfigManager().getConfig().getInt("database.export.fetch-size", 1000);
+        return writeBuffer.awaitAllPending().thenCompose(ignored -> executor.supply(() -> {
+            try {
+                return withReadConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    try (Statement stmt = connection.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY)) {
+                        stmt.setFetchSize(fetchSize);
+                        try (ResultSet rs = stmt
+                                .executeQuery(keys.sql("SELECT uuid, username, total_votes FROM {players}"))) {
+                            while (rs.next()) {
+                                consumer.accept(keys.getUuid(rs, "uuid"), rs.getString("username"),
+                                        rs.getInt("total_votes"));
+                            }
+                        }
+                    }
+                    return null;
+                });
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to save player data: {0}", e.getMessage());
+                throw new CompletionException(e);
             }
-        });
+        }));
     }
 
-    public CompletableFuture<Void> addVoteRecord(VoteRecord record) {
-        return CompletableFuture.runAsync(() -> {
-            String sql = "INSERT INTO vote_records (player_uuid, site_name, vote_time, ip_address, rewarded) VALUES (?, ?, ?, ?, ?)";
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, record.getPlayerUuid().toString());
-                stmt.setString(2, record.getSiteName());
-                stmt.setTimestamp(3, record.getVoteTime());
-                stmt.setString(4, record.getIpAddress());
-                stmt.setBoolean(5, record.isRewarded());
-                stmt.executeUpdate();
+    /**
+     * Stream per-day vote counts since {@code fromDay} from both the vote records
+     * and their rollups through {@code consumer} on a database thread. Both are
+     * read in one transaction, so votes being compacted are counted once. Only
+     * vote records up to the newest id at the start of the read are counted, so
+     * votes stored during the read can be told apart by their id.
+     *
+     * @param fromDay First day to include, in days since the epoch (UTC)
+     * @return The id of the newest vote record counted, or 0 if there were none;
+     *         fails if the read failed
+     */
+    public CompletableFuture<Integer> loadVoteCounts(long fromDay, VoteCountConsumer consumer) {
+        int fetchSize = plugin.getConfigManager().getConfig().getInt("database.export.fetch-size", 1000);
+        Timestamp from = new Timestamp(fromDay * 24 * 60 * 60 * 1000);
+        return writeBuffer.awaitAllPending().thenCompose(ignored -> executor.supply(() -> {
+            try {
+                return withReadConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    connection.setAutoCommit(false);
+                    try {
+                        PreparedStatement newest = connection.prepareStatement(keys.sql("SELECT MAX(id) FROM {votes}"));
+                        int lastId;
+                        try (ResultSet rs = newest.executeQuery()) {
+                            lastId = rs.next() ? rs.getInt(1) : 0;
+                        }
+
+                        PreparedStatement votes = connection.getConnection().prepareStatement(
+                                keys.sql("SELECT player_uuid, vote_time FROM {votes} WHERE vote_time >= ? AND id <= ?"),
+                                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        try (votes) {
+                            votes.setFetchSize(fetchSize);
+                            votes.setTimestamp(1, from);
+                            votes.setInt(2, lastId);
+                            try (ResultSet rs = votes.executeQuery()) {
+                                while (rs.next()) {
+                                    consumer.accept(keys.getUuid(rs, "player_uuid"),
+                                            VoteCompactor.toVoteDay(rs.getTimestamp("vote_time")), 1);
+                                }
+                            }
+                        }
+
+                        PreparedStatement rollups = connection.prepareStatement(keys
+                                .sql("SELECT player_uuid, vote_day, vote_count FROM {rollups} WHERE vote_day >= ?"));
+                        rollups.setLong(1, fromDay);
+                        try (ResultSet rs = rollups.executeQuery()) {
+                            while (rs.next()) {
+                                consumer.accept(keys.getUuid(rs, "player_uuid"), rs.getLong("vote_day"),
+                                        rs.getInt("vote_count"));
+                            }
+                        }
+                        connection.commit();
+                        return lastId;
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                });
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to add vote record: {0}", e.getMessage());
+                throw new CompletionException(e);
             }
-        });
+        }));
     }
 
     public CompletableFuture<List<PlayerVoteData>> getTopVoters(int limit) {
-        return CompletableFuture.supplyAsync(() -> {
+        return writeBuffer.awaitAllPending().thenCompose(ignored -> executor.supply(() -> {
             List<PlayerVoteData> topVoters = new ArrayList<>();
-            String sql = "SELECT uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes FROM player_vote_data ORDER BY total_votes DESC LIMIT ?";
-
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setInt(1, limit);
-                ResultSet rs = stmt.executeQuery();
-
-                while (rs.next()) {
-                    topVoters.add(new PlayerVoteData(
-                            UUID.fromString(rs.getString("uuid")),
-                            rs.getString("username"),
-                            rs.getInt("total_votes"),
-                            rs.getInt("current_streak"),
-                            rs.getInt("best_streak"),
-                            rs.getTimestamp("last_vote_time"),
-                            rs.getInt("offline_votes")));
-                }
+            String sql = "SELECT uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes FROM {players} ORDER BY total_votes DESC, uuid LIMIT ?";
+
+            try {
+                withReadConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    PreparedStatement stmt = connection.prepareStatement(keys.sql(sql));
+                    stmt.setInt(1, limit);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            topVoters.add(readPlayerData(rs, keys));
+                        }
+                    }
+                    return null;
+                });
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, "Failed to get top voters: {0}", e.getMessage());
             }
             return topVoters;
+        }));
+    }
+
+    /**
+     * Read one page of the leaderboard, ordered by (total_votes DESC, uuid). Pages
+     * after the first seek past the last row of the page before them rather than
+     * skipping rows with OFFSET, so every page costs the same whatever its number.
+     *
+     * @param page     The page number, starting at 1
+     * @param pageSize The number of players per page
+     * @param after    The last row of the previous page; null for the first page
+     * @return The page; empty if it is past the end
+     */
+    public CompletableFuture<LeaderboardPage> getLeaderboardPage(int page, int pageSize, PageStart after) {
+        return writeBuffer.awaitAllPending().thenCompose(ignored -> executor.supply(() -> {
+            try {
+                return withReadConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    List<PlayerVoteData> entries = new ArrayList<>();
+                    String columns = "SELECT uuid, username, total_votes, current_streak, best_streak, last_vote_time, offline_votes FROM {players} ";
+                    PreparedStatement stmt;
+                    if (after == null) {
+                        stmt = connection.prepareStatement(
+                                keys.sql(columns + "ORDER BY total_votes DESC, uuid LIMIT ?"));
+                        stmt.setInt(1, pageSize);
+                    } else {
+                        stmt = connection.prepareStatement(keys.sql(columns
+                                + "WHERE total_votes < ? OR (total_votes = ? AND uuid > ?) ORDER BY total_votes DESC, uuid LIMIT ?"));
+                        stmt.setInt(1, after.totalVotes());
+                        stmt.setInt(2, after.totalVotes());
+                        keys.setUuid(stmt, 3, after.uuid());
+                        stmt.setInt(4, pageSize);
+                    }
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            entries.add(readPlayerData(rs, keys));
+                        }
+                    }
+                    return new LeaderboardPage(page, pageSize, entries, countPlayers(connection, keys));
+                });
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to get leaderboard page: {0}", e.getMessage());
+            }
+            return new LeaderboardPage(page, pageSize, new ArrayList<>(), 0);
+        }));
+    }
+
+    /**
+     * Count the players on the leaderboard, cached for the leaderboard update
+     * interval
+     */
+    private int countPlayers(PooledConnection connection, KeyCodec keys) throws SQLException {
+        long maxAge = plugin.getConfigManager().getConfig().getLong("leaderboard.update-interval", 300) * 1000;
+        PlayerCount cached = playerCount;
+        if (cached != null && System.currentTimeMillis() - cached.countedAt() < maxAge) {
+            return cached.count();
+        }
+
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery(keys.sql("SELECT COUNT(*) FROM {players}"))) {
+            int count = rs.next() ? rs.getInt(1) : 0;
+            playerCount = new PlayerCount(count, System.currentTimeMillis());
+            return count;
+        }
+    }
+
+    /**
+     * Find a player by the name they last voted or joined with
+     *
+     * @return The player's UUID, or null if no player has that name
+     */
+    public CompletableFuture<UUID> findPlayerUuid(String username) {
+        return writeBuffer.awaitAllPending().thenCompose(ignored -> executor.supply(() -> {
+            String sql = "SELECT uuid FROM {players} WHERE username = ? ORDER BY updated_at DESC LIMIT 1";
+            try {
+                return withReadConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    PreparedStatement stmt = connection.prepareStatement(keys.sql(sql));
+                    stmt.setString(1, username);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return rs.next() ? keys.getUuid(rs, "uuid") : null;
+                    }
+                });
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to look up player {0}: {1}",
+                        new Object[] { username, e.getMessage() });
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * The time of the newest vote a polled site has reported
+     *
+     * @return The time, empty if the site has not reported a vote, or null if
+     *         it could not be read
+     */
+    public CompletableFuture<Optional<Timestamp>> getLastSeenVote(String siteName) {
+        return executor.supply(() -> {
+            String sql = "SELECT last_seen_vote FROM vote_site_status WHERE site_name = ?";
+            try {
+                return withReadConnection(connection -> {
+                    PreparedStatement stmt = connection.prepareStatement(sql);
+                    stmt.setString(1, siteName);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return Optional.ofNullable(rs.next() ? rs.getTimestamp("last_seen_vote") : null);
+                    }
+                });
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to read the last vote seen on {0}: {1}",
+                        new Object[] { siteName, e.getMessage() });
+            }
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> setLastSeenVote(String siteName, Timestamp lastSeenVote) {
+        return writeExecutor.run(() -> {
+            try {
+                withConnection(connection -> {
+                    PreparedStatement update = connection.prepareStatement(
+                            "UPDATE vote_site_status SET last_seen_vote = ?, last_check = CURRENT_TIMESTAMP WHERE site_name = ?");
+                    update.setTimestamp(1, lastSeenVote);
+                    update.setString(2, siteName);
+                    if (update.executeUpdate() > 0) {
+                        return null;
+                    }
+
+                    PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO vote_site_status (site_name, last_check, last_seen_vote) VALUES (?, CURRENT_TIMESTAMP, ?)");
+                    insert.setString(1, siteName);
+                    insert.setTimestamp(2, lastSeenVote);
+                    return insert.executeUpdate();
+                });
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to save the last vote seen on {0}: {1}",
+                        new Object[] { siteName, e.getMessage() });
+            }
         });
     }
 
     public CompletableFuture<Boolean> hasVotedOnSite(UUID playerUuid, String siteName, long cooldownHours) {
-        return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT vote_time FROM vote_records WHERE player_uuid = ? AND site_name = ? ORDER BY vote_time DESC LIMIT 1";
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, playerUuid.toString());
-                stmt.setString(2, siteName);
-                ResultSet rs = stmt.executeQuery();
-
-                if (rs.next()) {
-                    Timestamp lastVote = rs.getTimestamp("vote_time");
-                    long cooldownMillis = cooldownHours * 60 * 60 * 1000;
-                    return (System.currentTimeMillis() - lastVote.getTime()) < cooldownMillis;
-                }
+        PlayerSession session = sessions.get(playerUuid);
+        if (session != null) {
+            return CompletableFuture.completedFuture(session.hasVotedWithin(siteName, cooldownHours * 60 * 60 * 1000));
+        }
+
+        return writeBuffer.awaitPending(playerUuid).thenCompose(ignored -> executor.supply(() -> {
+            String sql = "SELECT vote_time FROM {votes} WHERE player_uuid = ? AND {site} = ? ORDER BY vote_time DESC LIMIT 1";
+            try {
+                return withReadConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    PreparedStatement stmt = connection.prepareStatement(keys.sql(sql));
+                    keys.setUuid(stmt, 1, playerUuid);
+                    if (!keys.setKnownSite(connection, stmt, 2, siteName)) {
+                        return false;
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next()) {
+                            Timestamp lastVote = rs.getTimestamp("vote_time");
+                            long cooldownMillis = cooldownHours * 60 * 60 * 1000;
+                            return (System.currentTimeMillis() - lastVote.getTime()) < cooldownMillis;
+                        }
+                    }
+                    return false;
+                });
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, "Failed to check vote cooldown: {0}", e.getMessage());
             }
             return false;
-        });
+        }));
     }
 
     public CompletableFuture<List<VoteRecord>> getUnrewardedVotes(UUID playerUuid) {
-        return CompletableFuture.supplyAsync(() -> {
+        PlayerSession session = sessions.get(playerUuid);
+        if (session != null && session.getUnrewardedVotes() == 0) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        return writeBuffer.awaitPending(playerUuid).thenCompose(ignored -> executor.supply(() -> {
             List<VoteRecord> unrewardedVotes = new ArrayList<>();
-            String sql = "SELECT id, player_uuid, site_name, vote_time, ip_address, rewarded FROM vote_records WHERE player_uuid = ? AND rewarded = FALSE ORDER BY vote_time ASC";
-
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, playerUuid.toString());
-                ResultSet rs = stmt.executeQuery();
-
-                while (rs.next()) {
-                    unrewardedVotes.add(new VoteRecord(
-                            rs.getInt("id"),
-                            UUID.fromString(rs.getString("player_uuid")),
-                            rs.getString("site_name"),
-                            rs.getTimestamp("vote_time"),
-                            rs.getString("ip_address"),
-                            rs.getBoolean("rewarded")));
-                }
+            String sql = "SELECT id, player_uuid, {site}, vote_time, ip_address, rewarded FROM {votes} WHERE player_uuid = ? AND rewarded = FALSE ORDER BY vote_time ASC";
+
+            try {
+                withReadConnection(connection -> {
+                    KeyCodec keys = this.keys;
+                    PreparedStatement stmt = connection.prepareStatement(keys.sql(sql));
+                    keys.setUuid(stmt, 1, playerUuid);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            unrewardedVotes.add(new VoteRecord(
+                                    rs.getInt("id"),
+                                    keys.getUuid(rs, "player_uuid"),
+                                    keys.getSite(connection, rs, keys.siteColumn()),
+                                    rs.getTimestamp("vote_time"),
+                                    rs.getString("ip_address"),
+                                    rs.getBoolean("rewarded")));
+                        }
+                    }
+                    return null;
+                });
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, "Failed to get unrewarded votes: {0}", e.getMessage());
             }
             return unrewardedVotes;
-        });
+        }));
+    }
+
+    /**
+     * Mark a vote as rewarded and update its player's session
+     */
+    public CompletableFuture<Void> markVoteRewarded(VoteRecord vote) {
+        sessions.update(vote.getPlayerUuid(), PlayerSession::voteRewarded);
+        return markVoteRewarded(vote.getId());
     }
 
     public CompletableFuture<Void> markVoteRewarded(int voteId) {
-        return CompletableFuture.runAsync(() -> {
-            String sql = "UPDATE vote_records SET rewarded = TRUE WHERE id = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setInt(1, voteId);
-                stmt.executeUpdate();
+        return writeExecutor.run(() -> {
+            String sql = "UPDATE {votes} SET rewarded = TRUE WHERE id = ?";
+            try {
+                withConnection(connection -> {
+                    PreparedStatement stmt = connection.prepareStatement(keys.sql(sql));
+                    stmt.setInt(1, voteId);
+                    return stmt.executeUpdate();
+                });
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, "Failed to mark vote as rewarded: {0}", e.getMessage());
             }
         });
     }
 
-    public void close() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+    private PlayerVoteData readPlayerData(ResultSet rs, KeyCodec keys) throws SQLException {
+        return new PlayerVoteData(
+                keys.getUuid(rs, "uuid"),
+                rs.getString("username"),
+                rs.getInt("total_votes"),
+                rs.getInt("current_streak"),
+                rs.getInt("best_streak"),
+                rs.getTimestamp("last_vote_time"),
+                rs.getInt("offline_votes"));
+    }
+
+    /**
+     * Fold rewarded vote records older than database.compaction.max-age-days into
+     * daily rollups and delete them. Chunks run on the writer with a pause in
+     * between so regular writes are not held up.
+     *
+     * @return The number of vote records compacted
+     */
+    public CompletableFuture<Integer> compactVoteRecords() {
+        // Compaction deletes rows the compact key migration may still have to copy
+        if (keyFormat.equals(CompactKeyMigration.FORMAT_MIGRATING) || !compactionRunning.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        FileConfiguration config = plugin.getConfigManager().getConfig();
+        // Cooldown checks need the last day of votes, so keep at least two
+        long maxAgeDays = Math.max(2, config.getLong("database.compaction.max-age-days", 90));
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - maxAgeDays * 24 * 60 * 60 * 1000);
+        int chunkSize = Math.max(1, config.getInt("database.compaction.chunk-size", 500));
+        long chunkDelay = Math.max(0, config.getLong("database.compaction.chunk-delay", 100));
+
+        return compactChunks(cutoff, chunkSize, chunkDelay, 0)
+                .whenComplete((rows, throwable) -> compactionRunning.set(false));
+    }
+
+    private CompletableFuture<Integer> compactChunks(Timestamp cutoff, int chunkSize, long chunkDelay,
+            int compacted) {
+        return writeExecutor.supply(() -> {
+            try {
+                return withConnection(connection -> compactor.compactChunk(connection, keys, cutoff, chunkSize));
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to compact vote records: {0}", e.getMessage());
             }
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.WARNING, "Failed to close database connection: {0}", e.getMessage());
+            return 0;
+        }).thenCompose(rows -> {
+            int total = compacted + rows;
+            if (rows < chunkSize || writeExecutor.isShutdown()) {
+                return CompletableFuture.completedFuture(total);
+            }
+            Executor delayed = CompletableFuture.delayedExecutor(chunkDelay, TimeUnit.MILLISECONDS);
+            return CompletableFuture.runAsync(() -> {
+            }, delayed).thenCompose(ignored -> compactChunks(cutoff, chunkSize, chunkDelay, total));
+        });
+    }
+
+    /**
+     * Stream a table to a gzip-compressed file on a read connection. Buffered
+     * writes are flushed first so the export includes them.
+     *
+     * @param progress Called from the database thread as rows are written
+     * @return The number of rows exported; fails if an export is already running
+     */
+    public CompletableFuture<Long> exportTable(DataExporter.Table table, DataExporter.Format format, File output,
+            LongConsumer progress) {
+        if (!exportRunning.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("An export is already running"));
+        }
+
+        int fetchSize = plugin.getConfigManager().getConfig().getInt("database.export.fetch-size", 1000);
+        DataExporter exporter = new DataExporter(fetchSize);
+        return writeBuffer.awaitAllPending().thenCompose(ignored -> executor.supply(() -> {
+            try {
+                return withReadConnection(connection -> {
+                    try {
+                        return exporter.export(connection, keys, table, format, output, progress);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        })).whenComplete((rows, throwable) -> {
+            exportRunning.set(false);
+            if (throwable != null) {
+                plugin.getLogger().log(Level.WARNING, "Failed to export {0}: {1}",
+                        new Object[] { table.name().toLowerCase(), throwable.getMessage() });
+                output.delete();
+            }
+        });
+    }
+
+    /**
+     * Import votes from another source in chunks on the writer, resuming from the
+     * source's stored checkpoint. Player saves still buffered from before the
+     * import are written first; imports are best run while nobody is online,
+     * since later saves of loaded player data overwrite imported totals.
+     *
+     * @param progress Called from the database thread about every five seconds
+     * @return The import result; fails if an import is already running
+     */
+    public CompletableFuture<DataImporter.Result> importVotes(DataImporter.Source source,
+            Consumer<DataImporter.Result> progress) {
+        // The compact key migration copies by id and would miss rows imported
+        // into tables it has already passed
+        if (keyFormat.equals(CompactKeyMigration.FORMAT_MIGRATING)) {
+            closeQuietly(source);
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Imports are unavailable while the key migration runs"));
+        }
+        if (!importRunning.compareAndSet(false, true)) {
+            closeQuietly(source);
+            return CompletableFuture.failedFuture(new IllegalStateException("An import is already running"));
+        }
+
+        int chunkSize = Math.max(1, plugin.getConfigManager().getConfig().getInt("database.import.chunk-size", 1000));
+        long startedAt = System.currentTimeMillis();
+        return writeBuffer.awaitAllPending().thenCompose(ignored -> writeExecutor.supply(() -> {
+            try {
+                DataImporter.Progress start = withConnection(
+                        connection -> importer.loadProgress(connection, source.getName()));
+                if (!start.completed()) {
+                    source.seek(start.position());
+                }
+                return start;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        })).thenCompose(start -> {
+            if (start.completed()) {
+                return CompletableFuture.completedFuture(
+                        new DataImporter.Result(source.getName(), start.rowsImported(), 0, 0, true));
+            }
+            return importChunks(source, start, start, chunkSize, startedAt, startedAt, progress);
+        }).whenComplete((result, throwable) -> {
+            importRunning.set(false);
+            closeQuietly(source);
+            if (throwable != null) {
+                plugin.getLogger().log(Level.WARNING, "Failed to import {0}: {1}",
+                        new Object[] { source.getName(), throwable.getMessage() });
+            }
+        });
+    }
+
+    private CompletableFuture<DataImporter.Result> importChunks(DataImporter.Source source,
+            DataImporter.Progress start, DataImporter.Progress progress, int chunkSize, long startedAt,
+            long reportedAt, Consumer<DataImporter.Result> listener) {
+        return writeExecutor.supply(() -> {
+            try {
+                return withConnection(connection -> {
+                    try {
+                        DataImporter.Progress next = importer.importChunk(connection, keys, source, progress,
+                                chunkSize);
+                        // Imported votes are added to totals in SQL
+                        playerCache.invalidateAll();
+                        sessions.clear();
+                        return next;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }).thenCompose(next -> {
+            long now = System.currentTimeMillis();
+            DataImporter.Result result = new DataImporter.Result(source.getName(),
+                    next.rowsImported() - start.rowsImported(), source.getSkipped(), now - startedAt, false);
+            if (next.completed()) {
+                return CompletableFuture.completedFuture(result);
+            }
+            long nextReportAt = reportedAt;
+            if (now - reportedAt >= 5000) {
+                listener.accept(result);
+                nextReportAt = now;
+            }
+            return importChunks(source, start, next, chunkSize, startedAt, nextReportAt, listener);
+        });
+    }
+
+    private void closeQuietly(DataImporter.Source source) {
+        try {
+            source.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to close import source: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get the current write-behind buffer statistics
+     *
+     * @return The buffer statistics
+     */
+    public WriteBehindBuffer.Stats getWriteBufferStats() {
+        return writeBuffer.getStats();
+    }
+
+    /**
+     * Get the current player data cache statistics
+     *
+     * @return The cache statistics
+     */
+    public PlayerDataCache.Stats getPlayerCacheStats() {
+        return playerCache.getStats();
+    }
+
+    public void close() {
+        // Flush buffered writes before the executor and pool go away
+        writeBuffer.close();
+        playerCache.invalidateAll();
+        sessions.clear();
+        if (!writeExecutor.isShutdown()) {
+            writeExecutor.shutdown(10, TimeUnit.SECONDS);
+        }
+        if (!executor.isShutdown()) {
+            executor.shutdown(10, TimeUnit.SECONDS);
+        }
+        if (sqliteEngine != null) {
+            sqliteEngine.close();
+        } else if (pool != null && !pool.isClosed()) {
+            pool.close();
         }
     }
 }
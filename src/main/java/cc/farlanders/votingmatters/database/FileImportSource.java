@@ -0,0 +1,235 @@
+package cc.farlanders.votingmatters.database;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Reads votes from a CSV file with a header row or an NDJSON file, optionally
+ * gzip-compressed. Positions count records after the header.
+ */
+public class FileImportSource implements DataImporter.Source {
+
+    private final File file;
+    private final DataExporter.Format format;
+    private final DataImporter.ColumnMapping mapping;
+    private final BufferedReader reader;
+    private Map<String, Integer> header;
+    private long position;
+    private long skipped;
+
+    public FileImportSource(File file, DataImporter.ColumnMapping mapping) throws IOException {
+        this.file = file;
+        this.mapping = mapping;
+        this.format = detectFormat(file.getName());
+        if (format == null) {
+            throw new IOException("Unsupported file type: " + file.getName());
+        }
+
+        InputStream in = new FileInputStream(file);
+        try {
+            if (file.getName().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+                in = new GZIPInputStream(in);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Pick the format from a file name such as votes.csv or votes.ndjson.gz
+     *
+     * @return The format, or null if the extension is not supported
+     */
+    public static DataExporter.Format detectFormat(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        if (name.endsWith(".csv")) {
+            return DataExporter.Format.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) {
+            return DataExporter.Format.NDJSON;
+        }
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + file.getName();
+    }
+
+    @Override
+    public void seek(long target) throws IOException {
+        while (position < target && nextValues() != null) {
+            position++;
+        }
+    }
+
+    @Override
+    public List<DataImporter.ImportRow> read(PooledConnection connection, int max) throws IOException {
+        List<DataImporter.ImportRow> rows = new ArrayList<>(max);
+        Object[] values;
+        while (rows.size() < max && (values = nextValues()) != null) {
+            position++;
+            DataImporter.ImportRow row = DataImporter.toRow(mapping, values[0], values[1], values[2], values[3],
+                    values[4]);
+            if (row != null) {
+                rows.add(row);
+            } else {
+                skipped++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Read the mapped uuid, username, site, time and rewarded values of the next
+     * record. Blank lines are skipped; lines that are not JSON objects yield no
+     * values.
+     *
+     * @return The values, or null at the end of the file
+     */
+    private Object[] nextValues() throws IOException {
+        String[] fields = { mapping.uuid(), mapping.username(), mapping.site(), mapping.time(), mapping.rewarded() };
+        Object[] values = new Object[fields.length];
+        if (format == DataExporter.Format.CSV) {
+            if (header == null) {
+                header = new HashMap<>();
+                List<String> columns = readCsvRecord(reader);
+                for (int i = 0; columns != null && i < columns.size(); i++) {
+                    header.put(columns.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+            }
+            List<String> record = readCsvRecord(reader);
+            if (record == null) {
+                return null;
+            }
+            for (int i = 0; i < fields.length; i++) {
+                Integer index = fields[i] != null ? header.get(fields[i].toLowerCase(Locale.ROOT)) : null;
+                values[i] = index != null && index < record.size() ? record.get(index) : null;
+            }
+            return values;
+        }
+
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        try {
+            JsonElement element = JsonParser.parseString(line);
+            if (element.isJsonObject()) {
+                JsonObject object = element.getAsJsonObject();
+                for (int i = 0; i < fields.length; i++) {
+                    values[i] = jsonValue(object, fields[i]);
+                }
+            }
+        } catch (JsonParseException e) {
+            // Left empty and counted as skipped
+        }
+        return values;
+    }
+
+    private static Object jsonValue(JsonObject object, String field) {
+        if (field == null || field.isBlank()) {
+            return null;
+        }
+        JsonElement element = object.get(field);
+        if (element == null || !element.isJsonPrimitive()) {
+            return null;
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (primitive.isBoolean()) {
+            return primitive.getAsBoolean();
+        }
+        return primitive.isNumber() ? primitive.getAsLong() : primitive.getAsString();
+    }
+
+    /**
+     * Read one RFC 4180 record; quoted fields may contain commas, doubled quotes
+     * and line breaks
+     *
+     * @return The fields, or null at the end of the input
+     */
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public long getSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
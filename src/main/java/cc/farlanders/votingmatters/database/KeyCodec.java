@@ -0,0 +1,202 @@
+package cc.farlanders.votingmatters.database;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts player and site keys between their Java form and the storage
+ * format of the database. In text mode UUIDs and site names are stored as
+ * strings; in compact mode UUIDs are stored as 16 bytes and site names as ids
+ * from the {@code vote_sites} dictionary.
+ *
+ * <p>
+ * SQL is written once against the placeholders {@code {players}},
+ * {@code {votes}}, {@code {rollups}} and {@code {site}}, which
+ * {@link #sql(String)} resolves to the tables and site column of the active
+ * format.
+ */
+public class KeyCodec {
+
+    public static final String FORMAT_TEXT = "text";
+    public static final String FORMAT_COMPACT = "compact";
+
+    private final boolean compact;
+    private final Map<String, String> resolvedSql = new ConcurrentHashMap<>();
+    private final Map<String, Integer> siteIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> siteNames = new ConcurrentHashMap<>();
+
+    private KeyCodec(boolean compact) {
+        this.compact = compact;
+    }
+
+    public static KeyCodec text() {
+        return new KeyCodec(false);
+    }
+
+    public static KeyCodec compact() {
+        return new KeyCodec(true);
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public String getFormat() {
+        return compact ? FORMAT_COMPACT : FORMAT_TEXT;
+    }
+
+    public String playerTable() {
+        return compact ? "player_vote_data_compact" : "player_vote_data";
+    }
+
+    public String voteTable() {
+        return compact ? "vote_records_compact" : "vote_records";
+    }
+
+    public String rollupTable() {
+        return compact ? "vote_rollups_compact" : "vote_rollups";
+    }
+
+    public String siteColumn() {
+        return compact ? "site_id" : "site_name";
+    }
+
+    /**
+     * Resolve the table and column placeholders in a SQL template
+     */
+    public String sql(String template) {
+        return resolvedSql.computeIfAbsent(template, key -> key
+                .replace("{players}", playerTable())
+                .replace("{votes}", voteTable())
+                .replace("{rollups}", rollupTable())
+                .replace("{site}", siteColumn()));
+    }
+
+    public void setUuid(PreparedStatement stmt, int index, UUID uuid) throws SQLException {
+        if (compact) {
+            stmt.setBytes(index, toBytes(uuid));
+        } else {
+            stmt.setString(index, uuid.toString());
+        }
+    }
+
+    public UUID getUuid(ResultSet rs, String column) throws SQLException {
+        return compact ? fromBytes(rs.getBytes(column)) : UUID.fromString(rs.getString(column));
+    }
+
+    /**
+     * Bind a site, adding it to the site dictionary on first use in compact mode
+     */
+    public void setSite(PooledConnection connection, PreparedStatement stmt, int index, String siteName)
+            throws SQLException {
+        if (compact) {
+            stmt.setInt(index, siteId(connection, siteName));
+        } else {
+            stmt.setString(index, siteName);
+        }
+    }
+
+    /**
+     * Bind a site without adding it to the site dictionary, for lookups on
+     * read-only connections
+     *
+     * @return false if the site is not in the dictionary, so nothing can match it
+     */
+    public boolean setKnownSite(PooledConnection connection, PreparedStatement stmt, int index, String siteName)
+            throws SQLException {
+        if (!compact) {
+            stmt.setString(index, siteName);
+            return true;
+        }
+
+        Integer id = siteIds.get(siteName);
+        if (id == null) {
+            id = lookupSiteId(connection, siteName);
+            if (id == null) {
+                return false;
+            }
+            cacheSite(id, siteName);
+        }
+        stmt.setInt(index, id);
+        return true;
+    }
+
+    public String getSite(PooledConnection connection, ResultSet rs, String column) throws SQLException {
+        return compact ? siteName(connection, rs.getInt(column)) : rs.getString(column);
+    }
+
+    /**
+     * Get the dictionary id of a site, creating it if needed
+     */
+    public int siteId(PooledConnection connection, String siteName) throws SQLException {
+        Integer cached = siteIds.get(siteName);
+        if (cached != null) {
+            return cached;
+        }
+
+        Integer id = lookupSiteId(connection, siteName);
+        if (id == null) {
+            try {
+                PreparedStatement insert = connection.prepareStatement("INSERT INTO vote_sites (site_name) VALUES (?)");
+                insert.setString(1, siteName);
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                // Another server sharing the database may have added it first
+            }
+            id = lookupSiteId(connection, siteName);
+            if (id == null) {
+                throw new SQLException("Could not add site to the site dictionary: " + siteName);
+            }
+        }
+        cacheSite(id, siteName);
+        return id;
+    }
+
+    private Integer lookupSiteId(PooledConnection connection, String siteName) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement("SELECT id FROM vote_sites WHERE site_name = ?");
+        stmt.setString(1, siteName);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt("id") : null;
+        }
+    }
+
+    private String siteName(PooledConnection connection, int id) throws SQLException {
+        String cached = siteNames.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        PreparedStatement stmt = connection.prepareStatement("SELECT site_name FROM vote_sites WHERE id = ?");
+        stmt.setInt(1, id);
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("Unknown site id " + id);
+            }
+            String name = rs.getString("site_name");
+            cacheSite(id, name);
+            return name;
+        }
+    }
+
+    private void cacheSite(int id, String siteName) {
+        siteIds.put(siteName, id);
+        siteNames.put(id, siteName);
+    }
+
+    static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,177 @@
+package cc.farlanders.votingmatters.database;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import cc.farlanders.votingmatters.models.PlayerVoteData;
+
+/**
+ * Bounded in-memory cache of player data in front of the database. Entries
+ * expire a fixed time after their last access, and the least recently used
+ * entry is evicted when the cache is full. Players without data are cached as
+ * negative entries so repeated lookups for them skip the database too.
+ */
+public class PlayerDataCache {
+
+    /**
+     * Result of a cache lookup
+     *
+     * @param data A copy of the cached data, or null for a negative entry
+     */
+    public record Hit(PlayerVoteData data) {
+    }
+
+    /**
+     * Point-in-time view of the cache
+     */
+    public record Stats(int size, int maxSize, long hits, long negativeHits, long misses, long evictions) {
+
+        public double hitRate() {
+            long lookups = hits + negativeHits + misses;
+            return lookups == 0 ? 0 : (double) (hits + negativeHits) / lookups;
+        }
+    }
+
+    private static final class Entry {
+        private final PlayerVoteData data;
+        private volatile long lastAccess;
+
+        private Entry(PlayerVoteData data, long now) {
+            this.data = data;
+            this.lastAccess = now;
+        }
+    }
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long expireAfterAccessMillis;
+    private final boolean enabled;
+    private final LongSupplier clock;
+    // Bumped on every write so loads started before it do not overwrite it;
+    // writes and evictions hold the cache's monitor
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PlayerDataCache(boolean enabled, int maxSize, long expireAfterAccessMillis) {
+        this(enabled, maxSize, expireAfterAccessMillis, System::currentTimeMillis);
+    }
+
+    PlayerDataCache(boolean enabled, int maxSize, long expireAfterAccessMillis, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxSize = Math.max(1, maxSize);
+        this.expireAfterAccessMillis = Math.max(1, expireAfterAccessMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * Look up a player
+     *
+     * @return The hit, or null if the player has to be loaded
+     */
+    public Hit get(UUID playerUuid) {
+        if (!enabled || playerUuid == null) {
+            return null;
+        }
+
+        Entry entry = entries.get(playerUuid);
+        long now = clock.getAsLong();
+        if (entry == null || now - entry.lastAccess >= expireAfterAccessMillis) {
+            if (entry != null) {
+                entries.remove(playerUuid, entry);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+
+        entry.lastAccess = now;
+        if (entry.data == null) {
+            negativeHits.incrementAndGet();
+            return new Hit(null);
+        }
+        hits.incrementAndGet();
+        return new Hit(entry.data.copy());
+    }
+
+    /**
+     * Stamp to pass to {@link #putLoaded} for a load that starts now
+     */
+    public long loadStamp() {
+        return writes.get();
+    }
+
+    /**
+     * Cache data loaded from the database, unless the player was written since
+     * the load started
+     *
+     * @param data The loaded data, or null if the player has none
+     */
+    public synchronized void putLoaded(UUID playerUuid, PlayerVoteData data, long stamp) {
+        if (!enabled || writes.get() != stamp) {
+            return;
+        }
+        store(playerUuid, data != null ? data.copy() : null);
+    }
+
+    /**
+     * Cache data that was just saved
+     */
+    public synchronized void put(PlayerVoteData data) {
+        if (!enabled) {
+            return;
+        }
+        writes.incrementAndGet();
+        store(data.getUuid(), data.copy());
+    }
+
+    /**
+     * Drop every entry, e.g. after rows were changed behind the cache's back
+     */
+    public synchronized void invalidateAll() {
+        writes.incrementAndGet();
+        entries.clear();
+    }
+
+    private void store(UUID playerUuid, PlayerVoteData data) {
+        long now = clock.getAsLong();
+        entries.put(playerUuid, new Entry(data, now));
+        if (entries.size() > maxSize) {
+            evict(now);
+        }
+    }
+
+    /**
+     * Remove expired entries, then the least recently used ones until the cache
+     * fits. This scans the whole cache, so it only runs once it is over capacity.
+     */
+    private void evict(long now) {
+        entries.entrySet().removeIf(entry -> {
+            boolean expired = now - entry.getValue().lastAccess >= expireAfterAccessMillis;
+            if (expired) {
+                evictions.incrementAndGet();
+            }
+            return expired;
+        });
+
+        while (entries.size() > maxSize) {
+            Map.Entry<UUID, Entry> oldest = null;
+            for (Map.Entry<UUID, Entry> entry : entries.entrySet()) {
+                if (oldest == null || entry.getValue().lastAccess < oldest.getValue().lastAccess) {
+                    oldest = entry;
+                }
+            }
+            if (oldest != null && entries.remove(oldest.getKey(), oldest.getValue())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(entries.size(), maxSize, hits.get(), negativeHits.get(), misses.get(), evictions.get());
+    }
+}
@@ -0,0 +1,73 @@
+package cc.farlanders.votingmatters.database;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import cc.farlanders.votingmatters.models.PlayerSession;
+
+/**
+ * Sessions of online players. Writes for a player update their session, and a
+ * session loaded while any write happened is rejected so it cannot miss it.
+ */
+public class PlayerSessionStore {
+
+    private final Map<UUID, PlayerSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * @return The player's session, or null if none is loaded
+     */
+    public PlayerSession get(UUID playerUuid) {
+        return playerUuid != null ? sessions.get(playerUuid) : null;
+    }
+
+    /**
+     * Stamp to pass to {@link #putLoaded} for a load that starts now
+     */
+    public long loadStamp() {
+        return writes.get();
+    }
+
+    /**
+     * Store a loaded session, unless a write happened since the load started
+     *
+     * @return Whether the session was stored
+     */
+    public synchronized boolean putLoaded(UUID playerUuid, PlayerSession session, long stamp) {
+        if (writes.get() != stamp) {
+            return false;
+        }
+        sessions.put(playerUuid, session);
+        return true;
+    }
+
+    /**
+     * Apply a write to the player's session, if they have one
+     */
+    public synchronized void update(UUID playerUuid, Consumer<PlayerSession> change) {
+        writes.incrementAndGet();
+        PlayerSession session = get(playerUuid);
+        if (session != null) {
+            change.accept(session);
+        }
+    }
+
+    public void remove(UUID playerUuid) {
+        sessions.remove(playerUuid);
+    }
+
+    /**
+     * Drop every session, e.g. after rows were changed behind the store's back
+     */
+    public synchronized void clear() {
+        writes.incrementAndGet();
+        sessions.clear();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,177 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A connection borrowed from a {@link ConnectionPool}. Prepared statements are
+ * cached per connection and owned by it, so callers must not close them;
+ * closing this object returns the connection to the pool. A statement handed
+ * out during a borrow stays open until the connection is returned, even if the
+ * cache evicts it in the meantime.
+ */
+public class PooledConnection implements AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final int statementCacheSize;
+    private final Map<String, PreparedStatement> statementCache;
+    // Statements handed out since the connection was borrowed
+    private final Set<PreparedStatement> handedOut = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Statements that are no longer cached, closed when the connection is returned
+    private final List<PreparedStatement> retired = new ArrayList<>();
+    private long lastUsed = System.currentTimeMillis();
+    private boolean reusable = true;
+
+    PooledConnection(ConnectionPool pool, Connection connection, int statementCacheSize) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCacheSize = statementCacheSize;
+        this.statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > statementCacheSize) {
+                    retire(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a cached prepared statement for the given SQL, preparing it on first
+     * use. Parameters from a previous use are cleared. With a cache size of 0
+     * every call prepares a new statement, closed when the connection is
+     * returned.
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        PreparedStatement statement = statementCache.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            pool.recordStatementCache(true);
+            statement.clearParameters();
+            handedOut.add(statement);
+            return statement;
+        }
+
+        pool.recordStatementCache(false);
+        statement = connection.prepareStatement(sql);
+        handedOut.add(statement);
+        if (statementCacheSize > 0) {
+            statementCache.put(sql, statement);
+        } else {
+            retired.add(statement);
+        }
+        return statement;
+    }
+
+    private void retire(PreparedStatement statement) {
+        if (handedOut.contains(statement)) {
+            // The caller may still be using it
+            retired.add(statement);
+        } else {
+            closeQuietly(statement);
+        }
+    }
+
+    /**
+     * Create a plain statement. Unlike prepared statements these are not cached
+     * and must be closed by the caller.
+     */
+    public Statement createStatement() throws SQLException {
+        return connection.createStatement();
+    }
+
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        connection.setAutoCommit(autoCommit);
+    }
+
+    public void commit() throws SQLException {
+        connection.commit();
+    }
+
+    public void rollback() throws SQLException {
+        connection.rollback();
+    }
+
+    /**
+     * Get the underlying JDBC connection. It must not be closed directly.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Mark this connection as broken so that it is discarded instead of being
+     * returned to the pool
+     */
+    public void invalidate() {
+        reusable = false;
+    }
+
+    long idleMillis() {
+        return System.currentTimeMillis() - lastUsed;
+    }
+
+    void markBorrowed() {
+        reusable = true;
+    }
+
+    void markIdle() {
+        lastUsed = System.currentTimeMillis();
+    }
+
+    @Override
+    public void close() {
+        for (PreparedStatement statement : retired) {
+            closeQuietly(statement);
+        }
+        retired.clear();
+        handedOut.clear();
+        try {
+            if (connection.isClosed()) {
+                reusable = false;
+            } else if (!connection.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        pool.release(this, reusable);
+    }
+
+    void closePhysical() {
+        for (PreparedStatement statement : statementCache.values()) {
+            closeQuietly(statement);
+        }
+        statementCache.clear();
+        for (PreparedStatement statement : retired) {
+            closeQuietly(statement);
+        }
+        retired.clear();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Connection is being discarded anyway
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // Statement is being evicted anyway
+        }
+    }
+}
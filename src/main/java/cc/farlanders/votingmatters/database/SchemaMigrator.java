@@ -0,0 +1,301 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Brings the database schema up to date by applying ordered, versioned
+ * migrations. Applied versions are recorded in the {@code schema_version}
+ * table so each migration runs exactly once per database.
+ */
+public class SchemaMigrator {
+
+    /**
+     * A single schema change with separate statements per SQL dialect
+     */
+    public record Migration(int version, String description, List<String> sqlite, List<String> mysql) {
+
+        List<String> statementsFor(boolean isSqlite) {
+            return isSqlite ? sqlite : mysql;
+        }
+    }
+
+    // MySQL error codes for a duplicate column, a duplicate index name and
+    // dropping a missing index
+    private static final int MYSQL_DUPLICATE_COLUMN = 1060;
+    private static final int MYSQL_DUPLICATE_KEY_NAME = 1061;
+    private static final int MYSQL_CANT_DROP_KEY = 1091;
+
+    private final boolean sqlite;
+    private final Logger logger;
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(String dbType, Logger logger) {
+        this(dbType, logger, defaultMigrations());
+    }
+
+    public SchemaMigrator(String dbType, Logger logger, List<Migration> migrations) {
+        this.sqlite = dbType.equalsIgnoreCase("sqlite");
+        this.logger = logger;
+        this.migrations = migrations.stream()
+                .sorted((a, b) -> Integer.compare(a.version(), b.version()))
+                .toList();
+    }
+
+    /**
+     * Apply every migration newer than the current schema version, each in its
+     * own transaction
+     *
+     * @return The schema version after migrating
+     */
+    public int migrate(PooledConnection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS schema_version (
+                            version INTEGER PRIMARY KEY,
+                            description VARCHAR(200) NOT NULL,
+                            applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                    """);
+        }
+
+        int current = getCurrentVersion(connection);
+        for (Migration migration : migrations) {
+            if (migration.version() <= current) {
+                continue;
+            }
+            apply(connection, migration);
+            current = migration.version();
+        }
+        return current;
+    }
+
+    /**
+     * Get the highest applied schema version
+     *
+     * @return The schema version, or 0 for an empty database
+     */
+    public int getCurrentVersion(PooledConnection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void apply(PooledConnection connection, Migration migration) throws SQLException {
+        logger.log(Level.INFO, "Applying database migration {0}: {1}",
+                new Object[] { migration.version(), migration.description() });
+
+        // SQLite DDL is transactional; MySQL commits each DDL statement implicitly,
+        // so its statements are written to be safe to run again
+        connection.setAutoCommit(false);
+        try {
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : migration.statementsFor(sqlite)) {
+                    execute(stmt, sql);
+                }
+            }
+
+            PreparedStatement insert = connection
+                    .prepareStatement("INSERT INTO schema_version (version, description) VALUES (?, ?)");
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Migration " + migration.version() + " failed: " + e.getMessage(),
+                    e.getSQLState(), e.getErrorCode(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void execute(Statement stmt, String sql) throws SQLException {
+        try {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            if (!isAlreadyApplied(e)) {
+                throw e;
+            }
+            // Change already made, e.g. by an interrupted run of the same migration
+        }
+    }
+
+    private boolean isAlreadyApplied(SQLException e) {
+        if (sqlite) {
+            // SQLite reports every error under the same code
+            String message = e.getMessage();
+            return message != null && message.toLowerCase(Locale.ROOT).contains("duplicate column name");
+        }
+        int code = e.getErrorCode();
+        return code == MYSQL_DUPLICATE_COLUMN || code == MYSQL_DUPLICATE_KEY_NAME || code == MYSQL_CANT_DROP_KEY;
+    }
+
+    /**
+     * The plugin's migrations, in order. New schema changes are appended here;
+     * released migrations must never be edited.
+     */
+    public static List<Migration> defaultMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+
+        String playerData = """
+                    CREATE TABLE IF NOT EXISTS player_vote_data (
+                        uuid VARCHAR(36) PRIMARY KEY,
+                        username VARCHAR(16) NOT NULL,
+                        total_votes INTEGER DEFAULT 0,
+                        current_streak INTEGER DEFAULT 0,
+                        best_streak INTEGER DEFAULT 0,
+                        last_vote_time TIMESTAMP,
+                        offline_votes INTEGER DEFAULT 0,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                """;
+        String voteRecords = """
+                    CREATE TABLE IF NOT EXISTS vote_records (
+                        id INTEGER PRIMARY KEY %s,
+                        player_uuid VARCHAR(36) NOT NULL,
+                        site_name VARCHAR(50) NOT NULL,
+                        vote_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        ip_address VARCHAR(45),
+                        rewarded BOOLEAN DEFAULT FALSE,
+                        FOREIGN KEY (player_uuid) REFERENCES player_vote_data(uuid)
+                    )
+                """;
+        String siteStatus = """
+                    CREATE TABLE IF NOT EXISTS vote_site_status (
+                        site_name VARCHAR(50) PRIMARY KEY,
+                        last_check TIMESTAMP,
+                        status VARCHAR(20) DEFAULT 'UNKNOWN',
+                        error_message TEXT
+                    )
+                """;
+        // Databases created before versioning already have these tables
+        migrations.add(new Migration(1, "Create base tables",
+                List.of(playerData, voteRecords.formatted("AUTOINCREMENT"), siteStatus),
+                List.of(playerData, voteRecords.formatted("AUTO_INCREMENT"), siteStatus)));
+
+        // hasVotedOnSite: player + site, newest vote first
+        // getUnrewardedVotes: player + rewarded flag, oldest vote first
+        // getTopVoters: ORDER BY total_votes DESC
+        migrations.add(new Migration(2, "Index vote lookups and leaderboard",
+                List.of("CREATE INDEX IF NOT EXISTS idx_vote_records_player_site_time ON vote_records (player_uuid, site_name, vote_time)",
+                        "CREATE INDEX IF NOT EXISTS idx_vote_records_player_rewarded_time ON vote_records (player_uuid, rewarded, vote_time)",
+                        "CREATE INDEX IF NOT EXISTS idx_player_vote_data_total_votes ON player_vote_data (total_votes)"),
+                List.of("CREATE INDEX idx_vote_records_player_site_time ON vote_records (player_uuid, site_name, vote_time)",
+                        "CREATE INDEX idx_vote_records_player_rewarded_time ON vote_records (player_uuid, rewarded, vote_time)",
+                        "CREATE INDEX idx_player_vote_data_total_votes ON player_vote_data (total_votes)")));
+
+        // Tables for the opt-in compact key format; they stay empty until
+        // CompactKeyMigration moves the data over
+        String settings = """
+                    CREATE TABLE IF NOT EXISTS schema_settings (
+                        name VARCHAR(50) PRIMARY KEY,
+                        value VARCHAR(100)
+                    )
+                """;
+        String compactPlayerData = """
+                    CREATE TABLE IF NOT EXISTS player_vote_data_compact (
+                        uuid %s PRIMARY KEY,
+                        username VARCHAR(16) NOT NULL,
+                        total_votes INTEGER DEFAULT 0,
+                        current_streak INTEGER DEFAULT 0,
+                        best_streak INTEGER DEFAULT 0,
+                        last_vote_time TIMESTAMP,
+                        offline_votes INTEGER DEFAULT 0,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                """;
+        String compactVoteRecords = """
+                    CREATE TABLE IF NOT EXISTS vote_records_compact (
+                        id INTEGER PRIMARY KEY %s,
+                        player_uuid %s NOT NULL,
+                        site_id SMALLINT NOT NULL,
+                        vote_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        ip_address VARCHAR(45),
+                        rewarded BOOLEAN DEFAULT FALSE
+                    )
+                """;
+        migrations.add(new Migration(3, "Create compact key tables",
+                List.of(settings,
+                        "CREATE TABLE IF NOT EXISTS vote_sites (id INTEGER PRIMARY KEY AUTOINCREMENT, site_name VARCHAR(50) NOT NULL UNIQUE)",
+                        compactPlayerData.formatted("BLOB"),
+                        compactVoteRecords.formatted("AUTOINCREMENT", "BLOB"),
+                        "CREATE INDEX IF NOT EXISTS idx_vote_records_compact_player_site_time ON vote_records_compact (player_uuid, site_id, vote_time)",
+                        "CREATE INDEX IF NOT EXISTS idx_vote_records_compact_player_rewarded_time ON vote_records_compact (player_uuid, rewarded, vote_time)",
+                        "CREATE INDEX IF NOT EXISTS idx_player_vote_data_compact_total_votes ON player_vote_data_compact (total_votes)"),
+                List.of(settings,
+                        "CREATE TABLE IF NOT EXISTS vote_sites (id SMALLINT PRIMARY KEY AUTO_INCREMENT, site_name VARCHAR(50) NOT NULL UNIQUE)",
+                        compactPlayerData.formatted("BINARY(16)"),
+                        compactVoteRecords.formatted("AUTO_INCREMENT", "BINARY(16)"),
+                        "CREATE INDEX idx_vote_records_compact_player_site_time ON vote_records_compact (player_uuid, site_id, vote_time)",
+                        "CREATE INDEX idx_vote_records_compact_player_rewarded_time ON vote_records_compact (player_uuid, rewarded, vote_time)",
+                        "CREATE INDEX idx_player_vote_data_compact_total_votes ON player_vote_data_compact (total_votes)")));
+
+        // Leaderboard keyset pagination orders by (total_votes DESC, uuid)
+        migrations.add(new Migration(4, "Index leaderboard pages",
+                List.of("DROP INDEX IF EXISTS idx_player_vote_data_total_votes",
+                        "DROP INDEX IF EXISTS idx_player_vote_data_compact_total_votes",
+                        "CREATE INDEX IF NOT EXISTS idx_player_vote_data_leaderboard ON player_vote_data (total_votes DESC, uuid)",
+                        "CREATE INDEX IF NOT EXISTS idx_player_vote_data_compact_leaderboard ON player_vote_data_compact (total_votes DESC, uuid)"),
+                List.of("DROP INDEX idx_player_vote_data_total_votes ON player_vote_data",
+                        "DROP INDEX idx_player_vote_data_compact_total_votes ON player_vote_data_compact",
+                        "CREATE INDEX idx_player_vote_data_leaderboard ON player_vote_data (total_votes DESC, uuid)",
+                        "CREATE INDEX idx_player_vote_data_compact_leaderboard ON player_vote_data_compact (total_votes DESC, uuid)")));
+
+        // Daily per-player, per-site vote counts that old vote_records are folded into
+        String rollups = """
+                    CREATE TABLE IF NOT EXISTS %s (
+                        player_uuid %s NOT NULL,
+                        %s NOT NULL,
+                        vote_day INTEGER NOT NULL,
+                        vote_count INTEGER NOT NULL DEFAULT 0,
+                        PRIMARY KEY (player_uuid, %s, vote_day)
+                    )
+                """;
+        migrations.add(new Migration(5, "Create vote rollups",
+                List.of(rollups.formatted("vote_rollups", "VARCHAR(36)", "site_name VARCHAR(50)", "site_name"),
+                        rollups.formatted("vote_rollups_compact", "BLOB", "site_id SMALLINT", "site_id"),
+                        "CREATE INDEX IF NOT EXISTS idx_vote_records_rewarded_time ON vote_records (rewarded, vote_time)",
+                        "CREATE INDEX IF NOT EXISTS idx_vote_records_compact_rewarded_time ON vote_records_compact (rewarded, vote_time)"),
+                List.of(rollups.formatted("vote_rollups", "VARCHAR(36)", "site_name VARCHAR(50)", "site_name"),
+                        rollups.formatted("vote_rollups_compact", "BINARY(16)", "site_id SMALLINT", "site_id"),
+                        "CREATE INDEX idx_vote_records_rewarded_time ON vote_records (rewarded, vote_time)",
+                        "CREATE INDEX idx_vote_records_compact_rewarded_time ON vote_records_compact (rewarded, vote_time)")));
+
+        // Resume position of each bulk import source
+        String importProgress = """
+                    CREATE TABLE IF NOT EXISTS import_progress (
+                        source VARCHAR(150) PRIMARY KEY,
+                        position BIGINT NOT NULL DEFAULT 0,
+                        rows_imported BIGINT NOT NULL DEFAULT 0,
+                        completed BOOLEAN DEFAULT FALSE,
+                        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                """;
+        migrations.add(new Migration(6, "Create import progress", List.of(importProgress), List.of(importProgress)));
+
+        // findPlayerUuid: votes received by player name
+        migrations.add(new Migration(7, "Index player names",
+                List.of("CREATE INDEX IF NOT EXISTS idx_player_vote_data_username ON player_vote_data (username)",
+                        "CREATE INDEX IF NOT EXISTS idx_player_vote_data_compact_username ON player_vote_data_compact (username)"),
+                List.of("CREATE INDEX idx_player_vote_data_username ON player_vote_data (username)",
+                        "CREATE INDEX idx_player_vote_data_compact_username ON player_vote_data_compact (username)")));
+
+        // Polled sites resume after the newest vote they reported
+        migrations.add(new Migration(8, "Track last vote seen per site",
+                List.of("ALTER TABLE vote_site_status ADD COLUMN last_seen_vote TIMESTAMP"),
+                List.of("ALTER TABLE vote_site_status ADD COLUMN last_seen_vote TIMESTAMP NULL")));
+
+        return migrations;
+    }
+}
@@ -0,0 +1,118 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection setup for the SQLite backend. All writes go through a single
+ * writer connection, while reads use a small pool of read-only connections
+ * that WAL journaling lets run alongside the writer.
+ */
+public class SqliteEngine implements AutoCloseable {
+
+    /**
+     * Tuning applied to every connection
+     */
+    public record Settings(String journalMode, String synchronous, int busyTimeoutMillis, long mmapSize,
+            int readConnections) {
+    }
+
+    private static final Set<String> JOURNAL_MODES = Set.of("WAL", "DELETE", "TRUNCATE", "PERSIST", "MEMORY");
+    private static final Set<String> SYNCHRONOUS_MODES = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+
+    private final String url;
+    private final Settings settings;
+    private final Logger logger;
+    private final ConnectionPool writer;
+    private final ConnectionPool readers;
+
+    public SqliteEngine(String url, Settings settings, ConnectionPool.Settings poolSettings, Logger logger)
+            throws SQLException {
+        this.url = url;
+        this.logger = logger;
+        this.settings = validate(settings);
+
+        // SQLite allows a single writer per file; extra write connections would
+        // only contend on the file lock
+        ConnectionPool.Settings writerSettings = new ConnectionPool.Settings(1, 1,
+                poolSettings.connectionTimeoutMillis(), poolSettings.idleTimeoutMillis(),
+                poolSettings.validationTimeoutSeconds(), poolSettings.statementCacheSize());
+        this.writer = new ConnectionPool(() -> open(false), writerSettings, logger);
+
+        ConnectionPool.Settings readerSettings = new ConnectionPool.Settings(this.settings.readConnections(),
+                Math.min(1, this.settings.readConnections()), poolSettings.connectionTimeoutMillis(),
+                poolSettings.idleTimeoutMillis(), poolSettings.validationTimeoutSeconds(),
+                poolSettings.statementCacheSize());
+        try {
+            this.readers = new ConnectionPool(() -> open(true), readerSettings, logger);
+        } catch (SQLException e) {
+            writer.close();
+            throw e;
+        }
+    }
+
+    private Settings validate(Settings requested) {
+        String journalMode = requested.journalMode().toUpperCase(Locale.ROOT);
+        if (!JOURNAL_MODES.contains(journalMode)) {
+            logger.log(Level.WARNING, "Unknown SQLite journal mode {0}, using WAL", requested.journalMode());
+            journalMode = "WAL";
+        }
+        String synchronous = requested.synchronous().toUpperCase(Locale.ROOT);
+        if (!SYNCHRONOUS_MODES.contains(synchronous)) {
+            logger.log(Level.WARNING, "Unknown SQLite synchronous mode {0}, using NORMAL", requested.synchronous());
+            synchronous = "NORMAL";
+        }
+        return new Settings(journalMode, synchronous, Math.max(0, requested.busyTimeoutMillis()),
+                Math.max(0, requested.mmapSize()), Math.max(1, requested.readConnections()));
+    }
+
+    private Connection open(boolean readOnly) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            // Journal mode is stored in the database file, so the writer sets it
+            if (!readOnly) {
+                stmt.execute("PRAGMA journal_mode=" + settings.journalMode());
+            }
+            stmt.execute("PRAGMA synchronous=" + settings.synchronous());
+            stmt.execute("PRAGMA busy_timeout=" + settings.busyTimeoutMillis());
+            stmt.execute("PRAGMA mmap_size=" + settings.mmapSize());
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only=ON");
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * Get the pool holding the single writer connection
+     */
+    public ConnectionPool getWriter() {
+        return writer;
+    }
+
+    /**
+     * Get the pool of read-only connections
+     */
+    public ConnectionPool getReaders() {
+        return readers;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    @Override
+    public void close() {
+        readers.close();
+        writer.close();
+    }
+}
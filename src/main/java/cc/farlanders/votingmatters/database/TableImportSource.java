@@ -0,0 +1,97 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reads votes from another plugin's table in the same database, in order of a
+ * numeric id column. The position is the last id read.
+ */
+public class TableImportSource implements DataImporter.Source {
+
+    // Table and column names are put into the query, so only plain identifiers
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_]+(\\.[A-Za-z0-9_]+)?");
+
+    private final String table;
+    private final String selectSql;
+    private final DataImporter.ColumnMapping mapping;
+    private long lastId;
+    private long skipped;
+
+    public TableImportSource(String table, String idColumn, DataImporter.ColumnMapping mapping) {
+        this.table = requireIdentifier(table);
+        this.mapping = mapping;
+        this.selectSql = "SELECT %s, %s, %s, %s, %s, %s FROM %s WHERE %s > ? ORDER BY %s LIMIT ?".formatted(
+                requireIdentifier(idColumn), requireIdentifier(mapping.uuid()), columnOrNull(mapping.username()),
+                columnOrNull(mapping.site()), requireIdentifier(mapping.time()), columnOrNull(mapping.rewarded()),
+                this.table, idColumn, idColumn);
+    }
+
+    private static String requireIdentifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid table or column name: " + name);
+        }
+        return name;
+    }
+
+    private static String columnOrNull(String name) {
+        return name == null || name.isBlank() ? "NULL" : requireIdentifier(name);
+    }
+
+    @Override
+    public String getName() {
+        return "table:" + table;
+    }
+
+    @Override
+    public void seek(long position) {
+        lastId = position;
+    }
+
+    @Override
+    public List<DataImporter.ImportRow> read(PooledConnection connection, int max) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(selectSql);
+        List<DataImporter.ImportRow> rows = new ArrayList<>(max);
+        int fetched;
+        // An empty result means the end of the table, so keep going past chunks
+        // that only had unparseable rows
+        do {
+            stmt.setLong(1, lastId);
+            stmt.setInt(2, max);
+            fetched = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    fetched++;
+                    lastId = rs.getLong(1);
+                    DataImporter.ImportRow row = DataImporter.toRow(mapping, rs.getObject(2), rs.getObject(3),
+                            rs.getObject(4), rs.getObject(5), rs.getObject(6));
+                    if (row != null) {
+                        rows.add(row);
+                    } else {
+                        skipped++;
+                    }
+                }
+            }
+        } while (rows.isEmpty() && fetched == max);
+        return rows;
+    }
+
+    @Override
+    public long getPosition() {
+        return lastId;
+    }
+
+    @Override
+    public long getSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public void close() {
+        // Reads use the importer's connection
+    }
+}
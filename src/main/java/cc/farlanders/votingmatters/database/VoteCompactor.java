@@ -0,0 +1,102 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Folds old, rewarded vote records into per-player, per-site daily counts in
+ * the rollup table and deletes them, one chunk per transaction.
+ */
+public class VoteCompactor {
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private record RollupKey(UUID playerUuid, String siteName, long voteDay) {
+    }
+
+    private final String upsertRollupSql;
+
+    public VoteCompactor(String dbType) {
+        this.upsertRollupSql = dbType.equalsIgnoreCase("sqlite")
+                ? """
+                        INSERT INTO {rollups} (player_uuid, {site}, vote_day, vote_count) VALUES (?, ?, ?, ?)
+                        ON CONFLICT(player_uuid, {site}, vote_day) DO UPDATE SET vote_count = vote_count + excluded.vote_count
+                        """
+                : """
+                        INSERT INTO {rollups} (player_uuid, {site}, vote_day, vote_count) VALUES (?, ?, ?, ?)
+                        ON DUPLICATE KEY UPDATE vote_count = vote_count + VALUES(vote_count)
+                        """;
+    }
+
+    /**
+     * Day number used for rollups and daily leaderboards: days since the epoch in
+     * UTC
+     */
+    public static long toVoteDay(Timestamp voteTime) {
+        return Math.floorDiv(voteTime.getTime(), MILLIS_PER_DAY);
+    }
+
+    /**
+     * Compact one chunk of rewarded vote records cast before {@code cutoff}
+     *
+     * @return The number of vote records folded into rollups
+     */
+    public int compactChunk(PooledConnection connection, KeyCodec keys, Timestamp cutoff, int chunkSize)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            PreparedStatement select = connection.prepareStatement(keys.sql(
+                    "SELECT id, player_uuid, {site}, vote_time FROM {votes} WHERE rewarded = TRUE AND vote_time < ? ORDER BY vote_time LIMIT ?"));
+            select.setTimestamp(1, cutoff);
+            select.setInt(2, chunkSize);
+
+            List<Long> ids = new ArrayList<>();
+            Map<RollupKey, Integer> counts = new LinkedHashMap<>();
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong("id"));
+                    RollupKey key = new RollupKey(keys.getUuid(rs, "player_uuid"),
+                            keys.getSite(connection, rs, keys.siteColumn()), toVoteDay(rs.getTimestamp("vote_time")));
+                    counts.merge(key, 1, Integer::sum);
+                }
+            }
+            if (ids.isEmpty()) {
+                connection.commit();
+                return 0;
+            }
+
+            PreparedStatement upsert = connection.prepareStatement(keys.sql(upsertRollupSql));
+            for (Map.Entry<RollupKey, Integer> entry : counts.entrySet()) {
+                RollupKey key = entry.getKey();
+                keys.setUuid(upsert, 1, key.playerUuid());
+                keys.setSite(connection, upsert, 2, key.siteName());
+                upsert.setLong(3, key.voteDay());
+                upsert.setInt(4, entry.getValue());
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+
+            PreparedStatement delete = connection.prepareStatement(keys.sql("DELETE FROM {votes} WHERE id = ?"));
+            for (long id : ids) {
+                delete.setLong(1, id);
+                delete.addBatch();
+            }
+            delete.executeBatch();
+
+            connection.commit();
+            return ids.size();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import cc.farlanders.votingmatters.models.PlayerVoteData;
+import cc.farlanders.votingmatters.models.VoteRecord;
+
+/**
+ * Write-behind buffer for player upserts and vote record inserts. Upserts are
+ * coalesced per player, and everything pending is written in a single
+ * transaction every flush interval or as soon as the batch size is reached.
+ */
+public class WriteBehindBuffer {
+
+    /**
+     * Writes one batch of rows inside a single transaction
+     */
+    @FunctionalInterface
+    public interface BatchWriter {
+        void write(List<PlayerVoteData> upserts, List<VoteRecord> inserts) throws SQLException;
+    }
+
+    /**
+     * Point-in-time view of the buffer
+     */
+    public record Stats(int pendingUpserts, int pendingInserts, long flushes, long rowsWritten, long coalesced,
+            long failedFlushes) {
+    }
+
+    // Attempts made to write a row before it is dropped
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final BatchWriter writer;
+    private final DatabaseExecutor executor;
+    private final Logger logger;
+    private final int maxBatchSize;
+    private final boolean enabled;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    private Map<UUID, PendingUpsert> upserts = new LinkedHashMap<>();
+    private List<PendingInsert> inserts = new ArrayList<>();
+    private volatile boolean closed;
+
+    public WriteBehindBuffer(BatchWriter writer, DatabaseExecutor executor, Logger logger, boolean enabled,
+            long flushIntervalMillis, int maxBatchSize) {
+        this.writer = writer;
+        this.executor = executor;
+        this.logger = logger;
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "VotingMatters-DB-Flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (enabled) {
+            long interval = Math.max(10, flushIntervalMillis);
+            scheduler.scheduleWithFixedDelay(this::requestFlush, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Queue an upsert of the player's current state. A later upsert for the same
+     * player replaces this one if neither has been written yet.
+     *
+     * @return A future completed once the row has been written
+     */
+    public CompletableFuture<Void> upsert(PlayerVoteData data) {
+        PlayerVoteData snapshot = data.copy();
+        CompletableFuture<Void> future;
+        int pending;
+        synchronized (this) {
+            PendingUpsert existing = upserts.get(snapshot.getUuid());
+            if (existing != null) {
+                existing.data = snapshot;
+                existing.attempts = 0;
+                future = existing.future;
+                coalesced.incrementAndGet();
+            } else {
+                PendingUpsert upsert = new PendingUpsert(snapshot);
+                upserts.put(snapshot.getUuid(), upsert);
+                future = upsert.future;
+            }
+            pending = upserts.size() + inserts.size();
+        }
+        afterEnqueue(pending);
+        return future;
+    }
+
+    /**
+     * Queue a vote record insert
+     *
+     * @return A future completed once the row has been written
+     */
+    public CompletableFuture<Void> insert(VoteRecord voteRecord) {
+        PendingInsert insert = new PendingInsert(voteRecord);
+        int pending;
+        synchronized (this) {
+            inserts.add(insert);
+            pending = upserts.size() + inserts.size();
+        }
+        afterEnqueue(pending);
+        return insert.future;
+    }
+
+    /**
+     * Get a copy of the player's pending, not yet written state
+     *
+     * @return The pending state, or null if nothing is pending for the player
+     */
+    public synchronized PlayerVoteData getPending(UUID playerUuid) {
+        PendingUpsert upsert = upserts.get(playerUuid);
+        return upsert != null ? upsert.data.copy() : null;
+    }
+
+    /**
+     * Check whether any write for the player is waiting to be flushed
+     */
+    public synchronized boolean hasPending(UUID playerUuid) {
+        if (upserts.containsKey(playerUuid)) {
+            return true;
+        }
+        for (PendingInsert insert : inserts) {
+            if (insert.voteRecord.getPlayerUuid().equals(playerUuid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get a future that completes once the player's pending writes are stored,
+     * flushing now if there are any
+     */
+    public CompletableFuture<Void> awaitPending(UUID playerUuid) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        synchronized (this) {
+            PendingUpsert upsert = upserts.get(playerUuid);
+            if (upsert != null) {
+                futures.add(upsert.future);
+            }
+            for (PendingInsert insert : inserts) {
+                if (insert.voteRecord.getPlayerUuid().equals(playerUuid)) {
+                    futures.add(insert.future);
+                }
+            }
+        }
+        return awaitAll(futures);
+    }
+
+    /**
+     * Get a future that completes once everything currently pending is stored,
+     * flushing now if there is anything
+     */
+    public CompletableFuture<Void> awaitAllPending() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        synchronized (this) {
+            upserts.values().forEach(upsert -> futures.add(upsert.future));
+            inserts.forEach(insert -> futures.add(insert.future));
+        }
+        return awaitAll(futures);
+    }
+
+    private CompletableFuture<Void> awaitAll(List<CompletableFuture<Void>> futures) {
+        if (futures.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        requestFlush();
+        // Readers only care that the rows are written, not whether the write failed
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .exceptionally(throwable -> null);
+    }
+
+    private void afterEnqueue(int pending) {
+        if (!enabled || closed || pending >= maxBatchSize) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Schedule a flush on the database executor unless one is already queued
+     */
+    public void requestFlush() {
+        if (!flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        executor.run(() -> {
+            flushQueued.set(false);
+            flush();
+        }).exceptionally(throwable -> {
+            flushQueued.set(false);
+            if (closed && executor.isShutdown()) {
+                // Nothing will flush these any more
+                failPending(throwable);
+            }
+            // Otherwise the executor is saturated; the next interval or enqueue will retry
+            return null;
+        });
+    }
+
+    private void failPending(Throwable cause) {
+        List<PendingUpsert> upsertBatch;
+        List<PendingInsert> insertBatch;
+        synchronized (this) {
+            upsertBatch = new ArrayList<>(upserts.values());
+            insertBatch = inserts;
+            upserts = new LinkedHashMap<>();
+            inserts = new ArrayList<>();
+        }
+        upsertBatch.forEach(upsert -> upsert.future.completeExceptionally(cause));
+        insertBatch.forEach(insert -> insert.future.completeExceptionally(cause));
+    }
+
+    /**
+     * Write everything pending in one transaction on the calling thread
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<PendingUpsert> upsertBatch;
+            List<PendingInsert> insertBatch;
+            synchronized (this) {
+                if (upserts.isEmpty() && inserts.isEmpty()) {
+                    return;
+                }
+                upsertBatch = new ArrayList<>(upserts.values());
+                insertBatch = inserts;
+                upserts = new LinkedHashMap<>();
+                inserts = new ArrayList<>();
+            }
+
+            List<PlayerVoteData> upsertRows = new ArrayList<>(upsertBatch.size());
+            upsertBatch.forEach(upsert -> upsertRows.add(upsert.data));
+            List<VoteRecord> insertRows = new ArrayList<>(insertBatch.size());
+            insertBatch.forEach(insert -> insertRows.add(insert.voteRecord));
+
+            try {
+                writer.write(upsertRows, insertRows);
+                flushes.incrementAndGet();
+                rowsWritten.addAndGet((long) upsertRows.size() + insertRows.size());
+                upsertBatch.forEach(upsert -> upsert.future.complete(null));
+                insertBatch.forEach(insert -> insert.future.complete(null));
+            } catch (SQLException | RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                upsertBatch.forEach(upsert -> upsert.lastError = e);
+                insertBatch.forEach(insert -> insert.lastError = e);
+                logger.log(Level.WARNING, "Failed to flush {0} buffered database writes: {1}",
+                        new Object[] { upsertRows.size() + insertRows.size(), e.getMessage() });
+                if (upsertBatch.size() + insertBatch.size() > 1 && !closed && isRowError(e)) {
+                    // Write rows one by one so a single bad row doesn't hold back the rest
+                    writeIndividually(upsertBatch, insertBatch);
+                } else {
+                    // A lost connection fails every row alike, so retry the batch as a whole
+                    requeue(upsertBatch, insertBatch);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Whether a failure was caused by the data in some row (SQLState class 22 or
+     * 23) rather than by the connection or server, which would fail every row alike
+     */
+    static boolean isRowError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                String state = sqlException.getSQLState();
+                if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void writeIndividually(List<PendingUpsert> upsertBatch, List<PendingInsert> insertBatch) {
+        List<PendingUpsert> failedUpserts = new ArrayList<>();
+        List<PendingInsert> failedInserts = new ArrayList<>();
+        for (PendingUpsert upsert : upsertBatch) {
+            try {
+                writer.write(List.of(upsert.data), List.of());
+                rowsWritten.incrementAndGet();
+                upsert.future.complete(null);
+            } catch (SQLException | RuntimeException e) {
+                upsert.lastError = e;
+                failedUpserts.add(upsert);
+            }
+        }
+        for (PendingInsert insert : insertBatch) {
+            try {
+                writer.write(List.of(), List.of(insert.voteRecord));
+                rowsWritten.incrementAndGet();
+                insert.future.complete(null);
+            } catch (SQLException | RuntimeException e) {
+                insert.lastError = e;
+                failedInserts.add(insert);
+            }
+        }
+        requeue(failedUpserts, failedInserts);
+    }
+
+    private void requeue(List<PendingUpsert> upsertBatch, List<PendingInsert> insertBatch) {
+        synchronized (this) {
+            for (PendingUpsert upsert : upsertBatch) {
+                PendingUpsert newer = upserts.get(upsert.data.getUuid());
+                if (newer != null) {
+                    // A newer state was queued meanwhile; it supersedes this one
+                    newer.future.whenComplete((result, error) -> {
+                        if (error != null) {
+                            upsert.future.completeExceptionally(error);
+                        } else {
+                            upsert.future.complete(null);
+                        }
+                    });
+                } else if (++upsert.attempts < MAX_ATTEMPTS && !closed) {
+                    upserts.put(upsert.data.getUuid(), upsert);
+                } else {
+                    drop("player data for " + upsert.data.getUuid(), upsert.attempts, upsert.lastError,
+                            upsert.future);
+                }
+            }
+
+            List<PendingInsert> retained = new ArrayList<>();
+            for (PendingInsert insert : insertBatch) {
+                if (++insert.attempts < MAX_ATTEMPTS && !closed) {
+                    retained.add(insert);
+                } else {
+                    VoteRecord vote = insert.voteRecord;
+                    drop("vote by " + vote.getPlayerUuid() + " on " + vote.getSiteName() + " at " + vote.getVoteTime(),
+                            insert.attempts, insert.lastError, insert.future);
+                }
+            }
+            retained.addAll(inserts);
+            inserts = retained;
+        }
+    }
+
+    /**
+     * Give up on a write, failing its future so callers know it was not stored
+     */
+    private void drop(String row, int attempts, Exception error, CompletableFuture<Void> future) {
+        logger.log(Level.SEVERE, "Dropping buffered write of {0} after {1} attempts: {2}",
+                new Object[] { row, attempts, error != null ? error.getMessage() : "unknown error" });
+        future.completeExceptionally(error != null ? error : new SQLException("Write failed"));
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(upserts.size(), inserts.size(), flushes.get(), rowsWritten.get(), coalesced.get(),
+                failedFlushes.get());
+    }
+
+    /**
+     * Stop the flush timer and write everything still pending
+     */
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private static class PendingUpsert {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        PlayerVoteData data;
+        int attempts;
+        Exception lastError;
+
+        PendingUpsert(PlayerVoteData data) {
+            this.data = data;
+        }
+    }
+
+    private static class PendingInsert {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final VoteRecord voteRecord;
+        int attempts;
+        Exception lastError;
+
+        PendingInsert(VoteRecord voteRecord) {
+            this.voteRecord = voteRecord;
+        }
+    }
+}
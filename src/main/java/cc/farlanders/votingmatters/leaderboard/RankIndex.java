@@ -0,0 +1,205 @@
+package cc.farlanders.votingmatters.leaderboard;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Order-statistic index of players by total votes, most votes first and ties
+ * broken by UUID in the database's order. Backed by a treap whose nodes track their subtree size, so
+ * updates, rank-of-player and player-at-rank all take O(log n) expected time.
+ */
+public class RankIndex {
+
+    private static final class Node {
+        private final UUID uuid;
+        private final int votes;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(UUID uuid, int votes, int priority) {
+            this.uuid = uuid;
+            this.votes = votes;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<UUID, Integer> votesByPlayer = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+    // Results of the last split, to avoid allocating a pair per call
+    private Node splitLeft;
+    private Node splitRight;
+
+    /**
+     * Set a player's total votes, adding them if they are not indexed yet
+     */
+    public synchronized void update(UUID uuid, int totalVotes) {
+        Integer current = votesByPlayer.put(uuid, totalVotes);
+        if (current != null) {
+            if (current == totalVotes) {
+                return;
+            }
+            delete(uuid, current);
+        }
+        insert(new Node(uuid, totalVotes, random.nextInt()));
+    }
+
+    public synchronized void remove(UUID uuid) {
+        Integer current = votesByPlayer.remove(uuid);
+        if (current != null) {
+            delete(uuid, current);
+        }
+    }
+
+    /**
+     * Get a player's leaderboard position
+     *
+     * @return The 1-based rank, or 0 if the player is not indexed
+     */
+    public synchronized int rankOf(UUID uuid) {
+        Integer votes = votesByPlayer.get(uuid);
+        if (votes == null) {
+            return 0;
+        }
+
+        int before = 0;
+        Node node = root;
+        while (node != null) {
+            if (precedes(node.votes, node.uuid, votes, uuid)) {
+                before += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return before + 1;
+    }
+
+    /**
+     * Get the player at a leaderboard position
+     *
+     * @param rank The 1-based rank
+     * @return The player, or null if the rank is out of range
+     */
+    public synchronized UUID playerAt(int rank) {
+        if (rank < 1 || rank > size(root)) {
+            return null;
+        }
+
+        int remaining = rank;
+        Node node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (remaining <= leftSize) {
+                node = node.left;
+            } else if (remaining == leftSize + 1) {
+                return node.uuid;
+            } else {
+                remaining -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get a player's indexed total votes
+     *
+     * @return The votes, or 0 if the player is not indexed
+     */
+    public synchronized int votesOf(UUID uuid) {
+        return votesByPlayer.getOrDefault(uuid, 0);
+    }
+
+    public synchronized int size() {
+        return votesByPlayer.size();
+    }
+
+    // Whether (votesA, uuidA) sorts before (votesB, uuidB)
+    private static boolean precedes(int votesA, UUID uuidA, int votesB, UUID uuidB) {
+        return votesA != votesB ? votesA > votesB : compareUuids(uuidA, uuidB) < 0;
+    }
+
+    /**
+     * Compare UUIDs the way the database orders its uuid column, as unsigned
+     * bytes or as their hex text, which agree. {@link UUID#compareTo} compares
+     * signed halves and would order UUIDs with the top bit set first.
+     */
+    private static int compareUuids(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static Node resize(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private void insert(Node node) {
+        split(root, node.votes, node.uuid);
+        Node right = splitRight;
+        root = merge(merge(splitLeft, node), right);
+    }
+
+    private void delete(UUID uuid, int votes) {
+        split(root, votes, uuid);
+        Node left = splitLeft;
+        // The right part starts with the deleted node; drop its first element
+        root = merge(left, removeFirst(splitRight));
+    }
+
+    private static Node removeFirst(Node node) {
+        if (node == null) {
+            return null;
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeFirst(node.left);
+        return resize(node);
+    }
+
+    /**
+     * Split into nodes sorting before the key (splitLeft) and the rest
+     * (splitRight)
+     */
+    private void split(Node node, int votes, UUID uuid) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        if (precedes(node.votes, node.uuid, votes, uuid)) {
+            split(node.right, votes, uuid);
+            node.right = splitLeft;
+            splitLeft = resize(node);
+        } else {
+            split(node.left, votes, uuid);
+            node.left = splitRight;
+            splitRight = resize(node);
+        }
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return resize(left);
+        }
+        right.left = merge(left, right.left);
+        return resize(right);
+    }
+}
@@ -0,0 +1,183 @@
+package cc.farlanders.votingmatters.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Vote counts per player over the last day, week and month. Votes are kept in
+ * a ring buffer of per-day buckets, and each window keeps running totals that
+ * are adjusted as votes arrive and as days leave the window, so reading a
+ * window never re-sums the buckets.
+ */
+public class RollingLeaderboard {
+
+    /**
+     * Leaderboard windows, each covering a number of days up to and including
+     * today (UTC)
+     */
+    public enum Window {
+        DAILY(1),
+        WEEKLY(7),
+        MONTHLY(30);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+
+        public int days() {
+            return days;
+        }
+
+        /**
+         * @return The window, or null if the name is not a window
+         */
+        public static Window parse(String name) {
+            return switch (name.toLowerCase(Locale.ROOT)) {
+                case "daily", "day" -> DAILY;
+                case "weekly", "week" -> WEEKLY;
+                case "monthly", "month" -> MONTHLY;
+                default -> null;
+            };
+        }
+    }
+
+    /**
+     * A player's votes within a window
+     */
+    public record Entry(UUID playerUuid, int votes) {
+    }
+
+    // Longest window; the ring holds one bucket per day of it
+    private static final int DAYS = Window.MONTHLY.days();
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::votes).reversed()
+            .thenComparing(Entry::playerUuid);
+
+    private final List<Map<UUID, Integer>> buckets = new ArrayList<>(DAYS);
+    private final long[] bucketDays = new long[DAYS];
+    private final Map<Window, Map<UUID, Integer>> totals = new HashMap<>();
+    private long today;
+
+    public RollingLeaderboard(long today) {
+        this.today = today;
+        for (int i = 0; i < DAYS; i++) {
+            buckets.add(new HashMap<>());
+            bucketDays[i] = Long.MIN_VALUE;
+        }
+        for (Window window : Window.values()) {
+            totals.put(window, new HashMap<>());
+        }
+    }
+
+    /**
+     * Count votes cast on a day; days older than the longest window are ignored
+     *
+     * @param voteDay Days since the epoch (UTC) the votes were cast on
+     */
+    public synchronized void addVotes(UUID playerUuid, long voteDay, int count) {
+        if (voteDay > today) {
+            advance(voteDay);
+        }
+        if (voteDay <= today - DAYS || count <= 0) {
+            return;
+        }
+
+        int slot = (int) Math.floorMod(voteDay, (long) DAYS);
+        if (bucketDays[slot] != voteDay) {
+            buckets.get(slot).clear();
+            bucketDays[slot] = voteDay;
+        }
+        buckets.get(slot).merge(playerUuid, count, Integer::sum);
+        for (Window window : Window.values()) {
+            if (voteDay > today - window.days()) {
+                totals.get(window).merge(playerUuid, count, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Move the windows forward to a new day, dropping the days that leave them
+     */
+    public synchronized void advance(long newToday) {
+        if (newToday <= today) {
+            return;
+        }
+        if (newToday - today >= DAYS) {
+            for (int i = 0; i < DAYS; i++) {
+                buckets.get(i).clear();
+                bucketDays[i] = Long.MIN_VALUE;
+            }
+            totals.values().forEach(Map::clear);
+            today = newToday;
+            return;
+        }
+
+        while (today < newToday) {
+            today++;
+            for (Window window : Window.values()) {
+                // The oldest day of the window before this step
+                long leaving = today - window.days();
+                Map<UUID, Integer> bucket = bucketFor(leaving);
+                if (bucket != null) {
+                    Map<UUID, Integer> windowTotals = totals.get(window);
+                    bucket.forEach((uuid, count) -> windowTotals.computeIfPresent(uuid,
+                            (key, total) -> total > count ? total - count : null));
+                }
+            }
+        }
+    }
+
+    private Map<UUID, Integer> bucketFor(long day) {
+        int slot = (int) Math.floorMod(day, (long) DAYS);
+        return bucketDays[slot] == day ? buckets.get(slot) : null;
+    }
+
+    /**
+     * Get a player's votes within a window
+     */
+    public synchronized int getVotes(Window window, UUID playerUuid, long currentDay) {
+        advance(currentDay);
+        return totals.get(window).getOrDefault(playerUuid, 0);
+    }
+
+    /**
+     * Get the players with the most votes within a window, most first
+     */
+    public synchronized List<Entry> getTop(Window window, int limit, long currentDay) {
+        advance(currentDay);
+        Map<UUID, Integer> windowTotals = totals.get(window);
+        // There are never more entries than players in the window
+        limit = Math.min(limit, windowTotals.size());
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        // Keep the best entries seen so far, weakest at the head
+        PriorityQueue<Entry> best = new PriorityQueue<>(limit + 1, ORDER.reversed());
+        for (Map.Entry<UUID, Integer> total : windowTotals.entrySet()) {
+            best.add(new Entry(total.getKey(), total.getValue()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Entry> top = new ArrayList<>(best);
+        top.sort(ORDER);
+        return top;
+    }
+
+    /**
+     * Number of players with votes within a window
+     */
+    public synchronized int size(Window window, long currentDay) {
+        advance(currentDay);
+        return totals.get(window).size();
+    }
+}
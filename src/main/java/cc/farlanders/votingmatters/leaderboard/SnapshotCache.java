@@ -0,0 +1,97 @@
+package cc.farlanders.votingmatters.leaderboard;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Holds the latest snapshot produced by a loader. Reads return the current
+ * snapshot straight away, even while a newer one is being built, and at most
+ * one build runs at a time: refreshes requested while one is running share it.
+ *
+ * @param <T> The snapshot type; snapshots must not be modified once loaded
+ */
+public class SnapshotCache<T> {
+
+    private final Supplier<CompletableFuture<T>> loader;
+    private final AtomicReference<T> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+    private volatile boolean stale;
+
+    public SnapshotCache(Supplier<CompletableFuture<T>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Get the current snapshot. If it has been marked stale a refresh is
+     * started in the background and the stale snapshot is returned meanwhile.
+     * Only the first read waits for a snapshot to be built.
+     */
+    public CompletableFuture<T> get() {
+        T snapshot = current.get();
+        if (snapshot == null) {
+            return refresh();
+        }
+        if (stale) {
+            refresh();
+        }
+        return CompletableFuture.completedFuture(snapshot);
+    }
+
+    /**
+     * @return The current snapshot, or null if none has been built yet
+     */
+    public T getNow() {
+        return current.get();
+    }
+
+    /**
+     * Mark the snapshot as outdated, so the next read refreshes it
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Build a new snapshot, or join the build that is already running
+     *
+     * @return A future completing with the new snapshot
+     */
+    public CompletableFuture<T> refresh() {
+        while (true) {
+            CompletableFuture<T> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+
+            CompletableFuture<T> build = new CompletableFuture<>();
+            if (!inFlight.compareAndSet(null, build)) {
+                continue;
+            }
+
+            // Changes from here on are not guaranteed to be in this build
+            stale = false;
+            CompletableFuture<T> loaded;
+            try {
+                loaded = loader.get();
+            } catch (RuntimeException e) {
+                loaded = CompletableFuture.failedFuture(e);
+            }
+            loaded.whenComplete((snapshot, throwable) -> {
+                if (throwable == null && snapshot != null) {
+                    current.set(snapshot);
+                } else {
+                    // Try again on the next read
+                    stale = true;
+                }
+                inFlight.set(null);
+                if (throwable != null) {
+                    build.completeExceptionally(throwable);
+                } else {
+                    build.complete(snapshot);
+                }
+            });
+            return build;
+        }
+    }
+}
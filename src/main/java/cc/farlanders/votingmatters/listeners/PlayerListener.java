@@ -1,9 +1,18 @@
 package cc.farlanders.votingmatters.listeners;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import cc.farlanders.votingmatters.VotingMatters;
 import cc.farlanders.votingmatters.utils.MessageUtils;
@@ -16,18 +25,44 @@ public class PlayerListener implements Listener {
         this.plugin = plugin;
     }
 
+    // Load the player's vote state before they join, off the main thread
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        long timeout = plugin.getConfigManager().getConfig().getLong("database.cache.preload-timeout", 3000);
+        try {
+            plugin.getDatabaseManager().loadSession(event.getUniqueId()).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Reads for this player fall back to the database
+            plugin.getLogger().log(Level.WARNING, "Failed to preload vote data for {0}: {1}",
+                    new Object[] { event.getName(), e.getMessage() });
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            plugin.getDatabaseManager().unloadSession(event.getPlayer().getUniqueId());
+        }
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
 
-        // Check for offline votes
+        // Check for offline votes; served from the preloaded session
         plugin.getDatabaseManager().getPlayerData(player.getUniqueId())
                 .thenAccept(playerData -> {
                     if (playerData != null && playerData.getOfflineVotes() > 0) {
                         // Delay the message slightly
                         plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                            String message = MessageUtils.getMessage("offline.claim-available")
-                                    .replace("%count%", String.valueOf(playerData.getOfflineVotes()));
+                            String message = MessageUtils.getMessage("offline.claim-available",
+                                    "count", playerData.getOfflineVotes());
                             player.sendMessage(message);
                         }, 100L); // 5 seconds delay
                     }
@@ -41,4 +76,9 @@ public class PlayerListener implements Listener {
                     () -> player.sendMessage(MessageUtils.getMessage("reminders.join")), delay);
         }
     }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getDatabaseManager().unloadSession(event.getPlayer().getUniqueId());
+    }
 }
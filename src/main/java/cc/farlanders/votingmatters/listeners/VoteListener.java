@@ -27,16 +27,14 @@ public class VoteListener implements Listener {
             return;
 
         // Send thank you message
-        String thankYou = MessageUtils.getMessage("detection.thank-you")
-                .replace("%player%", player.getName());
+        String thankYou = MessageUtils.getMessage("detection.thank-you", "player", player.getName());
         player.sendMessage(thankYou);
 
         // Broadcast vote if enabled
         if (plugin.getConfigManager().getConfig().getBoolean("notifications.broadcast-votes", true)) {
-            String broadcast = MessageUtils.getMessage("detection.vote-detected")
-                    .replace("%player%", player.getName())
-                    .replace("%site%", event.getSiteName());
-            Bukkit.getServer().broadcast(net.kyori.adventure.text.Component.text(broadcast));
+            // Rendered once and shared by every recipient
+            Bukkit.getServer().broadcast(MessageUtils.getComponent("detection.vote-detected",
+                    "player", player.getName(), "site", event.getSiteName()));
         }
     }
 }
@@ -0,0 +1,286 @@
+package cc.farlanders.votingmatters.managers;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import cc.farlanders.votingmatters.VotingMatters;
+import cc.farlanders.votingmatters.database.DatabaseManager;
+import cc.farlanders.votingmatters.database.VoteCompactor;
+import cc.farlanders.votingmatters.leaderboard.RankIndex;
+import cc.farlanders.votingmatters.leaderboard.RollingLeaderboard;
+import cc.farlanders.votingmatters.leaderboard.SnapshotCache;
+import cc.farlanders.votingmatters.models.LeaderboardPage;
+import cc.farlanders.votingmatters.models.PlayerVoteData;
+import cc.farlanders.votingmatters.models.VoteRecord;
+
+public class LeaderboardManager {
+
+    private record PendingVote(int voteId, UUID playerUuid, long voteDay) {
+    }
+
+    /**
+     * The top of the all-time leaderboard
+     *
+     * @param complete Whether the entries cover every player
+     */
+    private record TopSnapshot(List<PlayerVoteData> entries, int totalPlayers, boolean complete) {
+    }
+
+    private final VotingMatters plugin;
+    private volatile RankIndex rankIndex = new RankIndex();
+    private volatile RollingLeaderboard rolling = new RollingLeaderboard(today());
+    private final Map<UUID, String> usernames = new ConcurrentHashMap<>();
+    // Votes recorded while a rebuild is loading, replayed onto the new indexes
+    private Map<UUID, Integer> pendingTotals;
+    private List<PendingVote> pendingVotes;
+    // The rebuild loading now, and one more requested while it runs
+    private CompletableFuture<Void> rebuilding;
+    private CompletableFuture<Void> queuedRebuild;
+    private final SnapshotCache<TopSnapshot> topSnapshot = new SnapshotCache<>(this::loadTopSnapshot);
+
+    public LeaderboardManager(VotingMatters plugin) {
+        this.plugin = plugin;
+    }
+
+    private static long today() {
+        return VoteCompactor.toVoteDay(new Timestamp(System.currentTimeMillis()));
+    }
+
+    /**
+     * Rebuild the in-memory indexes from the database in the background. The
+     * previous indexes keep serving lookups until the new ones are complete.
+     * Only one rebuild loads at a time; requests made while one is loading
+     * share a single rebuild that starts once it is done.
+     */
+    public CompletableFuture<Void> rebuild() {
+        CompletableFuture<Void> build = new CompletableFuture<>();
+        synchronized (this) {
+            if (rebuilding != null) {
+                // The running rebuild may have read past whatever prompted this one
+                if (queuedRebuild == null) {
+                    queuedRebuild = new CompletableFuture<>();
+                }
+                return queuedRebuild;
+            }
+            rebuilding = build;
+            pendingTotals = new HashMap<>();
+            pendingVotes = new ArrayList<>();
+        }
+
+        long today = today();
+        RankIndex index = new RankIndex();
+        RollingLeaderboard windows = new RollingLeaderboard(today);
+        plugin.getDatabaseManager().loadVoteTotals((uuid, username, totalVotes) -> {
+            index.update(uuid, totalVotes);
+            usernames.put(uuid, username);
+        }).thenCompose(ignored -> plugin.getDatabaseManager()
+                .loadVoteCounts(today - RollingLeaderboard.Window.MONTHLY.days() + 1, windows::addVotes))
+                .whenComplete((lastCounted, throwable) -> {
+                    CompletableFuture<Void> next;
+                    synchronized (this) {
+                        if (throwable == null) {
+                            pendingTotals.forEach(index::update);
+                            // Votes the counts already include must not be added twice
+                            for (PendingVote vote : pendingVotes) {
+                                if (vote.voteId() > lastCounted) {
+                                    windows.addVotes(vote.playerUuid(), vote.voteDay(), 1);
+                                }
+                            }
+                            rankIndex = index;
+                            rolling = windows;
+                            topSnapshot.invalidate();
+                        }
+                        pendingTotals = null;
+                        pendingVotes = null;
+                        rebuilding = null;
+                        next = queuedRebuild;
+                        queuedRebuild = null;
+                    }
+                    if (throwable != null) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to build the leaderboard index: {0}",
+                                throwable.getMessage());
+                        build.completeExceptionally(throwable);
+                    } else {
+                        plugin.getLogger().log(Level.INFO, "Indexed {0} players for the leaderboard", index.size());
+                        build.complete(null);
+                    }
+                    if (next != null) {
+                        rebuild().whenComplete((result, error) -> {
+                            if (error != null) {
+                                next.completeExceptionally(error);
+                            } else {
+                                next.complete(null);
+                            }
+                        });
+                    }
+                });
+        return build;
+    }
+
+    /**
+     * Apply a stored vote to the indexes
+     *
+     * @param playerData The player's data after the vote
+     */
+    public synchronized void recordVote(PlayerVoteData playerData, VoteRecord vote) {
+        UUID playerUuid = playerData.getUuid();
+        long voteDay = VoteCompactor.toVoteDay(vote.getVoteTime());
+        rankIndex.update(playerUuid, playerData.getTotalVotes());
+        rolling.addVotes(playerUuid, voteDay, 1);
+        topSnapshot.invalidate();
+        if (playerData.getUsername() != null) {
+            usernames.put(playerUuid, playerData.getUsername());
+        }
+        if (pendingTotals != null) {
+            pendingTotals.put(playerUuid, playerData.getTotalVotes());
+            pendingVotes.add(new PendingVote(vote.getId(), playerUuid, voteDay));
+        }
+    }
+
+    /**
+     * Rebuild the all-time leaderboard snapshot, or join the rebuild already
+     * running
+     */
+    public CompletableFuture<Void> refreshSnapshot() {
+        return topSnapshot.refresh().thenApply(snapshot -> null);
+    }
+
+    private CompletableFuture<TopSnapshot> loadTopSnapshot() {
+        int size = Math.max(1, plugin.getConfigManager().getConfig().getInt("leaderboard.snapshot-size", 100));
+        return plugin.getDatabaseManager().getLeaderboardPage(1, size, null)
+                .thenApply(page -> new TopSnapshot(List.copyOf(page.entries()), page.totalPlayers(),
+                        page.entries().size() < size));
+    }
+
+    /**
+     * Get one page of the all-time leaderboard. Pages within the snapshot are
+     * served from memory, possibly slightly out of date while a refresh runs;
+     * pages past it are read from the database.
+     */
+    public CompletableFuture<LeaderboardPage> getPage(int page, int pageSize) {
+        return topSnapshot.get().thenCompose(snapshot -> {
+            int players = Math.max(rankIndex.size(), snapshot != null ? snapshot.totalPlayers() : 0);
+            int shown = clampPage(page, pageSize, players);
+            int from = (shown - 1) * pageSize;
+            if (snapshot == null || (!snapshot.complete() && from + pageSize > snapshot.entries().size())) {
+                DatabaseManager.PageStart after = pageStart(snapshot, from);
+                if (from > 0 && after == null) {
+                    // Nothing to seek from until the rank index is loaded
+                    return CompletableFuture.completedFuture(
+                            new LeaderboardPage(shown, pageSize, new ArrayList<>(), players));
+                }
+                return plugin.getDatabaseManager().getLeaderboardPage(shown, pageSize, after);
+            }
+
+            List<PlayerVoteData> entries = new ArrayList<>();
+            for (int i = from; i < Math.min(from + pageSize, snapshot.entries().size()); i++) {
+                entries.add(snapshot.entries().get(i).copy());
+            }
+            return CompletableFuture.completedFuture(
+                    new LeaderboardPage(shown, pageSize, entries, snapshot.totalPlayers()));
+        });
+    }
+
+    /**
+     * The row before a page, which the database seeks past instead of counting
+     * rows. It comes from the snapshot if that reaches far enough, otherwise from
+     * the rank index, which orders players the same way.
+     *
+     * @param from The number of rows before the page
+     * @return The row, or null if there is none, e.g. while the index is loading
+     */
+    private DatabaseManager.PageStart pageStart(TopSnapshot snapshot, int from) {
+        if (from == 0) {
+            return null;
+        }
+        if (snapshot != null && from <= snapshot.entries().size()) {
+            PlayerVoteData last = snapshot.entries().get(from - 1);
+            return new DatabaseManager.PageStart(last.getTotalVotes(), last.getUuid());
+        }
+        RankIndex index = rankIndex;
+        UUID last = index.playerAt(from);
+        return last != null ? new DatabaseManager.PageStart(index.votesOf(last), last) : null;
+    }
+
+    /**
+     * Get a player's leaderboard position by total votes
+     *
+     * @return The 1-based rank, or 0 if the player has no votes recorded
+     */
+    public int getRank(UUID playerUuid) {
+        return rankIndex.rankOf(playerUuid);
+    }
+
+    /**
+     * Get the player at a leaderboard position by total votes
+     *
+     * @return The player, or null if the rank is out of range
+     */
+    public UUID getPlayerAtRank(int rank) {
+        return rankIndex.playerAt(rank);
+    }
+
+    public int getRankedPlayers() {
+        return rankIndex.size();
+    }
+
+    /**
+     * Get a player's votes within a rolling window
+     */
+    public int getWindowVotes(RollingLeaderboard.Window window, UUID playerUuid) {
+        return rolling.getVotes(window, playerUuid, today());
+    }
+
+    /**
+     * Get the players with the most votes within a rolling window
+     *
+     * @param limit The number of players to return
+     */
+    public List<RollingLeaderboard.Entry> getWindowTop(RollingLeaderboard.Window window, int limit) {
+        return rolling.getTop(window, limit, today());
+    }
+
+    /**
+     * Get one page of a rolling window leaderboard. Entries carry the player's
+     * votes within the window as their total votes.
+     */
+    public LeaderboardPage getWindowPage(RollingLeaderboard.Window window, int page, int pageSize) {
+        RollingLeaderboard current = rolling;
+        long today = today();
+        int players = current.size(window, today);
+        int shown = clampPage(page, pageSize, players);
+        int limit = (int) Math.min(players, (long) shown * pageSize);
+        List<RollingLeaderboard.Entry> top = current.getTop(window, limit, today);
+        List<PlayerVoteData> entries = new ArrayList<>();
+        for (int i = (shown - 1) * pageSize; i < top.size(); i++) {
+            RollingLeaderboard.Entry entry = top.get(i);
+            PlayerVoteData data = new PlayerVoteData(entry.playerUuid(), getUsername(entry.playerUuid()));
+            data.setTotalVotes(entry.votes());
+            entries.add(data);
+        }
+        return new LeaderboardPage(shown, pageSize, entries, players);
+    }
+
+    /**
+     * Clamp a requested page to the pages there are, so that huge page numbers
+     * cannot overflow offsets or size allocations
+     */
+    private static int clampPage(int page, int pageSize, int players) {
+        int maxPages = (int) Math.max(1, (players + (long) pageSize - 1) / pageSize);
+        return Math.max(1, Math.min(page, maxPages));
+    }
+
+    /**
+     * Get the last known name of a player
+     */
+    public String getUsername(UUID playerUuid) {
+        return usernames.getOrDefault(playerUuid, "Unknown");
+    }
+}
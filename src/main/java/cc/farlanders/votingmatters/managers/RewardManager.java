@@ -15,8 +15,8 @@ import org.bukkit.potion.PotionEffect;
 import cc.farlanders.votingmatters.VotingMatters;
 import cc.farlanders.votingmatters.models.PlayerVoteData;
 import cc.farlanders.votingmatters.models.Reward;
+import cc.farlanders.votingmatters.models.RewardPlan;
 import cc.farlanders.votingmatters.utils.MessageUtils;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.milkbowl.vault.economy.Economy;
 
 public class RewardManager {
@@ -24,12 +24,8 @@ public class RewardManager {
     private static final String ENCHANTMENTS_KEY = "enchantments";
 
     private final VotingMatters plugin;
-    private List<Reward> defaultRewards;
-    private Map<Integer, List<Reward>> streakRewards;
-    private Map<Integer, List<Reward>> milestoneRewards;
-    private Map<String, List<Reward>> siteRewards;
-    private List<Reward> vipRewards;
-    private List<Reward> weekendRewards;
+    // Replaced as a whole on reload, so a vote always sees one consistent plan
+    private volatile RewardPlan plan = RewardPlan.empty();
 
     public RewardManager(VotingMatters plugin) {
         this.plugin = plugin;
@@ -40,10 +36,10 @@ public class RewardManager {
         ConfigurationSection rewardsConfig = plugin.getConfigManager().getRewards();
 
         // Load default rewards
-        defaultRewards = loadRewardList(rewardsConfig.getConfigurationSection("default-rewards"));
+        List<Reward> defaultRewards = loadRewardList(rewardsConfig.getConfigurationSection("default-rewards"));
 
         // Load streak rewards
-        streakRewards = new HashMap<>();
+        Map<Integer, List<Reward>> streakRewards = new HashMap<>();
         ConfigurationSection streakSection = rewardsConfig.getConfigurationSection("streak-rewards");
         if (streakSection != null) {
             for (String key : streakSection.getKeys(false)) {
@@ -54,7 +50,7 @@ public class RewardManager {
         }
 
         // Load milestone rewards
-        milestoneRewards = new HashMap<>();
+        Map<Integer, List<Reward>> milestoneRewards = new HashMap<>();
         ConfigurationSection milestoneSection = rewardsConfig.getConfigurationSection("milestone-rewards");
         if (milestoneSection != null) {
             for (String key : milestoneSection.getKeys(false)) {
@@ -65,7 +61,7 @@ public class RewardManager {
         }
 
         // Load site-specific rewards
-        siteRewards = new HashMap<>();
+        Map<String, List<Reward>> siteRewards = new HashMap<>();
         ConfigurationSection siteSection = rewardsConfig.getConfigurationSection("site-rewards");
         if (siteSection != null) {
             for (String siteName : siteSection.getKeys(false)) {
@@ -75,10 +71,22 @@ public class RewardManager {
         }
 
         // Load VIP rewards
-        vipRewards = loadRewardList(rewardsConfig.getConfigurationSection("vip-rewards"));
+        List<Reward> vipRewards = loadRewardList(rewardsConfig.getConfigurationSection("vip-rewards"));
 
         // Load weekend rewards
-        weekendRewards = loadRewardList(rewardsConfig.getConfigurationSection("weekend-bonus.extra-rewards"));
+        List<Reward> weekendRewards = loadRewardList(
+                rewardsConfig.getConfigurationSection("weekend-bonus.extra-rewards"));
+        double weekendMultiplier = rewardsConfig.getDouble("weekend-bonus.multiplier", 1.5);
+
+        plan = new RewardPlan(defaultRewards, siteRewards, streakRewards, milestoneRewards, vipRewards,
+                weekendRewards, weekendMultiplier);
+    }
+
+    /**
+     * The rewards currently in effect
+     */
+    public RewardPlan getPlan() {
+        return plan;
     }
 
     private List<Reward> loadRewardList(ConfigurationSection section) {
@@ -95,7 +103,15 @@ public class RewardManager {
                 RewardData rewardData = createRewardData(type, rewardSection);
 
                 if (rewardData != null) {
-                    rewards.add(new Reward(rewardData.type, rewardData.value, chance, rewardData.properties));
+                    Reward reward = new Reward(rewardData.type, rewardData.value, chance, rewardData.properties);
+                    try {
+                        // Resolve items and effects once instead of on every grant
+                        reward.prepare();
+                        rewards.add(reward);
+                    } catch (IllegalArgumentException e) {
+                        plugin.getLogger().log(java.util.logging.Level.WARNING, "Skipping invalid reward {0}: {1}",
+                                new Object[] { key, e.getMessage() });
+                    }
                 }
             } else if (rewardSection != null && plugin.getLogger().isLoggable(java.util.logging.Level.WARNING)) {
                 plugin.getLogger().warning(String.format("Reward type is null for key: %s", key));
@@ -137,23 +153,19 @@ public class RewardManager {
         properties.put("material", rewardSection.getString("material"));
         properties.put("amount", rewardSection.getInt("amount", 1));
 
+        // Names and lore keep their & color codes until the item is built
         if (rewardSection.contains("name")) {
             String name = rewardSection.getString("name");
             if (name != null) {
-                properties.put("name",
-                        LegacyComponentSerializer.legacyAmpersand().serialize(
-                                LegacyComponentSerializer.legacyAmpersand().deserialize(name)));
+                properties.put("name", name);
             }
         }
 
         if (rewardSection.contains("lore")) {
-            List<String> lore = rewardSection.getStringList("lore");
-            lore.replaceAll(line -> LegacyComponentSerializer.legacyAmpersand().serialize(
-                    LegacyComponentSerializer.legacyAmpersand().deserialize(line)));
-            properties.put("lore", lore);
-            if (rewardSection.contains(ENCHANTMENTS_KEY)) {
-                properties.put(ENCHANTMENTS_KEY, rewardSection.getStringList(ENCHANTMENTS_KEY));
-            }
+            properties.put("lore", rewardSection.getStringList("lore"));
+        }
+
+        if (rewardSection.contains(ENCHANTMENTS_KEY)) {
             properties.put(ENCHANTMENTS_KEY, rewardSection.getStringList(ENCHANTMENTS_KEY));
         }
 
@@ -182,47 +194,46 @@ public class RewardManager {
     }
 
     public void giveVoteRewards(Player player, String siteName, PlayerVoteData playerData) {
+        RewardPlan current = plan;
         List<String> rewardMessages = new ArrayList<>();
 
         // Give default rewards
-        giveRewardList(player, defaultRewards, rewardMessages);
+        giveRewardList(player, current.getDefaultRewards(), rewardMessages);
 
         // Give site-specific rewards
-        if (siteRewards.containsKey(siteName)) {
-            giveRewardList(player, siteRewards.get(siteName), rewardMessages);
-        }
+        giveRewardList(player, current.getSiteRewards(siteName), rewardMessages);
 
         // Check for streak rewards
         int currentStreak = playerData.getCurrentStreak();
-        if (streakRewards.containsKey(currentStreak)) {
-            giveRewardList(player, streakRewards.get(currentStreak), rewardMessages);
-            String streakMessage = MessageUtils.getMessage("rewards.streak-bonus")
-                    .replace("%days%", String.valueOf(currentStreak));
+        List<Reward> streakRewards = current.getStreakRewards(currentStreak);
+        if (streakRewards != null) {
+            giveRewardList(player, streakRewards, rewardMessages);
+            String streakMessage = MessageUtils.getMessage("rewards.streak-bonus", "days", currentStreak);
             rewardMessages.add(streakMessage);
         }
 
         // Check for milestone rewards
         int totalVotes = playerData.getTotalVotes();
-        if (milestoneRewards.containsKey(totalVotes)) {
-            giveRewardList(player, milestoneRewards.get(totalVotes), rewardMessages);
-            String milestoneMessage = MessageUtils.getMessage("rewards.milestone-bonus")
-                    .replace("%votes%", String.valueOf(totalVotes));
+        List<Reward> milestoneRewards = current.getMilestoneRewards(totalVotes);
+        if (milestoneRewards != null) {
+            giveRewardList(player, milestoneRewards, rewardMessages);
+            String milestoneMessage = MessageUtils.getMessage("rewards.milestone-bonus", "votes", totalVotes);
             rewardMessages.add(milestoneMessage);
         }
 
         // Give VIP rewards if player has permission
-        if (player.hasPermission("votingmatters.vip") && vipRewards != null) {
-            giveRewardList(player, vipRewards, rewardMessages);
+        if (player.hasPermission("votingmatters.vip")) {
+            giveRewardList(player, current.getVipRewards(), rewardMessages);
             rewardMessages.add(MessageUtils.getMessage("rewards.vip-bonus"));
         }
 
         // Weekend bonus
-        if (isWeekend() && weekendRewards != null) {
-            giveRewardList(player, weekendRewards, rewardMessages);
+        if (isWeekend()) {
+            giveRewardList(player, current.getWeekendRewards(), rewardMessages);
             rewardMessages.add(MessageUtils.getMessage("rewards.weekend-bonus"));
 
             // Apply weekend multiplier to money rewards
-            applyWeekendMultiplier(player);
+            applyWeekendMultiplier(player, current);
         }
 
         // Send reward messages
@@ -235,16 +246,12 @@ public class RewardManager {
 
         // Broadcast vote if enabled
         if (plugin.getConfigManager().getConfig().getBoolean("notifications.broadcast-votes", true)) {
-            String broadcastMessage = MessageUtils.getMessage("detection.broadcast")
-                    .replace("%player%", player.getName());
-            Bukkit.getServer().broadcast(net.kyori.adventure.text.Component.text(broadcastMessage));
+            // Rendered once and shared by every recipient
+            Bukkit.getServer().broadcast(MessageUtils.getComponent("detection.broadcast", "player", player.getName()));
         }
     }
 
     private void giveRewardList(Player player, List<Reward> rewards, List<String> messages) {
-        if (rewards == null)
-            return;
-
         for (Reward reward : rewards) {
             if (!reward.shouldGive())
                 continue;
@@ -263,8 +270,7 @@ public class RewardManager {
         Economy economy = plugin.getEconomy();
         if (economy != null) {
             economy.depositPlayer(player, amount);
-            String message = MessageUtils.getMessage("rewards.money")
-                    .replace("%amount%", String.format("%.2f", amount));
+            String message = MessageUtils.getMessage("rewards.money", "amount", String.format("%.2f", amount));
             messages.add(message);
         }
     }
@@ -278,9 +284,8 @@ public class RewardManager {
             }
         }
 
-        String message = MessageUtils.getMessage("rewards.item")
-                .replace("%amount%", String.valueOf(item.getAmount()))
-                .replace("%item%", item.getType().name().toLowerCase().replace("_", " "));
+        String message = MessageUtils.getMessage("rewards.item", "amount", item.getAmount(),
+                "item", item.getType().name().toLowerCase().replace("_", " "));
         messages.add(message);
     }
 
@@ -294,15 +299,14 @@ public class RewardManager {
 
     private void giveExperience(Player player, int amount, List<String> messages) {
         player.giveExp(amount);
-        String message = MessageUtils.getMessage("rewards.experience")
-                .replace("%amount%", String.valueOf(amount));
+        String message = MessageUtils.getMessage("rewards.experience", "amount", amount);
         messages.add(message);
     }
 
     private void givePotionEffect(Player player, PotionEffect effect, List<String> messages) {
         player.addPotionEffect(effect);
-        String message = MessageUtils.getMessage("rewards.potion")
-                .replace("%effect%", effect.getType().getKey().getKey().toLowerCase().replace("_", " "));
+        String message = MessageUtils.getMessage("rewards.potion",
+                "effect", effect.getType().getKey().getKey().toLowerCase().replace("_", " "));
         messages.add(message);
     }
 
@@ -312,14 +316,14 @@ public class RewardManager {
         return dayOfWeek >= 5; // Friday (5), Saturday (6), Sunday (7)
     }
 
-    private void applyWeekendMultiplier(Player player) {
-        double multiplier = plugin.getConfigManager().getRewards().getDouble("weekend-bonus.multiplier", 1.5);
+    private void applyWeekendMultiplier(Player player, RewardPlan current) {
+        double multiplier = current.getWeekendMultiplier();
         if (multiplier > 1.0) {
             Economy economy = plugin.getEconomy();
             if (economy != null) {
                 // Calculate bonus amount based on default money rewards
                 double bonusAmount = 0;
-                for (Reward reward : defaultRewards) {
+                for (Reward reward : current.getDefaultRewards()) {
                     if (reward.getType() == Reward.RewardType.MONEY && reward.shouldGive()) {
                         bonusAmount += reward.getMoneyAmount() * (multiplier - 1.0);
                     }
@@ -1,15 +1,24 @@
 package cc.farlanders.votingmatters.managers;
 
-import java.sql.Timestamp;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
 import cc.farlanders.votingmatters.VotingMatters;
@@ -22,15 +31,34 @@ import cc.farlanders.votingmatters.database.DatabaseManager;
 import cc.farlanders.votingmatters.events.PlayerVoteEvent;
 import cc.farlanders.votingmatters.models.PlayerVoteData;
 import cc.farlanders.votingmatters.models.VoteRecord;
+import cc.farlanders.votingmatters.votifier.UsernameResolver;
+import cc.farlanders.votingmatters.votifier.VotifierKeys;
+import cc.farlanders.votingmatters.votifier.VotifierProtocol;
+import cc.farlanders.votingmatters.votifier.VotifierServer;
+import cc.farlanders.votingmatters.votifier.VotifierVote;
+import cc.farlanders.votingmatters.webhook.WebhookRoute;
+import cc.farlanders.votingmatters.webhook.WebhookServer;
+import cc.farlanders.votingmatters.webhook.WebhookVote;
 
 public class VoteManager {
 
+    // Minimum seconds between polls of one site
+    private static final long MIN_CHECK_INTERVAL = 10;
+
     private final VotingMatters plugin;
     private final Map<String, VoteAPI> voteAPIs;
+    // Sites with a poll in progress
+    private final Set<String> polling = ConcurrentHashMap.newKeySet();
+    private final UsernameResolver usernameResolver;
+    // Votifier service names (lower case) and the vote site each one counts as
+    private volatile Map<String, String> serviceSites = Map.of();
+    private VotifierServer votifier;
+    private WebhookServer webhook;
 
     public VoteManager(VotingMatters plugin) {
         this.plugin = plugin;
-        this.voteAPIs = new HashMap<>();
+        this.voteAPIs = new ConcurrentHashMap<>();
+        this.usernameResolver = new UsernameResolver(plugin);
         initializeAPIs();
     }
 
@@ -53,106 +81,262 @@ public class VoteManager {
         }
 
         plugin.getLogger().log(Level.INFO, "Initialized {0} voting site APIs", voteAPIs.size());
+
+        Map<String, String> sites = new HashMap<>();
+        ConfigurationSection siteSection = plugin.getConfig().getConfigurationSection("vote-sites");
+        if (siteSection != null) {
+            for (String siteName : siteSection.getKeys(false)) {
+                String serviceName = siteSection.getString(siteName + ".service-name");
+                if (serviceName != null && !serviceName.isEmpty()) {
+                    sites.put(serviceName.toLowerCase(Locale.ROOT), siteName);
+                }
+            }
+        }
+        serviceSites = Map.copyOf(sites);
     }
 
-    public CompletableFuture<Void> checkForVotes() {
-        return CompletableFuture.runAsync(() -> {
-            for (Map.Entry<String, VoteAPI> entry : voteAPIs.entrySet()) {
-                String siteName = entry.getKey();
-                VoteAPI api = entry.getValue();
+    /**
+     * Start the built-in Votifier listener if it is enabled
+     */
+    public void startVotifier() {
+        FileConfiguration config = plugin.getConfig();
+        if (!config.getBoolean("votifier.enabled", false)) {
+            return;
+        }
+
+        try {
+            KeyPair keys = VotifierKeys.loadOrCreate(new File(plugin.getDataFolder(), "rsa"));
+            String token = config.getString("votifier.token", "");
+            if (token == null || token.isEmpty()) {
+                token = VotifierKeys.newToken();
+                config.set("votifier.token", token);
+                plugin.saveConfig();
+                plugin.getLogger().info("Generated a Votifier token; it is saved as votifier.token in config.yml");
+            }
 
-                try {
-                    List<VoteRecord> newVotes = api.checkForNewVotes();
-                    for (VoteRecord vote : newVotes) {
-                        processVote(vote);
+            // Sites with their own token
+            Map<String, String> tokens = new HashMap<>();
+            ConfigurationSection siteSection = config.getConfigurationSection("vote-sites");
+            if (siteSection != null) {
+                for (String siteName : siteSection.getKeys(false)) {
+                    String serviceName = siteSection.getString(siteName + ".service-name");
+                    String siteToken = siteSection.getString(siteName + ".votifier-token");
+                    if (serviceName != null && siteToken != null && !siteToken.isEmpty()) {
+                        tokens.put(serviceName, siteToken);
                     }
-                } catch (Exception e) {
-                    plugin.getLogger().log(Level.WARNING, "Failed to check votes for {0}: {1}",
-                            new Object[] { siteName, e.getMessage() });
                 }
             }
-        });
+
+            InetSocketAddress address = new InetSocketAddress(config.getString("votifier.host", "0.0.0.0"),
+                    config.getInt("votifier.port", 8192));
+            votifier = new VotifierServer(address, new VotifierProtocol(keys.getPrivate(), tokens, token),
+                    config.getInt("votifier.max-connections", 2048), this::processVotifierVote, plugin.getLogger());
+            votifier.start();
+            plugin.getLogger().log(Level.INFO, "Votifier listener started on port {0}",
+                    String.valueOf(votifier.getPort()));
+        } catch (IOException | GeneralSecurityException e) {
+            votifier = null;
+            plugin.getLogger().log(Level.WARNING, "Failed to start the Votifier listener: {0}", e.getMessage());
+        }
     }
 
-    public CompletableFuture<Void> processVote(VoteRecord voteRecord) {
-        return CompletableFuture.runAsync(() -> {
-            // Store the vote record
-            DatabaseManager dbManager = plugin.getDatabaseManager();
-            dbManager.addVoteRecord(voteRecord);
-
-            // Get player data
-            dbManager.getPlayerData(voteRecord.getPlayerUuid())
-                    .thenAccept(existingPlayerData -> {
-                        PlayerVoteData playerData = existingPlayerData;
-                        if (playerData == null) {
-                            // Create new player data if doesn't exist
-                            Player player = Bukkit.getPlayer(voteRecord.getPlayerUuid());
-                            String username = player != null ? player.getName() : "Unknown";
-                            playerData = new PlayerVoteData(voteRecord.getPlayerUuid(), username);
-                        }
-
-                        // Update vote statistics
-                        updatePlayerVoteStats(playerData);
-
-                        // Save updated data
-                        dbManager.savePlayerData(playerData);
-
-                        // Fire vote event
-                        PlayerVoteEvent voteEvent = new PlayerVoteEvent(
-                                voteRecord.getPlayerUuid(),
-                                voteRecord.getSiteName(),
-                                playerData);
-
-                        final PlayerVoteData finalPlayerData = playerData;
-                        Bukkit.getScheduler().runTask(plugin, () -> {
-                            Bukkit.getPluginManager().callEvent(voteEvent);
-
-                            // Give rewards if player is online
-                            Player player = Bukkit.getPlayer(voteRecord.getPlayerUuid());
-                            if (player != null && player.isOnline()) {
-                                plugin.getRewardManager().giveVoteRewards(player, voteRecord.getSiteName(),
-                                        finalPlayerData);
-                            } else {
-                                // Store as offline vote
-                                finalPlayerData.addOfflineVote();
-                                dbManager.savePlayerData(finalPlayerData);
-                            }
-                        });
-                    });
+    public void stopVotifier() {
+        if (votifier != null) {
+            votifier.close();
+            votifier = null;
+        }
+    }
+
+    /**
+     * Record a vote received by the Votifier listener
+     */
+    public CompletableFuture<Void> processVotifierVote(VotifierVote vote) {
+        String serviceName = vote.serviceName();
+        String siteName = serviceSites.getOrDefault(serviceName.toLowerCase(Locale.ROOT), serviceName);
+        if (siteName.length() > 50) {
+            siteName = siteName.substring(0, 50);
+        }
+        String address = vote.address().length() > 45 ? vote.address().substring(0, 45) : vote.address();
+        String voteSite = siteName;
+
+        return usernameResolver.resolve(vote.username()).thenCompose(playerUuid -> {
+            if (playerUuid == null) {
+                plugin.getLogger().log(Level.WARNING, "Ignoring vote from {0} for unknown player {1}",
+                        new Object[] { serviceName, vote.username() });
+                return CompletableFuture.completedFuture(null);
+            }
+            return processVote(new VoteRecord(playerUuid, voteSite, address), vote.username());
+        }).exceptionally(throwable -> {
+            plugin.getLogger().log(Level.WARNING, "Failed to process vote from {0}: {1}",
+                    new Object[] { serviceName, throwable.getMessage() });
+            return null;
         });
     }
 
-    private void updatePlayerVoteStats(PlayerVoteData playerData) {
-        playerData.addVote();
-        playerData.setLastVoteTime(new Timestamp(System.currentTimeMillis()));
+    /**
+     * Start the webhook receiver if it is enabled. Only sites with a
+     * webhook-secret get a path, so unauthenticated callbacks are never accepted.
+     */
+    public void startWebhook() {
+        FileConfiguration config = plugin.getConfig();
+        if (!config.getBoolean("webhook.enabled", false)) {
+            return;
+        }
+
+        String basePath = config.getString("webhook.path", "/votes");
+        if (!basePath.startsWith("/")) {
+            basePath = "/" + basePath;
+        }
+        if (basePath.endsWith("/")) {
+            basePath = basePath.substring(0, basePath.length() - 1);
+        }
+
+        List<WebhookRoute> routes = new ArrayList<>();
+        ConfigurationSection siteSection = config.getConfigurationSection("vote-sites");
+        if (siteSection != null) {
+            for (String siteName : siteSection.getKeys(false)) {
+                String secret = siteSection.getString(siteName + ".webhook-secret");
+                if (secret != null && !secret.isEmpty()) {
+                    boolean signed = siteSection.getBoolean(siteName + ".webhook-signed", false);
+                    routes.add(new WebhookRoute(siteName, basePath + "/" + siteName, secret, signed));
+                }
+            }
+        }
+        if (routes.isEmpty()) {
+            plugin.getLogger().warning("The webhook receiver is enabled but no vote site has a webhook-secret");
+            return;
+        }
 
-        // Update streak
-        if (shouldIncrementStreak(playerData)) {
-            playerData.incrementStreak();
-        } else if (shouldResetStreak(playerData)) {
-            playerData.resetStreak();
-            playerData.incrementStreak(); // Start new streak
+        try {
+            InetSocketAddress address = new InetSocketAddress(config.getString("webhook.host", "0.0.0.0"),
+                    config.getInt("webhook.port", 8193));
+            webhook = new WebhookServer(address, routes, config.getInt("webhook.threads", 4),
+                    this::processWebhookVote, plugin.getLogger());
+            webhook.start();
+            plugin.getLogger().log(Level.INFO, "Webhook receiver started on port {0} for {1} sites",
+                    new Object[] { String.valueOf(webhook.getPort()), routes.size() });
+        } catch (IOException | IllegalArgumentException e) {
+            webhook = null;
+            plugin.getLogger().log(Level.WARNING, "Failed to start the webhook receiver: {0}", e.getMessage());
         }
     }
 
-    private boolean shouldIncrementStreak(PlayerVoteData playerData) {
-        if (playerData.getLastVoteTime() == null) {
-            return true; // First vote
+    public void stopWebhook() {
+        if (webhook != null) {
+            webhook.close();
+            webhook = null;
         }
+    }
 
-        long hoursSinceLastVote = (System.currentTimeMillis() - playerData.getLastVoteTime().getTime())
-                / (1000 * 60 * 60);
-        return hoursSinceLastVote >= 20 && hoursSinceLastVote <= 48; // 20-48 hours is valid for streak
+    /**
+     * Record a vote received by the webhook receiver
+     */
+    public CompletableFuture<Void> processWebhookVote(WebhookVote vote) {
+        String siteName = vote.siteName();
+        String address = vote.address().length() > 45 ? vote.address().substring(0, 45) : vote.address();
+        CompletableFuture<UUID> playerUuid = vote.playerUuid() != null
+                ? CompletableFuture.completedFuture(vote.playerUuid())
+                : usernameResolver.resolve(vote.username());
+
+        return playerUuid.thenCompose(uuid -> {
+            if (uuid == null) {
+                plugin.getLogger().log(Level.WARNING, "Ignoring vote from {0} for unknown player {1}",
+                        new Object[] { siteName, vote.username() });
+                return CompletableFuture.completedFuture(null);
+            }
+            String username = vote.username() != null ? vote.username() : "Unknown";
+            return processVote(new VoteRecord(uuid, siteName, address), username);
+        }).exceptionally(throwable -> {
+            plugin.getLogger().log(Level.WARNING, "Failed to process vote from {0}: {1}",
+                    new Object[] { siteName, throwable.getMessage() });
+            return null;
+        });
     }
 
-    private boolean shouldResetStreak(PlayerVoteData playerData) {
-        if (playerData.getLastVoteTime() == null) {
+    /**
+     * Poll one site for new votes on the calling thread and process them
+     *
+     * @return False if the site is not enabled or a poll of it is still running
+     */
+    public boolean pollSite(String siteName) {
+        VoteAPI api = voteAPIs.get(siteName);
+        if (api == null || !polling.add(siteName)) {
             return false;
         }
 
-        long hoursSinceLastVote = (System.currentTimeMillis() - playerData.getLastVoteTime().getTime())
-                / (1000 * 60 * 60);
-        return hoursSinceLastVote > 48; // More than 48 hours resets streak
+        try {
+            List<VoteRecord> newVotes = api.checkForNewVotes();
+            for (VoteRecord vote : newVotes) {
+                processVote(vote);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to check votes for {0}: {1}",
+                    new Object[] { siteName, e.getMessage() });
+        } finally {
+            polling.remove(siteName);
+        }
+        return true;
+    }
+
+    /**
+     * Seconds between polls of a site, falling back to vote-check.interval
+     */
+    public long getCheckInterval(String siteName) {
+        FileConfiguration config = plugin.getConfig();
+        long interval = config.getLong("vote-sites." + siteName + ".check-interval",
+                config.getLong("vote-check.interval", 300));
+        return Math.max(MIN_CHECK_INTERVAL, interval);
+    }
+
+    public CompletableFuture<Void> processVote(VoteRecord voteRecord) {
+        return processVote(voteRecord, "Unknown");
+    }
+
+    /**
+     * @param knownUsername The player's name if they are offline, e.g. as sent
+     *                      by the voting site
+     */
+    public CompletableFuture<Void> processVote(VoteRecord voteRecord, String knownUsername) {
+        Player player = Bukkit.getPlayer(voteRecord.getPlayerUuid());
+        String username = player != null ? player.getName() : knownUsername;
+
+        // Store the vote and update the player's statistics in one transaction.
+        // Votes of online players are stored as rewarded, so they cannot be
+        // claimed again.
+        return plugin.getDatabaseManager().recordVote(voteRecord, username, player == null)
+                .thenAccept(playerData -> {
+                    if (playerData != null) {
+                        plugin.getLeaderboardManager().recordVote(playerData, voteRecord);
+                        dispatchVote(voteRecord, playerData);
+                    }
+                });
+    }
+
+    private void dispatchVote(VoteRecord voteRecord, PlayerVoteData playerData) {
+        DatabaseManager dbManager = plugin.getDatabaseManager();
+
+        // Fire vote event
+        PlayerVoteEvent voteEvent = new PlayerVoteEvent(
+                voteRecord.getPlayerUuid(),
+                voteRecord.getSiteName(),
+                playerData);
+
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            Bukkit.getPluginManager().callEvent(voteEvent);
+
+            // Offline votes were counted with the vote and wait to be claimed
+            if (!voteRecord.isRewarded()) {
+                return;
+            }
+
+            Player player = Bukkit.getPlayer(voteRecord.getPlayerUuid());
+            if (player != null && player.isOnline()) {
+                plugin.getRewardManager().giveVoteRewards(player, voteRecord.getSiteName(), playerData);
+            } else {
+                // The player left since the vote was stored
+                dbManager.deferVoteReward(voteRecord);
+            }
+        });
     }
 
     public CompletableFuture<Boolean> hasVotedRecently(UUID playerUuid, String siteName) {
@@ -166,29 +350,33 @@ public class VoteManager {
     }
 
     public CompletableFuture<Void> processOfflineVotes(Player player) {
-        return CompletableFuture.runAsync(() -> plugin.getDatabaseManager().getUnrewardedVotes(player.getUniqueId())
-                .thenAccept(unrewardedVotes -> {
-                    if (!unrewardedVotes.isEmpty()) {
-                        // Get player data
-                        plugin.getDatabaseManager().getPlayerData(player.getUniqueId())
-                                .thenAccept(playerData -> {
+        DatabaseManager dbManager = plugin.getDatabaseManager();
+        UUID playerUuid = player.getUniqueId();
+        return dbManager.getUnrewardedVotes(playerUuid)
+                .thenCompose(unrewardedVotes -> {
+                    if (unrewardedVotes.isEmpty()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    // Claim the votes and clear them from the offline count in one transaction
+                    return dbManager.claimOfflineVotes(playerUuid, unrewardedVotes)
+                            .thenCompose(claimed -> {
+                                if (claimed.isEmpty()) {
+                                    return CompletableFuture.completedFuture(null);
+                                }
+                                return dbManager.getPlayerData(playerUuid).thenAccept(playerData -> {
                                     if (playerData != null) {
                                         Bukkit.getScheduler().runTask(plugin, () -> {
-                                            // Give rewards for each unrewarded vote
-                                            for (VoteRecord vote : unrewardedVotes) {
+                                            // Give rewards for each claimed vote
+                                            for (VoteRecord vote : claimed) {
                                                 plugin.getRewardManager().giveVoteRewards(player,
                                                         vote.getSiteName(), playerData);
-                                                plugin.getDatabaseManager().markVoteRewarded(vote.getId());
                                             }
-
-                                            // Clear offline votes
-                                            playerData.clearOfflineVotes();
-                                            plugin.getDatabaseManager().savePlayerData(playerData);
                                         });
                                     }
                                 });
-                    }
-                }));
+                            });
+                });
     }
 
     public Map<String, String> getVotingSites() {
@@ -0,0 +1,18 @@
+package cc.farlanders.votingmatters.models;
+
+import java.util.List;
+
+/**
+ * One page of the vote leaderboard
+ */
+public record LeaderboardPage(int page, int pageSize, List<PlayerVoteData> entries, int totalPlayers) {
+
+    // Leaderboard position of the first entry on this page
+    public int firstPosition() {
+        return (page - 1) * pageSize + 1;
+    }
+
+    public int maxPages() {
+        return Math.max(1, (int) Math.ceil((double) totalPlayers / pageSize));
+    }
+}
@@ -0,0 +1,70 @@
+package cc.farlanders.votingmatters.models;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Vote state of an online player, loaded at login and kept up to date by
+ * every write for that player while they are online
+ */
+public class PlayerSession {
+
+    private PlayerVoteData data;
+    private int unrewardedVotes;
+    private final Map<String, Timestamp> lastVoteTimes;
+
+    /**
+     * @param data          The player's data, or null if they have none yet
+     * @param lastVoteTimes Time of the player's latest vote on each site
+     */
+    public PlayerSession(PlayerVoteData data, int unrewardedVotes, Map<String, Timestamp> lastVoteTimes) {
+        this.data = data != null ? data.copy() : null;
+        this.unrewardedVotes = unrewardedVotes;
+        this.lastVoteTimes = new HashMap<>(lastVoteTimes);
+    }
+
+    // Copy of the player's data, or null if they have none yet
+    public synchronized PlayerVoteData getData() {
+        return data != null ? data.copy() : null;
+    }
+
+    public synchronized int getUnrewardedVotes() {
+        return unrewardedVotes;
+    }
+
+    public synchronized Timestamp getLastVoteTime(String siteName) {
+        return lastVoteTimes.get(siteName);
+    }
+
+    /**
+     * Whether the player voted on the site within the cooldown
+     */
+    public synchronized boolean hasVotedWithin(String siteName, long cooldownMillis) {
+        Timestamp lastVote = lastVoteTimes.get(siteName);
+        return lastVote != null && System.currentTimeMillis() - lastVote.getTime() < cooldownMillis;
+    }
+
+    public synchronized void setData(PlayerVoteData data) {
+        this.data = data.copy();
+    }
+
+    // Apply a stored vote and the player data it produced
+    public synchronized void recordVote(VoteRecord vote, PlayerVoteData updated) {
+        this.data = updated.copy();
+        lastVoteTimes.merge(vote.getSiteName(), vote.getVoteTime(),
+                (current, added) -> added.after(current) ? added : current);
+        if (!vote.isRewarded()) {
+            unrewardedVotes++;
+        }
+    }
+
+    public synchronized void voteRewarded() {
+        unrewardedVotes = Math.max(0, unrewardedVotes - 1);
+    }
+
+    // A vote stored as rewarded was left to be claimed later
+    public synchronized void voteDeferred() {
+        unrewardedVotes++;
+    }
+}
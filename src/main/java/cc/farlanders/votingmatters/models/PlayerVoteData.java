@@ -29,6 +29,11 @@ public class PlayerVoteData {
         this(uuid, username, 0, 0, 0, null, 0);
     }
 
+    // Copy the current state, e.g. to hand off to another thread
+    public PlayerVoteData copy() {
+        return new PlayerVoteData(uuid, username, totalVotes, currentStreak, bestStreak, lastVoteTime, offlineVotes);
+    }
+
     // Getters
     public UUID getUuid() {
         return uuid;
@@ -101,6 +106,30 @@ public class PlayerVoteData {
         this.offlineVotes = offlineVotes;
     }
 
+    /**
+     * Count a vote cast at the given time. The streak continues when the previous
+     * vote was 20 to 48 hours earlier, restarts after more than 48 hours, and is
+     * unchanged for another vote within 20 hours.
+     */
+    public void applyVote(Timestamp voteTime) {
+        if (lastVoteTime == null) {
+            incrementStreak(); // First vote
+        } else {
+            long hoursSinceLastVote = (voteTime.getTime() - lastVoteTime.getTime()) / (1000 * 60 * 60);
+            if (hoursSinceLastVote >= 20 && hoursSinceLastVote <= 48) {
+                incrementStreak();
+            } else if (hoursSinceLastVote > 48) {
+                resetStreak();
+                incrementStreak(); // Start new streak
+            }
+        }
+
+        addVote();
+        if (lastVoteTime == null || voteTime.after(lastVoteTime)) {
+            lastVoteTime = voteTime;
+        }
+    }
+
     public void addOfflineVote() {
         this.offlineVotes++;
     }
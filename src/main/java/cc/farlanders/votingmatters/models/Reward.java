@@ -1,16 +1,24 @@
 package cc.farlanders.votingmatters.models;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
 public class Reward {
 
     public enum RewardType {
@@ -25,6 +33,9 @@ public class Reward {
     private final Object value;
     private final int chance;
     private final Map<String, Object> properties;
+    // Resolved on prepare() or first use; copied for every grant
+    private volatile ItemStack itemTemplate;
+    private volatile PotionEffect potionEffect;
 
     public Reward(RewardType type, Object value, int chance, Map<String, Object> properties) {
         this.type = type;
@@ -76,11 +87,38 @@ public class Reward {
         return ((Number) value).intValue();
     }
 
+    /**
+     * Resolve the item or potion effect of this reward now, so granting it
+     * only copies the result. Rewards that are not prepared are resolved on
+     * first use.
+     *
+     * @throws IllegalArgumentException If the material, enchantment or effect
+     *                                  does not exist
+     */
+    public void prepare() {
+        switch (type) {
+            case ITEM -> itemTemplate = buildItemStack();
+            case POTION_EFFECT -> potionEffect = buildPotionEffect();
+            default -> {
+                // Nothing to resolve
+            }
+        }
+    }
+
     public ItemStack getItemStack() {
         if (type != RewardType.ITEM) {
             throw new IllegalStateException("Reward is not of type ITEM");
         }
 
+        ItemStack template = itemTemplate;
+        if (template == null) {
+            template = buildItemStack();
+            itemTemplate = template;
+        }
+        return template.clone();
+    }
+
+    private ItemStack buildItemStack() {
         ItemStack item = createBaseItem();
         ItemMeta meta = item.getItemMeta();
 
@@ -94,6 +132,9 @@ public class Reward {
 
     private ItemStack createBaseItem() {
         String materialName = (String) properties.get("material");
+        if (materialName == null) {
+            throw new IllegalArgumentException("Item reward has no material");
+        }
         Material material = Material.valueOf(materialName.toUpperCase());
         int amount = properties.containsKey("amount") ? ((Number) properties.get("amount")).intValue() : 1;
         return new ItemStack(material, amount);
@@ -106,31 +147,32 @@ public class Reward {
     }
 
     private void setDisplayName(ItemMeta meta) {
-        if (properties.containsKey("name")) {
-            Object nameObj = properties.get("name");
-            if (nameObj instanceof String string) {
-                safeSetDisplayName(meta, string);
-            } else if (nameObj != null) {
-                safeSetDisplayName(meta, String.valueOf(nameObj));
-            }
+        Object name = properties.get("name");
+        if (name != null) {
+            // Names use & color codes
+            meta.displayName(LegacyComponentSerializer.legacyAmpersand().deserialize(String.valueOf(name)));
         }
     }
 
     @SuppressWarnings("unchecked")
     private void setLore(ItemMeta meta) {
-        if (properties.containsKey("lore")) {
-            List<String> lore = (List<String>) properties.get("lore");
-            safeSetLore(meta, lore);
+        List<String> lore = (List<String>) properties.get("lore");
+        if (lore != null) {
+            List<Component> lines = new ArrayList<>(lore.size());
+            for (String line : lore) {
+                lines.add(LegacyComponentSerializer.legacyAmpersand().deserialize(line));
+            }
+            meta.lore(lines);
         }
     }
 
     @SuppressWarnings("unchecked")
     private void addEnchantments(ItemMeta meta) {
-        if (!properties.containsKey("enchantments")) {
+        List<String> enchantments = (List<String>) properties.get("enchantments");
+        if (enchantments == null) {
             return;
         }
 
-        List<String> enchantments = (List<String>) properties.get("enchantments");
         for (String enchantLine : enchantments) {
             addSingleEnchantment(meta, enchantLine);
         }
@@ -156,196 +198,75 @@ public class Reward {
     // --- Compatibility helpers ---
 
     /**
-     * Try to look up an enchantment by NamespacedKey when available, fall back to
-     * getByName.
+     * Legacy name lookups, resolved once. They are deprecated, so they are
+     * called through method handles and are null once the API drops them.
      */
-    private Enchantment lookupEnchantment(String name) {
-        if (name == null)
-            return null;
-        String key = name.toLowerCase();
-        try {
-            // Try Enchantment.getByKey(NamespacedKey.minecraft(key)) when available
-            Enchantment byKey = lookupEnchantmentByKey(key);
-            if (byKey != null) {
-                return byKey;
-            }
+    private static final class LegacyLookups {
+        private static final MethodHandle ENCHANTMENT_BY_NAME = findByName(Enchantment.class);
+        private static final MethodHandle EFFECT_BY_NAME = findByName(PotionEffectType.class);
 
-            // Fallback to legacy name lookup (use reflection to avoid direct deprecated
-            // call)
+        private static MethodHandle findByName(Class<?> owner) {
             try {
-                java.lang.reflect.Method getByName = Enchantment.class.getMethod("getByName", String.class);
-                Object res = getByName.invoke(null, name.toUpperCase());
-                if (res instanceof Enchantment enchantment)
-                    return enchantment;
-            } catch (ReflectiveOperationException ignored) {
-                // ignore
+                return MethodHandles.publicLookup().findStatic(owner, "getByName",
+                        MethodType.methodType(owner, String.class));
+            } catch (ReflectiveOperationException e) {
+                return null;
             }
-            return null;
-        } catch (ReflectiveOperationException e) {
-            return null;
         }
-    }
-
-    /**
-     * Attempt to lookup an Enchantment via NamespacedKey.minecraft(key) and
-     * Enchantment.getByKey,
-     * catching the same exceptions as the original nested try block and letting
-     * reflective
-     * invocation exceptions bubble up to the caller.
-     */
-    private Enchantment lookupEnchantmentByKey(String key) throws ReflectiveOperationException {
-        try {
-            java.lang.reflect.Method namespacedMinecraft = NamespacedKey.class.getMethod("minecraft", String.class);
-            Object nsKey = namespacedMinecraft.invoke(null, key);
-            java.lang.reflect.Method getByKey = Enchantment.class.getMethod("getByKey", NamespacedKey.class);
-            Object result = getByKey.invoke(null, nsKey);
-            if (result instanceof Enchantment enchantment)
-                return enchantment;
-        } catch (NoSuchMethodException | IllegalAccessException | IllegalArgumentException e) {
-            // ignore and fallback
-        }
-        return null;
-    }
-
-    /**
-     * Safely set display name using Adventure Component API when present, otherwise
-     * fall back to legacy String API.
-     */
-    private void safeSetDisplayName(ItemMeta meta, String name) {
-        if (name == null)
-            return;
-        try {
-            Class<?> componentClass = Class.forName("net.kyori.adventure.text.Component");
-            java.lang.reflect.Method textMethod = componentClass.getMethod("text", CharSequence.class);
-            Object component = textMethod.invoke(null, name);
 
-            if (trySetComponentDisplayName(meta, componentClass, component)) {
-                return;
+        private static Object invoke(MethodHandle handle, String name) {
+            if (handle == null) {
+                return null;
             }
-        } catch (ReflectiveOperationException ignored) {
-            // Adventure not available or reflective call failed, fall back below
-        }
-
-        // Legacy fallback via reflection to avoid direct deprecated reference
-        try {
-            java.lang.reflect.Method setDisplayNameLegacy = meta.getClass().getMethod("setDisplayName", String.class);
-            setDisplayNameLegacy.invoke(meta, name);
-        } catch (ReflectiveOperationException ignored) {
-            // nothing we can do
-        }
-    }
-
-    /**
-     * Attempt to set the display name using a Component parameter, trying known
-     * method names; return true if successful.
-     */
-    private boolean trySetComponentDisplayName(ItemMeta meta, Class<?> componentClass, Object component) {
-        try {
-            java.lang.reflect.Method setDisplayName = meta.getClass().getMethod("setDisplayName", componentClass);
-            setDisplayName.invoke(meta, component);
-            return true;
-        } catch (NoSuchMethodException ignored) {
-            // try alternate method name: displayName
             try {
-                java.lang.reflect.Method displayName = meta.getClass().getMethod("displayName", componentClass);
-                displayName.invoke(meta, component);
-                return true;
-            } catch (ReflectiveOperationException ignored2) {
-                // fallback to legacy
+                return handle.invoke(name);
+            } catch (Throwable ignored) {
+                return null;
             }
-        } catch (ReflectiveOperationException ignored) {
-            // invocation failed
         }
-        return false;
     }
 
-    /**
-     * Safely set lore using Adventure Component API when present, otherwise fall
-     * back to legacy String API.
-     */
-    private void safeSetLore(ItemMeta meta, List<String> lore) {
-        if (lore == null)
-            return;
-        try {
-            Class<?> componentClass = Class.forName("net.kyori.adventure.text.Component");
-            java.lang.reflect.Method textMethod = componentClass.getMethod("text", CharSequence.class);
-            java.util.List<Object> components = new java.util.ArrayList<>();
-            for (String line : lore) {
-                components.add(textMethod.invoke(null, line));
-            }
-
-            try {
-                java.lang.reflect.Method setLore = meta.getClass().getMethod("setLore", java.util.List.class);
-                // check parameter type: if it expects Component, pass component list
-                java.lang.reflect.Type[] params = setLore.getGenericParameterTypes();
-                if (params.length == 1) {
-                    setLore.invoke(meta, components);
-                    return;
-                }
-            } catch (NoSuchMethodException ignored) {
-                // fallback
-            }
-        } catch (ReflectiveOperationException ignored) {
-            // Adventure not available, fall back
-        }
-
-        // Legacy fallback via reflection to avoid direct deprecated reference
+    private static NamespacedKey minecraftKey(String name) {
         try {
-            java.lang.reflect.Method setLoreLegacy = meta.getClass().getMethod("setLore", java.util.List.class);
-            setLoreLegacy.invoke(meta, lore);
-        } catch (ReflectiveOperationException ignored) {
-            // nothing we can do
+            return NamespacedKey.minecraft(name.toLowerCase());
+        } catch (IllegalArgumentException e) {
+            // Not a valid key, e.g. a legacy name with spaces
+            return null;
         }
     }
 
     /**
-     * Lookup a PotionEffectType by name, attempting
-     * getByKey(NamespacedKey.minecraft(name)) first,
-     * then falling back to reflective getByName.
+     * Look up an enchantment by its key, falling back to its legacy name
      */
-    private PotionEffectType lookupPotionEffect(String name) {
+    private static Enchantment lookupEnchantment(String name) {
         if (name == null)
             return null;
-        String key = name.toLowerCase();
 
-        // Try lookup by key (may use NamespacedKey.minecraft)
-        PotionEffectType byKey = lookupPotionEffectByKey(key);
+        NamespacedKey key = minecraftKey(name);
+        Enchantment byKey = key != null ? Registry.ENCHANTMENT.get(key) : null;
         if (byKey != null) {
             return byKey;
         }
 
-        // Fallback to reflective getByName to avoid direct deprecated call
-        try {
-            java.lang.reflect.Method getByName = PotionEffectType.class.getMethod("getByName", String.class);
-            Object res = getByName.invoke(null, name);
-            if (res instanceof PotionEffectType potioneffecttype)
-                return potioneffecttype;
-        } catch (ReflectiveOperationException ignored) {
-            // ignore
-        }
-
-        return null;
+        Object byName = LegacyLookups.invoke(LegacyLookups.ENCHANTMENT_BY_NAME, name.toUpperCase());
+        return byName instanceof Enchantment enchantment ? enchantment : null;
     }
 
     /**
-     * Helper: attempt to resolve a PotionEffectType via
-     * NamespacedKey.minecraft(key) and PotionEffectType.getByKey,
-     * returning null if not available or reflection fails.
+     * Look up a potion effect type by its key, falling back to its legacy name
      */
-    private PotionEffectType lookupPotionEffectByKey(String key) {
-        if (key == null)
+    private static PotionEffectType lookupPotionEffect(String name) {
+        if (name == null)
             return null;
-        try {
-            java.lang.reflect.Method namespacedMinecraft = NamespacedKey.class.getMethod("minecraft", String.class);
-            Object nsKey = namespacedMinecraft.invoke(null, key);
-            java.lang.reflect.Method getByKey = PotionEffectType.class.getMethod("getByKey", NamespacedKey.class);
-            Object result = getByKey.invoke(null, nsKey);
-            if (result instanceof PotionEffectType potioneffecttype)
-                return potioneffecttype;
-        } catch (ReflectiveOperationException ignored) {
-            // ignore and fallback
+
+        NamespacedKey key = minecraftKey(name);
+        PotionEffectType byKey = key != null ? PotionEffectType.getByKey(key) : null;
+        if (byKey != null) {
+            return byKey;
         }
-        return null;
+
+        Object byName = LegacyLookups.invoke(LegacyLookups.EFFECT_BY_NAME, name);
+        return byName instanceof PotionEffectType potionEffectType ? potionEffectType : null;
     }
 
     public PotionEffect getPotionEffect() {
@@ -353,6 +274,16 @@ public class Reward {
             throw new IllegalStateException("Reward is not of type POTION_EFFECT");
         }
 
+        // Potion effects are immutable, so the resolved one is shared
+        PotionEffect effect = potionEffect;
+        if (effect == null) {
+            effect = buildPotionEffect();
+            potionEffect = effect;
+        }
+        return effect;
+    }
+
+    private PotionEffect buildPotionEffect() {
         String effectName = (String) properties.get("effect");
         int duration = properties.containsKey("duration") ? ((Number) properties.get("duration")).intValue() : 600; // 30
                                                                                                                     // seconds
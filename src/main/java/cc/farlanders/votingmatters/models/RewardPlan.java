@@ -0,0 +1,115 @@
+package cc.farlanders.votingmatters.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every configured reward, compiled into immutable lookup tables. Streak and
+ * milestone tiers are sorted int arrays searched without boxing.
+ */
+public final class RewardPlan {
+
+    private static final RewardPlan EMPTY = new RewardPlan(List.of(), Map.of(), Map.of(), Map.of(), List.of(),
+            List.of(), 1.0);
+
+    private final List<Reward> defaultRewards;
+    private final Map<String, List<Reward>> siteRewards;
+    private final int[] streakTiers;
+    private final List<List<Reward>> streakRewards;
+    private final int[] milestoneTiers;
+    private final List<List<Reward>> milestoneRewards;
+    private final List<Reward> vipRewards;
+    private final List<Reward> weekendRewards;
+    private final double weekendMultiplier;
+
+    /**
+     * @param siteRewards      Rewards per site name
+     * @param streakRewards    Rewards per exact streak length
+     * @param milestoneRewards Rewards per exact total vote count
+     */
+    public RewardPlan(List<Reward> defaultRewards, Map<String, List<Reward>> siteRewards,
+            Map<Integer, List<Reward>> streakRewards, Map<Integer, List<Reward>> milestoneRewards,
+            List<Reward> vipRewards, List<Reward> weekendRewards, double weekendMultiplier) {
+        this.defaultRewards = List.copyOf(defaultRewards);
+
+        Map<String, List<Reward>> bySite = new HashMap<>();
+        siteRewards.forEach((site, rewards) -> bySite.put(site, List.copyOf(rewards)));
+        this.siteRewards = Map.copyOf(bySite);
+
+        this.streakTiers = sortedTiers(streakRewards);
+        this.streakRewards = rewardsByTier(streakTiers, streakRewards);
+        this.milestoneTiers = sortedTiers(milestoneRewards);
+        this.milestoneRewards = rewardsByTier(milestoneTiers, milestoneRewards);
+        this.vipRewards = List.copyOf(vipRewards);
+        this.weekendRewards = List.copyOf(weekendRewards);
+        this.weekendMultiplier = weekendMultiplier;
+    }
+
+    /**
+     * A plan without rewards
+     */
+    public static RewardPlan empty() {
+        return EMPTY;
+    }
+
+    private static int[] sortedTiers(Map<Integer, List<Reward>> tiers) {
+        int[] sorted = tiers.keySet().stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static List<List<Reward>> rewardsByTier(int[] tiers, Map<Integer, List<Reward>> rewards) {
+        List<List<Reward>> byTier = new ArrayList<>(tiers.length);
+        for (int tier : tiers) {
+            byTier.add(List.copyOf(rewards.get(tier)));
+        }
+        return List.copyOf(byTier);
+    }
+
+    private static List<Reward> tierRewards(int[] tiers, List<List<Reward>> rewards, int value) {
+        int index = Arrays.binarySearch(tiers, value);
+        return index >= 0 ? rewards.get(index) : null;
+    }
+
+    public List<Reward> getDefaultRewards() {
+        return defaultRewards;
+    }
+
+    /**
+     * @return The site's rewards, or an empty list if it has none of its own
+     */
+    public List<Reward> getSiteRewards(String siteName) {
+        return siteName != null ? siteRewards.getOrDefault(siteName, List.of()) : List.of();
+    }
+
+    /**
+     * @return The rewards for reaching exactly this streak, or null if the
+     *         streak is not a reward tier
+     */
+    public List<Reward> getStreakRewards(int streak) {
+        return tierRewards(streakTiers, streakRewards, streak);
+    }
+
+    /**
+     * @return The rewards for reaching exactly this many votes, or null if the
+     *         count is not a milestone
+     */
+    public List<Reward> getMilestoneRewards(int totalVotes) {
+        return tierRewards(milestoneTiers, milestoneRewards, totalVotes);
+    }
+
+    public List<Reward> getVipRewards() {
+        return vipRewards;
+    }
+
+    public List<Reward> getWeekendRewards() {
+        return weekendRewards;
+    }
+
+    public double getWeekendMultiplier() {
+        return weekendMultiplier;
+    }
+}
@@ -5,7 +5,7 @@ import java.util.UUID;
 
 public class VoteRecord {
 
-    private final int id;
+    private int id;
     private final UUID playerUuid;
     private final String siteName;
     private final Timestamp voteTime;
@@ -53,6 +53,10 @@ public class VoteRecord {
     }
 
     // Setters
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public void setRewarded(boolean rewarded) {
         this.rewarded = rewarded;
     }
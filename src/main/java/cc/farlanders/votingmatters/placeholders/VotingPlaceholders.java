@@ -1,14 +1,29 @@
 package cc.farlanders.votingmatters.placeholders;
 
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.bukkit.entity.Player;
 
 import cc.farlanders.votingmatters.VotingMatters;
+import cc.farlanders.votingmatters.database.PlayerDataCache;
+import cc.farlanders.votingmatters.leaderboard.RollingLeaderboard;
+import cc.farlanders.votingmatters.managers.LeaderboardManager;
 import cc.farlanders.votingmatters.models.PlayerVoteData;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 
 public class VotingPlaceholders extends PlaceholderExpansion {
 
+    private static final Pattern TOP_PATTERN = Pattern.compile("top_([a-z]+)_(\\d{1,3})(_votes)?");
+    private static final int MAX_TOP_POSITION = 100;
+
     private final VotingMatters plugin;
+    // Players whose data is being loaded, so repeated requests start one load
+    private final Set<UUID> loading = ConcurrentHashMap.newKeySet();
 
     public VotingPlaceholders(VotingMatters plugin) {
         this.plugin = plugin;
@@ -39,7 +54,27 @@ public class VotingPlaceholders extends PlaceholderExpansion {
         if (player == null)
             return "";
 
-        PlayerVoteData data = plugin.getDatabaseManager().getPlayerData(player.getUniqueId()).join();
+        if (params.equalsIgnoreCase("rank")) {
+            return String.valueOf(plugin.getLeaderboardManager().getRank(player.getUniqueId()));
+        }
+        String leaderboard = onLeaderboardRequest(player, params.toLowerCase());
+        if (leaderboard != null) {
+            return leaderboard;
+        }
+
+        // Placeholders are requested on the server thread many times per tick, so
+        // only answer from memory and load misses in the background
+        PlayerDataCache.Hit hit = plugin.getDatabaseManager().getCachedPlayerData(player.getUniqueId());
+        if (hit == null) {
+            UUID playerUuid = player.getUniqueId();
+            if (loading.add(playerUuid)) {
+                plugin.getDatabaseManager().getPlayerData(playerUuid)
+                        .whenComplete((data, throwable) -> loading.remove(playerUuid));
+            }
+            return plugin.getConfigManager().getConfig().getString("integrations.placeholder-loading", "...");
+        }
+
+        PlayerVoteData data = hit.data();
         if (data == null)
             return "0";
 
@@ -55,4 +90,36 @@ public class VotingPlaceholders extends PlaceholderExpansion {
             default -> null;
         };
     }
+
+    /**
+     * Answer the rolling window placeholders: {@code votes_<window>} for the
+     * player's own votes, {@code top_<window>_<n>} and
+     * {@code top_<window>_<n>_votes} for the player at a position
+     *
+     * @return The value, or null if the placeholder is not a window placeholder
+     */
+    private String onLeaderboardRequest(Player player, String params) {
+        LeaderboardManager leaderboard = plugin.getLeaderboardManager();
+        if (params.startsWith("votes_")) {
+            RollingLeaderboard.Window window = RollingLeaderboard.Window.parse(params.substring(6));
+            return window != null ? String.valueOf(leaderboard.getWindowVotes(window, player.getUniqueId())) : null;
+        }
+
+        Matcher matcher = TOP_PATTERN.matcher(params);
+        if (!matcher.matches()) {
+            return null;
+        }
+        RollingLeaderboard.Window window = RollingLeaderboard.Window.parse(matcher.group(1));
+        int position = Integer.parseInt(matcher.group(2));
+        if (window == null || position < 1 || position > MAX_TOP_POSITION) {
+            return null;
+        }
+
+        List<RollingLeaderboard.Entry> top = leaderboard.getWindowTop(window, position);
+        if (top.size() < position) {
+            return matcher.group(3) != null ? "0" : "";
+        }
+        RollingLeaderboard.Entry entry = top.get(position - 1);
+        return matcher.group(3) != null ? String.valueOf(entry.votes()) : leaderboard.getUsername(entry.playerUuid());
+    }
 }
@@ -0,0 +1,25 @@
+package cc.farlanders.votingmatters.tasks;
+
+import java.util.logging.Level;
+
+import org.bukkit.scheduler.BukkitRunnable;
+
+import cc.farlanders.votingmatters.VotingMatters;
+
+public class LeaderboardRefreshTask extends BukkitRunnable {
+
+    private final VotingMatters plugin;
+
+    public LeaderboardRefreshTask(VotingMatters plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        try {
+            plugin.getLeaderboardManager().refreshSnapshot().join();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Error refreshing the leaderboard: {0}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package cc.farlanders.votingmatters.tasks;
+
+import java.util.logging.Level;
+
+import org.bukkit.scheduler.BukkitRunnable;
+
+import cc.farlanders.votingmatters.VotingMatters;
+
+public class VoteCompactionTask extends BukkitRunnable {
+
+    private final VotingMatters plugin;
+
+    public VoteCompactionTask(VotingMatters plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        if (!plugin.getConfigManager().getConfig().getBoolean("database.compaction.enabled", false)) {
+            return;
+        }
+
+        try {
+            int compacted = plugin.getDatabaseManager().compactVoteRecords().join();
+            if (compacted > 0) {
+                plugin.getLogger().log(Level.INFO, "Compacted {0} old vote records into daily rollups", compacted);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning(String.format("Error during vote compaction: %s", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cc.farlanders.votingmatters.tasks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import cc.farlanders.votingmatters.VotingMatters;
+import cc.farlanders.votingmatters.managers.VoteManager;
+
+/**
+ * Runs every second and starts a poll of each vote site that is due, each on
+ * its own async task so a slow site never delays the others. Sites are polled
+ * on their own check-interval with up to 10% jitter so they do not all fire
+ * together, and a site whose previous poll is still running skips that cycle.
+ */
+public class VotePollTask extends BukkitRunnable {
+
+    private final VotingMatters plugin;
+    // When each site is next due, in System.nanoTime() terms
+    private final Map<String, Long> nextPoll = new ConcurrentHashMap<>();
+
+    public VotePollTask(VotingMatters plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        if (!plugin.getConfigManager().getConfig().getBoolean("vote-check.enabled", true)) {
+            return;
+        }
+
+        VoteManager voteManager = plugin.getVoteManager();
+        long now = System.nanoTime();
+        nextPoll.keySet().retainAll(voteManager.getEnabledSites());
+        for (String siteName : voteManager.getEnabledSites()) {
+            Long due = nextPoll.get(siteName);
+            if (due != null && now - due < 0) {
+                continue;
+            }
+
+            long interval = TimeUnit.SECONDS.toNanos(voteManager.getCheckInterval(siteName));
+            if (due == null) {
+                // Spread the first polls over the first interval
+                nextPoll.put(siteName, now + ThreadLocalRandom.current().nextLong(interval / 10 + 1));
+                continue;
+            }
+            nextPoll.put(siteName, now + interval + ThreadLocalRandom.current().nextLong(interval / 10 + 1));
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                if (!voteManager.pollSite(siteName)) {
+                    plugin.getLogger().fine(() -> "Skipped polling " + siteName + "; the last poll is still running");
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package cc.farlanders.votingmatters.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+/**
+ * A message compiled once into the literal text between its %placeholder%
+ * slots, so rendering it is a single pass over the pieces. Colors must be
+ * translated before compiling; values filled into slots are used as given.
+ */
+public final class MessageTemplate {
+
+    private final String text;
+    // literals[i] comes before placeholders[i]; the last literal ends the message
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+    private volatile Component component;
+
+    private MessageTemplate(String text, String[] literals, String[] placeholders) {
+        this.text = text;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile a message. Placeholders are names of letters, digits and
+     * underscores between percent signs; any other percent sign is literal.
+     */
+    public static MessageTemplate compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '%' ? placeholderEnd(text, i + 1) : -1;
+            if (end < 0) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            placeholders.add(text.substring(i + 1, end));
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(text, literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    // Index of the '%' closing a placeholder name starting at start, or -1
+    private static int placeholderEnd(String text, int start) {
+        int i = start;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '%') {
+                return i > start ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return -1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * The message with its placeholders unfilled
+     */
+    public String getText() {
+        return text;
+    }
+
+    public List<String> getPlaceholders() {
+        return List.of(placeholders);
+    }
+
+    /**
+     * Fill in the placeholders. Placeholders without a value are left as they
+     * are.
+     *
+     * @param replacements Placeholder names without percent signs, each
+     *                     followed by its value
+     */
+    public String render(Object... replacements) {
+        if (replacements.length % 2 != 0) {
+            throw new IllegalArgumentException("Placeholder names and values must come in pairs");
+        }
+        if (placeholders.length == 0) {
+            return text;
+        }
+
+        String[] values = new String[placeholders.length];
+        int length = literalLength;
+        for (int slot = 0; slot < placeholders.length; slot++) {
+            String value = valueOf(placeholders[slot], replacements);
+            values[slot] = value != null ? value : "%" + placeholders[slot] + "%";
+            length += values[slot].length();
+        }
+
+        StringBuilder message = new StringBuilder(length);
+        for (int slot = 0; slot < placeholders.length; slot++) {
+            message.append(literals[slot]).append(values[slot]);
+        }
+        return message.append(literals[placeholders.length]).toString();
+    }
+
+    private static String valueOf(String placeholder, Object[] replacements) {
+        for (int i = 0; i < replacements.length; i += 2) {
+            if (placeholder.equals(replacements[i])) {
+                return String.valueOf(replacements[i + 1]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fill in the placeholders and convert the legacy colored text to a
+     * component. Messages without placeholders are converted only once.
+     */
+    public Component renderComponent(Object... replacements) {
+        if (placeholders.length == 0) {
+            Component cached = component;
+            if (cached == null) {
+                cached = LegacyComponentSerializer.legacySection().deserialize(text);
+                component = cached;
+            }
+            return cached;
+        }
+        return LegacyComponentSerializer.legacySection().deserialize(render(replacements));
+    }
+}
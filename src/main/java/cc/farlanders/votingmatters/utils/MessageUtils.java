@@ -1,6 +1,10 @@
 package cc.farlanders.votingmatters.utils;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.bukkit.ChatColor;
+import org.bukkit.configuration.file.FileConfiguration;
 
 import cc.farlanders.votingmatters.VotingMatters;
 
@@ -9,7 +13,12 @@ import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 
 public class MessageUtils {
 
+    private static final String DEFAULT_PREFIX = "&8[&6VotingMatters&8] ";
+
     private static VotingMatters plugin;
+    // Messages compiled with colors translated and the prefix applied
+    private static volatile Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+    private static volatile String prefix;
 
     // Private constructor to prevent instantiation
     private MessageUtils() {
@@ -18,24 +27,85 @@ public class MessageUtils {
 
     public static void initialize(VotingMatters pluginInstance) {
         plugin = pluginInstance;
+        compileMessages();
     }
 
-    public static String getMessage(String key) {
+    /**
+     * Compile every message in messages.yml. Called at startup and after the
+     * messages are reloaded; messages in use stay valid until the swap.
+     */
+    public static void compileMessages() {
         if (plugin == null) {
-            return "Plugin not initialized";
+            return;
         }
 
-        String message = plugin.getConfigManager().getMessages().getString(key);
-        if (message == null) {
-            return "Message not found: " + key;
+        FileConfiguration messages = plugin.getConfigManager().getMessages();
+        String compiledPrefix = translateColors(messages.getString("prefix", DEFAULT_PREFIX));
+        Map<String, MessageTemplate> compiled = new ConcurrentHashMap<>();
+        for (String key : messages.getKeys(true)) {
+            if (messages.isString(key)) {
+                compiled.put(key, compile(key, messages.getString(key), compiledPrefix));
+            }
         }
+        prefix = compiledPrefix;
+        templates = compiled;
+    }
 
+    private static MessageTemplate compile(String key, String message, String compiledPrefix) {
+        String translated = translateColors(message);
         // Add prefix if not already present
-        if (!message.startsWith(getPrefix()) && !key.equals("prefix")) {
-            message = getPrefix() + message;
+        if (!key.equals("prefix") && !translated.startsWith(compiledPrefix)) {
+            translated = compiledPrefix + translated;
         }
+        return MessageTemplate.compile(translated);
+    }
 
-        return translateColors(message);
+    /**
+     * Get the compiled template of a message
+     *
+     * @return The template, or null if the message does not exist
+     */
+    public static MessageTemplate getTemplate(String key) {
+        if (plugin == null || key == null) {
+            return null;
+        }
+
+        Map<String, MessageTemplate> current = templates;
+        MessageTemplate template = current.get(key);
+        if (template == null) {
+            // Messages added since the last compile, e.g. defaults set at runtime
+            String message = plugin.getConfigManager().getMessages().getString(key);
+            if (message == null) {
+                return null;
+            }
+            template = compile(key, message, getPrefix());
+            current.put(key, template);
+        }
+        return template;
+    }
+
+    public static String getMessage(String key) {
+        if (plugin == null) {
+            return "Plugin not initialized";
+        }
+
+        MessageTemplate template = getTemplate(key);
+        return template != null ? template.getText() : "Message not found: " + key;
+    }
+
+    /**
+     * Get a message with its placeholders filled in
+     *
+     * @param replacements Placeholder names without percent signs, each
+     *                     followed by its value
+     */
+    public static String getMessage(String key, Object... replacements) {
+        if (plugin == null) {
+            return "Plugin not initialized";
+        }
+
+        MessageTemplate template = getTemplate(key);
+        return template != null ? template.render(replacements) : "Message not found: " + key;
     }
 
     public static String getPrefix() {
@@ -43,8 +113,11 @@ public class MessageUtils {
             return "[VotingMatters] ";
         }
 
-        String prefix = plugin.getConfigManager().getMessages().getString("prefix", "&8[&6VotingMatters&8] ");
-        return translateColors(prefix);
+        String compiledPrefix = prefix;
+        if (compiledPrefix == null) {
+            compiledPrefix = translateColors(plugin.getConfigManager().getMessages().getString("prefix", DEFAULT_PREFIX));
+        }
+        return compiledPrefix;
     }
 
     public static String translateColors(String message) {
@@ -58,8 +131,19 @@ public class MessageUtils {
     }
 
     public static Component getComponent(String key) {
-        String message = getMessage(key);
-        return LegacyComponentSerializer.legacyAmpersand().deserialize(message);
+        MessageTemplate template = getTemplate(key);
+        return template != null ? template.renderComponent()
+                : LegacyComponentSerializer.legacySection().deserialize(getMessage(key));
+    }
+
+    /**
+     * Get a message as a component with its placeholders filled in. Render it
+     * once and send the same component to every recipient.
+     */
+    public static Component getComponent(String key, Object... replacements) {
+        MessageTemplate template = getTemplate(key);
+        return template != null ? template.renderComponent(replacements)
+                : LegacyComponentSerializer.legacySection().deserialize(getMessage(key));
     }
 
     public static String formatTime(long milliseconds) {
@@ -0,0 +1,77 @@
+package cc.farlanders.votingmatters.votifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+
+import cc.farlanders.votingmatters.VotingMatters;
+
+/**
+ * Turns the player names voting sites send into UUIDs: online players first,
+ * then players this plugin has stored, then the server's own name cache
+ */
+public class UsernameResolver {
+
+    private static final Pattern VALID_NAME = Pattern.compile("\\w{1,16}");
+    private static final int MAX_CACHED = 10000;
+
+    private final VotingMatters plugin;
+    private final Map<String, UUID> resolved = new ConcurrentHashMap<>();
+
+    public UsernameResolver(VotingMatters plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * @return The player's UUID, or null if no such player is known
+     */
+    public CompletableFuture<UUID> resolve(String username) {
+        if (username == null || !VALID_NAME.matcher(username).matches()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Player online = Bukkit.getPlayerExact(username);
+        if (online != null) {
+            return CompletableFuture.completedFuture(remember(username, online.getUniqueId()));
+        }
+
+        String key = username.toLowerCase(Locale.ROOT);
+        UUID cached = resolved.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return plugin.getDatabaseManager().findPlayerUuid(username).thenApply(stored -> {
+            if (stored != null) {
+                return remember(username, stored);
+            }
+
+            OfflinePlayer known = Bukkit.getOfflinePlayerIfCached(username);
+            if (known != null) {
+                return remember(username, known.getUniqueId());
+            }
+            if (!Bukkit.getOnlineMode()) {
+                // Offline mode UUIDs are derived from the name
+                return remember(username,
+                        UUID.nameUUIDFromBytes(("OfflinePlayer:" + username).getBytes(StandardCharsets.UTF_8)));
+            }
+            return null;
+        });
+    }
+
+    private UUID remember(String username, UUID uuid) {
+        if (resolved.size() >= MAX_CACHED) {
+            resolved.clear();
+        }
+        resolved.put(username.toLowerCase(Locale.ROOT), uuid);
+        return uuid;
+    }
+}
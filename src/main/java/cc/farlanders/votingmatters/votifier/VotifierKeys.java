@@ -0,0 +1,95 @@
+package cc.farlanders.votingmatters.votifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Key material for the Votifier listener, stored the way Votifier stores it
+ * (Base64 of the X.509 public key and PKCS#8 private key) so existing keys can
+ * be copied over and sites that already have the public key keep working
+ */
+public final class VotifierKeys {
+
+    private static final String PUBLIC_KEY_FILE = "public.key";
+    private static final String PRIVATE_KEY_FILE = "private.key";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private VotifierKeys() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Load the RSA key pair from a directory, creating it if it does not exist
+     */
+    public static KeyPair loadOrCreate(File directory) throws IOException, GeneralSecurityException {
+        File publicFile = new File(directory, PUBLIC_KEY_FILE);
+        File privateFile = new File(directory, PRIVATE_KEY_FILE);
+        KeyFactory factory = KeyFactory.getInstance("RSA");
+
+        if (publicFile.isFile() && privateFile.isFile()) {
+            PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(read(publicFile)));
+            PrivateKey privateKey = factory.generatePrivate(new PKCS8EncodedKeySpec(read(privateFile)));
+            return new KeyPair(publicKey, privateKey);
+        }
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(VotifierProtocol.V1_BLOCK_SIZE * 8, RANDOM);
+        KeyPair keyPair = generator.generateKeyPair();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        write(publicFile, keyPair.getPublic().getEncoded());
+        write(privateFile, keyPair.getPrivate().getEncoded());
+        return keyPair;
+    }
+
+    /**
+     * The public key in the form voting sites ask for
+     */
+    public static String encode(PublicKey publicKey) {
+        return Base64.getEncoder().encodeToString(publicKey.getEncoded());
+    }
+
+    /**
+     * A random token for version 2 senders
+     */
+    public static String newToken() {
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * A random challenge for one connection
+     */
+    static String newChallenge() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] read(File file) throws IOException {
+        String encoded = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        try {
+            return Base64.getMimeDecoder().decode(encoded.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file.getName() + " is not a Base64 key", e);
+        }
+    }
+
+    private static void write(File file, byte[] key) throws IOException {
+        Files.writeString(file.toPath(), Base64.getEncoder().encodeToString(key), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,191 @@
+package cc.farlanders.votingmatters.votifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Decodes Votifier messages. Version 1 votes are a single RSA block encrypted
+ * with the server's public key; version 2 votes are a JSON payload signed with
+ * an HMAC-SHA256 token shared with the site and bound to the connection's
+ * challenge. Keys are prepared once and each thread keeps its own initialized
+ * {@link Cipher} and {@link Mac}, so decoding a vote allocates no crypto state.
+ */
+public class VotifierProtocol {
+
+    /** Size of a version 1 vote: one block of a 2048-bit RSA key */
+    public static final int V1_BLOCK_SIZE = 256;
+    /** First two bytes of a version 2 message */
+    public static final short V2_MAGIC = 0x733A;
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final PrivateKey privateKey;
+    private final Map<String, SecretKeySpec> tokens;
+    private final SecretKeySpec defaultToken;
+    private final ThreadLocal<Cipher> ciphers;
+    private final ThreadLocal<Mac> macs;
+    // Each thread's Mac remembers which token it was last initialized with
+    private final ThreadLocal<SecretKeySpec> macKeys = new ThreadLocal<>();
+
+    /**
+     * @param privateKey   The key version 1 votes are decrypted with, or null to
+     *                     reject them
+     * @param tokens       Version 2 tokens by service name
+     * @param defaultToken Token for services without their own, or null
+     */
+    public VotifierProtocol(PrivateKey privateKey, Map<String, String> tokens, String defaultToken) {
+        this.privateKey = privateKey;
+        Map<String, SecretKeySpec> keys = new ConcurrentHashMap<>();
+        tokens.forEach((service, token) -> keys.put(service, tokenKey(token)));
+        this.tokens = keys;
+        this.defaultToken = defaultToken != null && !defaultToken.isEmpty() ? tokenKey(defaultToken) : null;
+        this.ciphers = ThreadLocal.withInitial(() -> {
+            try {
+                Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+                cipher.init(Cipher.DECRYPT_MODE, privateKey);
+                return cipher;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("RSA is not available", e);
+            }
+        });
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                return Mac.getInstance(HMAC);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    private static SecretKeySpec tokenKey(String token) {
+        return new SecretKeySpec(token.getBytes(StandardCharsets.UTF_8), HMAC);
+    }
+
+    /**
+     * The line sent to a client when it connects
+     */
+    public static String greeting(String challenge) {
+        return "VOTIFIER 2 " + challenge + "\n";
+    }
+
+    /**
+     * The reply to a version 2 message
+     *
+     * @param error Why the vote was rejected, or null if it was accepted
+     */
+    public static String response(String error) {
+        if (error == null) {
+            return "{\"status\":\"ok\"}\r\n";
+        }
+        JsonObject response = new JsonObject();
+        response.addProperty("status", "error");
+        response.addProperty("cause", "VoteRejected");
+        response.addProperty("error", error);
+        return response + "\r\n";
+    }
+
+    /**
+     * Decrypt a version 1 vote
+     *
+     * @param block Exactly {@link #V1_BLOCK_SIZE} bytes
+     */
+    public VotifierVote decodeV1(byte[] block) throws IOException {
+        if (privateKey == null) {
+            throw new IOException("Version 1 votes are disabled");
+        }
+
+        String message;
+        try {
+            message = new String(ciphers.get().doFinal(block), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not decrypt vote; check the site has this server's public key", e);
+        }
+
+        String[] lines = message.split("\n", -1);
+        if (lines.length < 5 || !lines[0].equals("VOTE")) {
+            throw new IOException("Malformed version 1 vote");
+        }
+        return new VotifierVote(lines[1].trim(), lines[2].trim(), lines[3].trim(), lines[4].trim());
+    }
+
+    /**
+     * Verify and read a version 2 vote
+     *
+     * @param message   The JSON message following the magic and length
+     * @param challenge The challenge sent to this connection
+     */
+    public VotifierVote decodeV2(byte[] message, String challenge) throws IOException {
+        JsonObject envelope = parseObject(new String(message, StandardCharsets.UTF_8));
+        String payloadText = string(envelope, "payload");
+        JsonObject payload = parseObject(payloadText);
+
+        String serviceName = string(payload, "serviceName");
+        SecretKeySpec token = tokens.getOrDefault(serviceName, defaultToken);
+        if (token == null) {
+            throw new IOException("Unknown service " + serviceName);
+        }
+
+        byte[] signature;
+        try {
+            signature = Base64.getDecoder().decode(string(envelope, "signature"));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed signature");
+        }
+        byte[] expected = sign(token, payloadText.getBytes(StandardCharsets.UTF_8));
+        if (!MessageDigest.isEqual(expected, signature)) {
+            throw new IOException("Signature is not valid; check the token for " + serviceName);
+        }
+        if (!challenge.equals(string(payload, "challenge"))) {
+            throw new IOException("Challenge is not valid");
+        }
+
+        return new VotifierVote(serviceName, string(payload, "username"), string(payload, "address"),
+                string(payload, "timestamp"));
+    }
+
+    private byte[] sign(SecretKeySpec token, byte[] payload) throws IOException {
+        Mac mac = macs.get();
+        try {
+            if (macKeys.get() != token) {
+                mac.init(token);
+                macKeys.set(token);
+            }
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            macKeys.remove();
+            throw new IOException("Could not verify signature", e);
+        }
+    }
+
+    private static JsonObject parseObject(String json) throws IOException {
+        try {
+            JsonElement element = JsonParser.parseString(json);
+            if (element.isJsonObject()) {
+                return element.getAsJsonObject();
+            }
+        } catch (JsonParseException e) {
+            // Reported below
+        }
+        throw new IOException("Malformed version 2 vote");
+    }
+
+    private static String string(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : "";
+    }
+}
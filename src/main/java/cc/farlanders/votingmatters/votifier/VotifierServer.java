@@ -0,0 +1,326 @@
+package cc.farlanders.votingmatters.votifier;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking Votifier listener. One selector thread accepts connections and
+ * moves their bytes; complete messages are decrypted and verified on a small
+ * worker pool, so slow or idle clients never hold a thread and a burst of
+ * connections only costs a few hundred bytes each.
+ */
+public class VotifierServer implements Closeable {
+
+    // Clients must send their vote within this time of connecting
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final InetSocketAddress address;
+    private final VotifierProtocol protocol;
+    private final int maxConnections;
+    private final Consumer<VotifierVote> handler;
+    private final Logger logger;
+    // Connections whose message was handled, waiting for the selector thread
+    private final Queue<Connection> completed = new ConcurrentLinkedQueue<>();
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ThreadPoolExecutor workers;
+    private Thread thread;
+    private volatile boolean running;
+    // Selector thread only
+    private int connections;
+    private long lastExpiry;
+
+    /**
+     * @param maxConnections Connections handled at once; more are closed as
+     *                       soon as they are accepted
+     * @param handler        Receives each accepted vote on a worker thread
+     */
+    public VotifierServer(InetSocketAddress address, VotifierProtocol protocol, int maxConnections,
+            Consumer<VotifierVote> handler, Logger logger) {
+        this.address = address;
+        this.protocol = protocol;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.handler = handler;
+        this.logger = logger;
+    }
+
+    public synchronized void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(address, maxConnections);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger workerId = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxConnections), runnable -> {
+                    Thread worker = new Thread(runnable, "VotingMatters Votifier Worker " + workerId.incrementAndGet());
+                    worker.setDaemon(true);
+                    return worker;
+                });
+
+        running = true;
+        thread = new Thread(this::run, "VotingMatters Votifier");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * The port the listener is bound to
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        Thread selectorThread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            selectorThread = thread;
+        }
+
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select(1000);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                drainCompleted();
+                expireIdle();
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) {
+                    logger.log(Level.WARNING, "Votifier listener error: {0}", e.getMessage());
+                }
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key.channel());
+        }
+        closeQuietly(serverChannel);
+        closeQuietly(selector);
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isWritable()) {
+                connection.write();
+            } else if (key.isReadable()) {
+                connection.read();
+            }
+        } catch (IOException e) {
+            close(connection);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            if (connections >= maxConnections) {
+                closeQuietly(channel);
+                continue;
+            }
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Connection connection = new Connection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_WRITE, connection);
+                connections++;
+            } catch (IOException e) {
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private void drainCompleted() {
+        Connection connection;
+        while ((connection = completed.poll()) != null) {
+            if (!connection.key.isValid()) {
+                continue;
+            }
+            if (connection.out == null) {
+                close(connection);
+            } else {
+                connection.closeAfterWrite = true;
+                connection.key.interestOps(SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private void expireIdle() {
+        long now = System.currentTimeMillis();
+        if (now - lastExpiry < 1000) {
+            return;
+        }
+        lastExpiry = now;
+
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection connection && now > connection.deadline) {
+                close(connection);
+            }
+        }
+    }
+
+    private void close(Connection connection) {
+        if (!connection.channel.isOpen()) {
+            return;
+        }
+        connection.key.cancel();
+        closeQuietly(connection.channel);
+        connections--;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Nothing left to do with it
+        }
+    }
+
+    private void process(Connection connection, byte[] message, boolean v2) {
+        String error = null;
+        try {
+            VotifierVote vote = v2 ? protocol.decodeV2(message, connection.challenge) : protocol.decodeV1(message);
+            handler.accept(vote);
+        } catch (IOException e) {
+            error = e.getMessage();
+            logger.log(Level.WARNING, "Rejected Votifier vote from {0}: {1}", new Object[] { connection.remote, error });
+        } catch (RuntimeException e) {
+            error = "Internal error";
+            logger.log(Level.WARNING, "Failed to handle Votifier vote from {0}: {1}",
+                    new Object[] { connection.remote, e.getMessage() });
+        }
+
+        // Version 1 clients do not read a reply
+        connection.out = v2 ? ByteBuffer.wrap(VotifierProtocol.response(error).getBytes(StandardCharsets.UTF_8))
+                : null;
+        completed.add(connection);
+        selector.wakeup();
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final String remote;
+        private final String challenge = VotifierKeys.newChallenge();
+        private final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        private SelectionKey key;
+        // Greeting first, then the version 2 reply; handed over through the queue
+        private ByteBuffer out;
+        private ByteBuffer in = ByteBuffer.allocate(VotifierProtocol.V1_BLOCK_SIZE);
+        private boolean closeAfterWrite;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.remote = String.valueOf(channel.socket().getRemoteSocketAddress());
+            this.out = ByteBuffer.wrap(VotifierProtocol.greeting(challenge).getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void write() throws IOException {
+            channel.write(out);
+            if (out.hasRemaining()) {
+                return;
+            }
+            if (closeAfterWrite) {
+                close(this);
+            } else {
+                out = null;
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void read() throws IOException {
+            if (channel.read(in) < 0) {
+                close(this);
+                return;
+            }
+
+            int read = in.position();
+            if (read >= 2 && in.getShort(0) == VotifierProtocol.V2_MAGIC) {
+                if (read < 4) {
+                    return;
+                }
+                int length = 4 + Short.toUnsignedInt(in.getShort(2));
+                if (in.capacity() < length) {
+                    // Version 2 messages say how long they are; size the buffer once
+                    ByteBuffer larger = ByteBuffer.allocate(length);
+                    in.flip();
+                    larger.put(in);
+                    in = larger;
+                    return;
+                }
+                if (read < length) {
+                    return;
+                }
+                byte[] message = new byte[length - 4];
+                in.get(4, message);
+                submit(message, true);
+            } else if (read >= VotifierProtocol.V1_BLOCK_SIZE) {
+                submit(in.array(), false);
+            }
+        }
+
+        private void submit(byte[] message, boolean v2) {
+            key.interestOps(0);
+            in = null;
+            try {
+                workers.execute(() -> process(this, message, v2));
+            } catch (RejectedExecutionException e) {
+                close(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package cc.farlanders.votingmatters.votifier;
+
+/**
+ * A vote as sent by a voting site over the Votifier protocol
+ *
+ * @param serviceName The voting site's name for itself
+ * @param address     The voter's IP address as reported by the site
+ * @param timestamp   The site's vote time; its format is up to the site
+ */
+public record VotifierVote(String serviceName, String username, String address, String timestamp) {
+}
@@ -0,0 +1,13 @@
+package cc.farlanders.votingmatters.webhook;
+
+/**
+ * A path vote callbacks for one site are posted to
+ *
+ * @param siteName The vote site the callbacks count for
+ * @param secret   The secret shared with the site
+ * @param signed   Whether the site signs an X-Timestamp and the body with the
+ *                 secret (HMAC-SHA256 in an X-Signature header) instead of
+ *                 sending the secret itself
+ */
+public record WebhookRoute(String siteName, String path, String secret, boolean signed) {
+}
@@ -0,0 +1,328 @@
+package cc.farlanders.votingmatters.webhook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Receives vote callbacks that sites POST to this server. Each site has its own
+ * path and secret; bodies may be JSON or form encoded and name the player by
+ * username, UUID or both. Requests run on a bounded pool, and when it is busy
+ * the accepting thread handles the request itself, which slows down accepting
+ * instead of queueing without limit.
+ */
+public class WebhookServer implements Closeable {
+
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final String SIGNATURE_HEADER = "X-Signature";
+    private static final String TIMESTAMP_HEADER = "X-Timestamp";
+    // How far a signed timestamp may be from our clock; signatures are remembered this long to catch replays
+    private static final long MAX_SKEW_SECONDS = 300;
+
+    private final InetSocketAddress address;
+    private final Map<String, WebhookRoute> routes = new HashMap<>();
+    private final int threads;
+    private final Consumer<WebhookVote> handler;
+    private final Logger logger;
+    // Signatures already accepted, kept until their timestamp can no longer pass as fresh
+    private final Map<String, Long> seenSignatures = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ThreadPoolExecutor executor;
+
+    /**
+     * @param handler Receives each accepted vote on a request thread
+     */
+    public WebhookServer(InetSocketAddress address, List<WebhookRoute> routes, int threads,
+            Consumer<WebhookVote> handler, Logger logger) {
+        this.address = address;
+        for (WebhookRoute route : routes) {
+            this.routes.put(route.path(), route);
+        }
+        this.threads = Math.max(1, threads);
+        this.handler = handler;
+        this.logger = logger;
+    }
+
+    public synchronized void start() throws IOException {
+        server = HttpServer.create(address, 0);
+        AtomicInteger threadId = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 64), runnable -> {
+                    Thread thread = new Thread(runnable, "VotingMatters Webhook " + threadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * The port the server is bound to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            WebhookRoute route = routes.get(exchange.getRequestURI().getPath());
+            if (route == null) {
+                respond(exchange, 404, "Unknown path");
+                return;
+            }
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Votes must be POSTed");
+                return;
+            }
+
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413, "Body is too large");
+                return;
+            }
+            if (!authorized(exchange, route, body)) {
+                logger.log(Level.WARNING,
+                        "Rejected vote callback for {0} from {1}: bad secret, signature or timestamp",
+                        new Object[] { route.siteName(), exchange.getRemoteAddress() });
+                respond(exchange, 401, "Bad secret, signature or timestamp");
+                return;
+            }
+
+            WebhookVote vote = parseVote(route.siteName(), contentType(exchange), body,
+                    exchange.getRemoteAddress().getAddress().getHostAddress());
+            if (vote == null) {
+                respond(exchange, 400, "Body must name the player by username or uuid");
+                return;
+            }
+
+            try {
+                handler.accept(vote);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to handle vote callback for {0}: {1}",
+                        new Object[] { route.siteName(), e.getMessage() });
+                respond(exchange, 500, "Internal error");
+                return;
+            }
+            respond(exchange, 200, null);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+
+    private static String contentType(HttpExchange exchange) {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        return contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Check the request carries the route's secret: for signed routes as an
+     * HMAC-SHA256 signature of a recent timestamp and the body that has not been
+     * seen before, otherwise as a bearer token. The secret is never accepted in
+     * the query string, where it would end up in access logs.
+     */
+    boolean authorized(HttpExchange exchange, WebhookRoute route, byte[] body) {
+        if (route.signed()) {
+            String signature = exchange.getRequestHeaders().getFirst(SIGNATURE_HEADER);
+            String timestamp = exchange.getRequestHeaders().getFirst(TIMESTAMP_HEADER);
+            long now = System.currentTimeMillis() / 1000;
+            return signature != null && timestamp != null && isFresh(timestamp, now)
+                    && signatureMatches(route.secret(), timestamp, body, signature)
+                    && firstUse(route, signature, now);
+        }
+
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        return authorization != null && authorization.startsWith("Bearer ")
+                && secretMatches(route.secret(), authorization.substring("Bearer ".length()).trim());
+    }
+
+    private static boolean isFresh(String timestamp, long now) {
+        try {
+            return Math.abs(now - Long.parseLong(timestamp.trim())) <= MAX_SKEW_SECONDS;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Remember a valid signature until its timestamp goes stale, rejecting it if
+     * it was already used
+     */
+    private boolean firstUse(WebhookRoute route, String signature, long now) {
+        seenSignatures.values().removeIf(expiresAt -> expiresAt < now);
+        String key = route.path() + " " + signature.trim().toLowerCase(Locale.ROOT);
+        return seenSignatures.putIfAbsent(key, now + 2 * MAX_SKEW_SECONDS) == null;
+    }
+
+    /**
+     * @param timestamp Epoch seconds from the X-Timestamp header, signed
+     *                  together with the body as "timestamp.body"
+     * @param signature Hex HMAC-SHA256 of the signed payload, optionally
+     *                  prefixed with "sha256="
+     */
+    static boolean signatureMatches(String secret, String timestamp, byte[] body, String signature) {
+        String hex = signature.startsWith("sha256=") ? signature.substring("sha256=".length()) : signature;
+        byte[] given;
+        try {
+            given = HexFormat.of().parseHex(hex.trim());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            mac.update((timestamp.trim() + ".").getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(mac.doFinal(body), given);
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static boolean secretMatches(String expected, String given) {
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), given.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read the player out of a callback body
+     *
+     * @param remoteAddress Used when the body has no voter address
+     * @return The vote, or null if the body does not name a player
+     */
+    static WebhookVote parseVote(String siteName, String contentType, byte[] body, String remoteAddress) {
+        String text = new String(body, StandardCharsets.UTF_8);
+        Map<String, String> fields;
+        if (contentType.contains("json") || (!contentType.contains("form") && text.trim().startsWith("{"))) {
+            fields = parseJson(text);
+        } else {
+            fields = parseForm(text);
+        }
+        if (fields == null) {
+            return null;
+        }
+
+        String username = first(fields, "username", "player", "name", "user");
+        UUID playerUuid = parseUuid(first(fields, "uuid", "player_uuid", "playerUuid"));
+        if (username == null && playerUuid == null) {
+            return null;
+        }
+        String address = first(fields, "address", "ip", "userip");
+        return new WebhookVote(siteName, username, playerUuid, address != null ? address : remoteAddress);
+    }
+
+    private static Map<String, String> parseJson(String text) {
+        JsonElement element;
+        try {
+            element = JsonParser.parseString(text);
+        } catch (JsonParseException e) {
+            return null;
+        }
+        if (!element.isJsonObject()) {
+            return null;
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, JsonElement> field : ((JsonObject) element).entrySet()) {
+            if (field.getValue().isJsonPrimitive()) {
+                fields.put(field.getKey(), field.getValue().getAsString());
+            }
+        }
+        return fields;
+    }
+
+    private static Map<String, String> parseForm(String text) {
+        Map<String, String> fields = new HashMap<>();
+        for (String pair : text.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                fields.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return fields;
+    }
+
+    private static String first(Map<String, String> fields, String... names) {
+        for (String name : names) {
+            String value = fields.get(name);
+            if (value != null && !value.isBlank()) {
+                return value.trim();
+            }
+        }
+        return null;
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null) {
+            return null;
+        }
+        String dashed = value.length() == 32
+                ? value.replaceFirst("(\\p{XDigit}{8})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{12})",
+                        "$1-$2-$3-$4-$5")
+                : value;
+        try {
+            return UUID.fromString(dashed);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String error) throws IOException {
+        JsonObject response = new JsonObject();
+        response.addProperty("status", error == null ? "ok" : "error");
+        if (error != null) {
+            response.addProperty("error", error);
+        }
+        byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package cc.farlanders.votingmatters.webhook;
+
+import java.util.UUID;
+
+/**
+ * A vote callback received from a site
+ *
+ * @param playerUuid The voter's UUID if the site sent one, otherwise null
+ * @param address    The voter's IP address if the site sent one, otherwise the
+ *                   address the callback came from
+ */
+public record WebhookVote(String siteName, String username, UUID playerUuid, String address) {
+}
@@ -0,0 +1,98 @@
+package cc.farlanders.votingmatters.api;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+@DisplayName("VoteHttpClient Tests")
+class VoteHttpClientTest {
+
+    private HttpServer server;
+    private VoteHttpClient client;
+    // Remote port of each request, which identifies the connection it came on
+    private final List<Integer> ports = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/votes", exchange -> respond(exchange, 200, "{\"voters\":[]}"));
+        server.createContext("/missing", exchange -> respond(exchange, 404, "not found"));
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "late");
+        });
+        server.start();
+        client = new VoteHttpClient("VotingMatters/test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        ports.add(exchange.getRemoteAddress().getPort());
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    @Test
+    @DisplayName("Should return the body and reuse the pooled connection")
+    void testGetReusesConnection() throws Exception {
+        Duration timeout = Duration.ofSeconds(5);
+        assertEquals("{\"voters\":[]}", client.get(url("/votes"), timeout).get(5, TimeUnit.SECONDS));
+
+        String streamed = client.get(url("/votes"), timeout, body -> new BufferedReader(body).readLine())
+                .get(5, TimeUnit.SECONDS);
+        assertEquals("{\"voters\":[]}", streamed);
+        assertEquals(2, ports.size());
+        assertEquals(ports.get(0), ports.get(1), "Both requests should use the same connection");
+    }
+
+    @Test
+    @DisplayName("Should fail with the status of unsuccessful responses")
+    void testHttpError() {
+        ExecutionException thrown = assertThrows(ExecutionException.class,
+                () -> client.get(url("/missing"), Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, thrown.getCause());
+        assertEquals("HTTP 404", thrown.getCause().getMessage());
+    }
+
+    @Test
+    @DisplayName("Should fail calls that exceed the site's timeout")
+    void testTimeout() {
+        ExecutionException thrown = assertThrows(ExecutionException.class,
+                () -> client.get(url("/slow"), Duration.ofMillis(300)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, thrown.getCause());
+    }
+}
@@ -0,0 +1,106 @@
+package cc.farlanders.votingmatters.api.impl;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cc.farlanders.votingmatters.models.VoteRecord;
+
+@DisplayName("BaseVoteAPI Voter Parsing Tests")
+class BaseVoteAPITest {
+
+    private static VoteCursor read(String json, VoteCursor cursor, boolean newestFirst, List<VoteRecord> votes)
+            throws IOException {
+        return BaseVoteAPI.readVoters(new StringReader(json), "voters", "example", cursor, newestFirst, votes::add);
+    }
+
+    @Test
+    @DisplayName("Should read every valid voter when nothing has been seen")
+    void testReadAll() throws IOException {
+        String json = """
+                {"status":"ok","meta":{"page":1,"tags":["a","b"]},"voters":[
+                  {"username":"Steve","timestamp":1700000200,"address":"203.0.113.7","extra":[1,2]},
+                  {"nickname":"Alex","timestamp":"1700000100000"},
+                  {"username":"NoTime"},
+                  {"username":"BadTime","timestamp":"yesterday"},
+                  "not a voter",
+                  {"username":null,"name":"Notch","date":1700000000}
+                ]}""";
+        List<VoteRecord> votes = new ArrayList<>();
+        VoteCursor cursor = read(json, VoteCursor.NONE, true, votes);
+
+        assertEquals(3, votes.size());
+        assertEquals("example", votes.get(0).getSiteName());
+        assertEquals("203.0.113.7", votes.get(0).getIpAddress());
+        assertEquals(1700000200000L, votes.get(0).getVoteTime().getTime());
+        assertFalse(votes.get(0).isRewarded());
+        assertEquals(1700000100000L, votes.get(1).getVoteTime().getTime(), "Milliseconds should be read as such");
+        assertNull(votes.get(1).getIpAddress());
+        assertEquals(new VoteCursor(1700000200, Set.of("steve")), cursor);
+    }
+
+    @Test
+    @DisplayName("Should stop reading at the first vote older than the cursor")
+    void testStopsEarly() throws IOException {
+        // Anything after the old vote would fail to parse if it were read
+        String json = "{\"voters\":[{\"username\":\"Alex\",\"timestamp\":300},"
+                + "{\"username\":\"Steve\",\"timestamp\":100}, this is never read";
+        List<VoteRecord> votes = new ArrayList<>();
+        VoteCursor cursor = read(json, new VoteCursor(200, Set.of()), true, votes);
+
+        assertEquals(1, votes.size());
+        assertEquals(300000L, votes.get(0).getVoteTime().getTime());
+        assertEquals(new VoteCursor(300, Set.of("alex")), cursor);
+    }
+
+    @Test
+    @DisplayName("Should only take names not yet seen in the cursor's second")
+    void testSameSecond() throws IOException {
+        String json = "[{\"username\":\"Steve\",\"timestamp\":200},{\"username\":\"Alex\",\"timestamp\":200},"
+                + "{\"username\":\"Herobrine\",\"timestamp\":100}]";
+
+        List<VoteRecord> votes = new ArrayList<>();
+        VoteCursor cursor = read(json, new VoteCursor(200, Set.of("steve")), true, votes);
+        assertEquals(1, votes.size(), "Only Alex is new");
+        assertEquals(new VoteCursor(200, Set.of("steve", "alex")), cursor);
+
+        // After a restart the names are unknown, so that second counts as seen
+        List<VoteRecord> afterRestart = new ArrayList<>();
+        VoteCursor restored = new VoteCursor(200, null);
+        assertEquals(restored, read(json, restored, true, afterRestart));
+        assertTrue(afterRestart.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should read the whole list when sites do not list newest first")
+    void testUnordered() throws IOException {
+        String json = "{\"voters\":[{\"username\":\"Steve\",\"timestamp\":100},"
+                + "{\"username\":\"Alex\",\"timestamp\":300},{\"username\":\"Notch\",\"timestamp\":250}]}";
+        List<VoteRecord> votes = new ArrayList<>();
+        VoteCursor cursor = read(json, new VoteCursor(200, Set.of()), false, votes);
+
+        assertEquals(2, votes.size());
+        assertEquals(new VoteCursor(300, Set.of("alex")), cursor);
+    }
+
+    @Test
+    @DisplayName("Should reject responses without a voter list and find voters by name")
+    void testMissingListAndLookup() throws IOException {
+        assertThrows(IOException.class, () -> read("{\"error\":\"Invalid key\"}", VoteCursor.NONE, true,
+                new ArrayList<>()));
+
+        String json = "{\"voters\":[{\"username\":\"Steve\",\"timestamp\":100}]}";
+        assertTrue(BaseVoteAPI.listsVoter(new StringReader(json), "voters", "steve"));
+        assertFalse(BaseVoteAPI.listsVoter(new StringReader(json), "voters", "Alex"));
+    }
+}
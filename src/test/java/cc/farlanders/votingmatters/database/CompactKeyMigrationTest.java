@@ -0,0 +1,217 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CompactKeyMigration Tests")
+class CompactKeyMigrationTest {
+
+    private static final Logger LOGGER = Logger.getLogger("CompactKeyMigrationTest");
+
+    private ConnectionPool pool;
+    private final KeyCodec compact = KeyCodec.compact();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // H2 in MySQL mode runs the MySQL flavour of the real schema
+        ConnectionPool.Settings settings = new ConnectionPool.Settings(1, 0, 1000, 60000, 1, 8);
+        pool = new ConnectionPool(() -> DriverManager.getConnection(
+                "jdbc:h2:mem:compactmigration;MODE=MySQL;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1"), settings, LOGGER);
+        try (PooledConnection connection = pool.borrow()) {
+            new SchemaMigrator("mysql", LOGGER).migrate(connection);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (PooledConnection connection = pool.borrow()) {
+            connection.createStatement().execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+
+    private static void insertPlayer(PooledConnection connection, UUID uuid, int totalVotes) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO player_vote_data (uuid, username, total_votes) VALUES (?, ?, ?)");
+        stmt.setString(1, uuid.toString());
+        stmt.setString(2, "Player");
+        stmt.setInt(3, totalVotes);
+        stmt.executeUpdate();
+    }
+
+    private static void insertVote(PooledConnection connection, UUID uuid, boolean rewarded) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO vote_records (player_uuid, site_name, rewarded) VALUES (?, ?, ?)");
+        stmt.setString(1, uuid.toString());
+        stmt.setString(2, "example");
+        stmt.setBoolean(3, rewarded);
+        stmt.executeUpdate();
+    }
+
+    private static void copyAll(PooledConnection connection, CompactKeyMigration migration) throws SQLException {
+        while (migration.copyNextChunk(connection)) {
+            // Copy until nothing is left
+        }
+    }
+
+    private static int count(PooledConnection connection, String table) throws SQLException {
+        try (ResultSet rs = connection.createStatement().executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static String setting(PooledConnection connection, String name) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement("SELECT value FROM schema_settings WHERE name = ?");
+        stmt.setString(1, name);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    private int totalVotes(PooledConnection connection, UUID uuid) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(
+                "SELECT total_votes FROM player_vote_data_compact WHERE uuid = ?");
+        compact.setUuid(stmt, 1, uuid);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
+    private String site(PooledConnection connection, long voteId) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement("SELECT site_id FROM vote_records_compact WHERE id = ?");
+        stmt.setLong(1, voteId);
+        try (ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return compact.getSite(connection, rs, "site_id");
+        }
+    }
+
+    private boolean isRewarded(PooledConnection connection, long voteId) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement("SELECT rewarded FROM vote_records_compact WHERE id = ?");
+        stmt.setLong(1, voteId);
+        try (ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+
+    private int offlineVotes(PooledConnection connection, UUID uuid) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(
+                "SELECT offline_votes FROM player_vote_data_compact WHERE uuid = ?");
+        compact.setUuid(stmt, 1, uuid);
+        try (ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should carry over a reward deferred after its vote was copied")
+    void testDeferredDuringMigration() throws SQLException {
+        UUID player = UUID.randomUUID();
+        try (PooledConnection connection = pool.borrow()) {
+            insertPlayer(connection, player, 1);
+            insertVote(connection, player, true);
+
+            CompactKeyMigration migration = new CompactKeyMigration(compact, LOGGER, 1);
+            migration.start(connection);
+            copyAll(connection, migration);
+            assertTrue(isRewarded(connection, 1));
+
+            // The player left before the vote was paid, as deferVoteReward does
+            connection.createStatement().executeUpdate("UPDATE vote_records SET rewarded = FALSE WHERE id = 1");
+            connection.createStatement().executeUpdate(
+                    "UPDATE player_vote_data SET offline_votes = 1, updated_at = CURRENT_TIMESTAMP");
+
+            migration.finish(connection);
+            assertFalse(isRewarded(connection, 1), "The deferred vote should be claimable after the switch");
+            assertEquals(1, offlineVotes(connection, player));
+            assertEquals(KeyCodec.FORMAT_COMPACT, CompactKeyMigration.readFormat(connection));
+        }
+    }
+
+    @Test
+    @DisplayName("Should copy players, votes and rollups to the compact tables")
+    void testCopy() throws SQLException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        try (PooledConnection connection = pool.borrow()) {
+            insertPlayer(connection, first, 2);
+            insertPlayer(connection, second, 1);
+            insertVote(connection, first, true);
+            insertVote(connection, first, false);
+            insertVote(connection, second, true);
+            PreparedStatement rollup = connection.prepareStatement(
+                    "INSERT INTO vote_rollups (player_uuid, site_name, vote_day, vote_count) VALUES (?, ?, ?, ?)");
+            rollup.setString(1, first.toString());
+            rollup.setString(2, "example");
+            rollup.setLong(3, 100);
+            rollup.setInt(4, 7);
+            rollup.executeUpdate();
+
+            CompactKeyMigration migration = new CompactKeyMigration(compact, LOGGER, 1);
+            migration.start(connection);
+            assertEquals(CompactKeyMigration.FORMAT_MIGRATING, CompactKeyMigration.readFormat(connection));
+            copyAll(connection, migration);
+            migration.finish(connection);
+
+            assertEquals(KeyCodec.FORMAT_COMPACT, CompactKeyMigration.readFormat(connection));
+            assertEquals(2, count(connection, "player_vote_data_compact"));
+            assertEquals(2, totalVotes(connection, first));
+            assertEquals(1, totalVotes(connection, second));
+            assertEquals(3, count(connection, "vote_records_compact"), "Every vote should be copied");
+            assertTrue(isRewarded(connection, 1));
+            assertFalse(isRewarded(connection, 2), "Unrewarded votes should stay claimable");
+            assertEquals("example", site(connection, 3), "Sites should map back to their names");
+            assertEquals(1, count(connection, "vote_rollups_compact"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should resume an interrupted copy where it left off")
+    void testResume() throws SQLException {
+        UUID[] players = new UUID[3];
+        try (PooledConnection connection = pool.borrow()) {
+            for (int i = 0; i < players.length; i++) {
+                players[i] = UUID.randomUUID();
+                insertPlayer(connection, players[i], 1);
+                insertVote(connection, players[i], true);
+            }
+
+            CompactKeyMigration interrupted = new CompactKeyMigration(compact, LOGGER, 1);
+            interrupted.start(connection);
+            assertTrue(interrupted.copyNextChunk(connection));
+            assertTrue(interrupted.copyNextChunk(connection));
+            String cursor = setting(connection, "compact-player-cursor");
+            assertEquals(2, count(connection, "player_vote_data_compact"));
+
+            // After a restart the migration picks up from the stored cursor instead of starting over
+            CompactKeyMigration resumed = new CompactKeyMigration(compact, LOGGER, 1);
+            resumed.start(connection);
+            assertEquals(cursor, setting(connection, "compact-player-cursor"), "Resuming should keep the cursor");
+            copyAll(connection, resumed);
+            resumed.finish(connection);
+
+            assertEquals(KeyCodec.FORMAT_COMPACT, CompactKeyMigration.readFormat(connection));
+            assertEquals(3, count(connection, "player_vote_data_compact"));
+            for (UUID player : players) {
+                assertEquals(1, totalVotes(connection, player));
+            }
+            assertEquals(3, count(connection, "vote_records_compact"));
+            assertEquals("3", setting(connection, "compact-vote-cursor"));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ConnectionPool Tests")
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        ConnectionPool.Settings settings = new ConnectionPool.Settings(2, 1, 200, 60000, 1, 8);
+        pool = new ConnectionPool(() -> DriverManager.getConnection("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1"),
+                settings, Logger.getLogger("ConnectionPoolTest"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Should track active and idle connections")
+    void testBorrowAndRelease() throws SQLException {
+        assertEquals(1, pool.getStats().idle(), "Pool should warm up min-idle connections");
+
+        try (PooledConnection connection = pool.borrow()) {
+            assertEquals(1, pool.getStats().active(), "Borrowed connection should be active");
+            assertEquals(0, pool.getStats().idle(), "Warm connection should have been reused");
+        }
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(0, stats.active(), "Released connection should no longer be active");
+        assertEquals(1, stats.idle(), "Released connection should be idle");
+        assertEquals(1, stats.borrows(), "Borrow should be counted");
+    }
+
+    @Test
+    @DisplayName("Should cache prepared statements per connection")
+    void testStatementCache() throws SQLException {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement first = connection.prepareStatement("SELECT 1");
+            PreparedStatement second = connection.prepareStatement("SELECT 1");
+            assertSame(first, second, "Same SQL should return the cached statement");
+        }
+
+        assertEquals(1, pool.getStats().statementCacheHits(), "Second prepare should be a cache hit");
+        assertEquals(1, pool.getStats().statementCacheMisses(), "First prepare should be a cache miss");
+    }
+
+    private static ConnectionPool poolWithCache(String name, int statementCacheSize) throws SQLException {
+        ConnectionPool.Settings settings = new ConnectionPool.Settings(1, 0, 200, 60000, 1, statementCacheSize);
+        return new ConnectionPool(() -> DriverManager.getConnection("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1"),
+                settings, Logger.getLogger("ConnectionPoolTest"));
+    }
+
+    @Test
+    @DisplayName("Should keep evicted statements open until the connection is returned")
+    void testEvictionDuringBorrow() throws SQLException {
+        ConnectionPool small = poolWithCache("evicttest", 1);
+        try {
+            PreparedStatement first;
+            try (PooledConnection connection = small.borrow()) {
+                first = connection.prepareStatement("SELECT 1");
+                connection.prepareStatement("SELECT 2");
+                assertFalse(first.isClosed(), "Evicted statement is still in use");
+                assertTrue(first.executeQuery().next());
+            }
+            assertTrue(first.isClosed(), "Evicted statement should close with the borrow");
+        } finally {
+            small.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not cache statements when the cache size is 0")
+    void testNoStatementCache() throws SQLException {
+        ConnectionPool uncached = poolWithCache("nocachetest", 0);
+        try {
+            PreparedStatement first;
+            try (PooledConnection connection = uncached.borrow()) {
+                first = connection.prepareStatement("SELECT 1");
+                assertFalse(first.isClosed(), "Statement should be usable until the connection is returned");
+                assertTrue(first.executeQuery().next());
+                assertNotSame(first, connection.prepareStatement("SELECT 1"));
+            }
+            assertTrue(first.isClosed(), "Uncached statements should close with the borrow");
+        } finally {
+            uncached.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should time out when the pool is exhausted")
+    void testBoundedPool() throws SQLException {
+        try (PooledConnection first = pool.borrow(); PooledConnection second = pool.borrow()) {
+            assertThrows(SQLTimeoutException.class, pool::borrow, "Third borrow should time out");
+        }
+
+        assertEquals(1, pool.getStats().timeouts(), "Timeout should be counted");
+        assertEquals(2, pool.getStats().idle(), "Both connections should be returned");
+    }
+
+    @Test
+    @DisplayName("Should discard invalidated connections")
+    void testInvalidate() throws SQLException {
+        try (PooledConnection connection = pool.borrow()) {
+            connection.invalidate();
+        }
+
+        assertEquals(0, pool.getStats().total(), "Invalidated connection should be closed");
+    }
+
+    @Test
+    @DisplayName("Should reject borrows after close")
+    void testClosedPool() {
+        pool.close();
+
+        assertThrows(SQLException.class, pool::borrow, "Closed pool should not hand out connections");
+    }
+}
@@ -0,0 +1,29 @@
+package cc.farlanders.votingmatters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("DataExporter Tests")
+class DataExporterTest {
+
+    @Test
+    @DisplayName("Should quote CSV values only when needed")
+    void testEscapeCsv() {
+        assertEquals("Steve", DataExporter.escapeCsv("Steve"), "Plain values should not be quoted");
+        assertEquals("\"a,b\"", DataExporter.escapeCsv("a,b"), "Commas should be quoted");
+        assertEquals("\"say \"\"hi\"\"\"", DataExporter.escapeCsv("say \"hi\""), "Quotes should be doubled");
+        assertEquals("\"line\nbreak\"", DataExporter.escapeCsv("line\nbreak"), "Newlines should be quoted");
+    }
+
+    @Test
+    @DisplayName("Should parse export command arguments")
+    void testParse() {
+        assertEquals(DataExporter.Table.VOTES, DataExporter.parseTable("VOTES"));
+        assertNull(DataExporter.parseTable("rewards"), "Unknown tables should not parse");
+        assertEquals(DataExporter.Format.CSV, DataExporter.parseFormat("csv"));
+        assertEquals(DataExporter.Format.NDJSON, DataExporter.parseFormat("json"));
+        assertNull(DataExporter.parseFormat("xml"), "Unknown formats should not parse");
+    }
+}
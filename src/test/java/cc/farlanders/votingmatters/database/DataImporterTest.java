@@ -0,0 +1,99 @@
+package cc.farlanders.votingmatters.database;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("DataImporter Tests")
+class DataImporterTest {
+
+    private static final DataImporter.ColumnMapping MAPPING = new DataImporter.ColumnMapping("player_uuid",
+            "username", "site_name", "vote_time", "rewarded", "imported");
+    private static final UUID PLAYER = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+    @Test
+    @DisplayName("Should parse vote times in common formats")
+    void testParseTime() {
+        assertEquals(1_700_000_000_000L, DataImporter.parseTime(1_700_000_000L).getTime(),
+                "Small numbers should be epoch seconds");
+        assertEquals(1_700_000_000_000L, DataImporter.parseTime("1700000000000").getTime(),
+                "Large numbers should be epoch milliseconds");
+        assertEquals(1_700_000_000_000L, DataImporter.parseTime("2023-11-14T22:13:20Z").getTime(),
+                "ISO-8601 instants should parse");
+        assertEquals(Timestamp.valueOf("2023-11-14 22:13:20"), DataImporter.parseTime("2023-11-14 22:13:20"),
+                "SQL timestamps should parse");
+        assertNull(DataImporter.parseTime("yesterday"), "Unknown formats should not parse");
+    }
+
+    @Test
+    @DisplayName("Should parse UUIDs with or without dashes")
+    void testParseUuid() {
+        assertEquals(PLAYER, DataImporter.parseUuid(PLAYER.toString()));
+        assertEquals(PLAYER, DataImporter.parseUuid(PLAYER.toString().replace("-", "")));
+        assertEquals(PLAYER, DataImporter.parseUuid(KeyCodec.toBytes(PLAYER)));
+        assertNull(DataImporter.parseUuid("Notch"), "Player names are not UUIDs");
+    }
+
+    @Test
+    @DisplayName("Should build rows with defaults for missing values")
+    void testToRow() {
+        DataImporter.ImportRow row = DataImporter.toRow(MAPPING, PLAYER.toString(), "", null, 1_700_000_000L, null);
+        assertEquals(PLAYER, row.playerUuid());
+        assertNull(row.username(), "Blank names should be left out");
+        assertEquals("imported", row.siteName(), "Missing sites should use the default");
+        assertTrue(row.rewarded(), "Imported votes should count as rewarded by default");
+        assertFalse(DataImporter.toRow(MAPPING, PLAYER, "Steve", "site", 1L, "false").rewarded());
+        assertNull(DataImporter.toRow(MAPPING, PLAYER, "Steve", "site", null, null), "Rows need a vote time");
+    }
+
+    @Test
+    @DisplayName("Should read quoted CSV records")
+    void testReadCsvRecord() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader("a,\"b,c\",\"say \"\"hi\"\"\"\r\n\"x\ny\",\n"));
+        assertEquals(List.of("a", "b,c", "say \"hi\""), FileImportSource.readCsvRecord(reader));
+        assertEquals(List.of("x\ny", ""), FileImportSource.readCsvRecord(reader));
+        assertNull(FileImportSource.readCsvRecord(reader), "End of input should return null");
+    }
+
+    @Test
+    @DisplayName("Should read CSV files by header and resume from a position")
+    void testFileSource() throws IOException {
+        File file = File.createTempFile("votes", ".csv");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), """
+                site_name,player_uuid,vote_time
+                a,%s,1700000000
+                b,not-a-uuid,1700000000
+                c,%s,1700000001
+                """.formatted(PLAYER, PLAYER), StandardCharsets.UTF_8);
+
+        try (FileImportSource source = new FileImportSource(file, MAPPING)) {
+            List<DataImporter.ImportRow> rows = source.read(null, 10);
+            assertEquals(2, rows.size(), "Unparseable rows should be skipped");
+            assertEquals("c", rows.get(1).siteName());
+            assertEquals(1, source.getSkipped());
+            assertEquals(3, source.getPosition());
+            assertTrue(source.read(null, 10).isEmpty(), "Source should be exhausted");
+        }
+
+        try (FileImportSource source = new FileImportSource(file, MAPPING)) {
+            source.seek(2);
+            List<DataImporter.ImportRow> rows = source.read(null, 10);
+            assertEquals(1, rows.size(), "Resumed source should skip imported records");
+            assertEquals("c", rows.get(0).siteName());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package cc.farlanders.votingmatters.database;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("DatabaseExecutor Tests")
+class DatabaseExecutorTest {
+
+    private DatabaseExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new DatabaseExecutor(1, 1, Logger.getLogger("DatabaseExecutorTest"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should run tasks on a named database thread")
+    void testSupply() throws Exception {
+        String threadName = executor.supply(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(threadName.startsWith("VotingMatters-DB-"), "Task should run on the database executor");
+    }
+
+    @Test
+    @DisplayName("Should reject work when the queue is full")
+    void testSaturation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.run(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+
+        // One slot in the queue, then the next submission is rejected
+        executor.run(() -> {
+        });
+        CompletableFuture<Void> rejected = executor.run(() -> {
+        });
+        release.countDown();
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> rejected.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof RejectedExecutionException, "Future should fail with rejection");
+        assertEquals(1, executor.getStats().rejected(), "Rejection should be counted");
+    }
+
+    @Test
+    @DisplayName("Should reject tasks after shutdown without running them")
+    void testShutdown() throws Exception {
+        executor.shutdown(1, TimeUnit.SECONDS);
+
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<String> future = executor.supply(() -> {
+            ran.set(true);
+            return "done";
+        });
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> future.get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof RejectedExecutionException,
+                "Tasks submitted after shutdown should fail with rejection");
+        assertFalse(ran.get(), "Tasks submitted after shutdown should not run on the caller");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -186,6 +186,62 @@ class DatabaseManagerTest {
         assertEquals(0, afterReward.size(), "Should have no unrewarded votes after marking as rewarded");
     }
 
+    @Test
+    @DisplayName("Should not let a vote rewarded at vote time be claimed again")
+    void testOnlineVoteCannotBeClaimed() throws Exception {
+        UUID playerId = UUID.randomUUID();
+
+        // The player is online, so the vote is paid when it arrives
+        VoteRecord onlineVote = new VoteRecord(playerId, "testsite", "127.0.0.1");
+        PlayerVoteData afterOnline = databaseManager.recordVote(onlineVote, "TestPlayer", false)
+                .get(5, TimeUnit.SECONDS);
+        assertTrue(onlineVote.isRewarded(), "Vote should be stored as rewarded");
+        assertEquals(0, afterOnline.getOfflineVotes());
+        assertTrue(databaseManager.getUnrewardedVotes(playerId).get(5, TimeUnit.SECONDS).isEmpty(),
+                "There should be nothing to claim");
+        assertTrue(databaseManager.claimOfflineVotes(playerId, List.of(onlineVote)).get(5, TimeUnit.SECONDS)
+                .isEmpty(), "A rewarded vote should not be claimed");
+
+        // A vote cast while offline can be claimed exactly once
+        VoteRecord offlineVote = new VoteRecord(playerId, "testsite", "127.0.0.1");
+        PlayerVoteData afterOffline = databaseManager.recordVote(offlineVote, "TestPlayer", true)
+                .get(5, TimeUnit.SECONDS);
+        assertFalse(offlineVote.isRewarded());
+        assertEquals(1, afterOffline.getOfflineVotes());
+
+        List<VoteRecord> unrewarded = databaseManager.getUnrewardedVotes(playerId).get(5, TimeUnit.SECONDS);
+        assertEquals(1, unrewarded.size());
+        assertEquals(1, databaseManager.claimOfflineVotes(playerId, unrewarded).get(5, TimeUnit.SECONDS).size());
+        assertTrue(databaseManager.claimOfflineVotes(playerId, unrewarded).get(5, TimeUnit.SECONDS).isEmpty(),
+                "A claimed vote should not be claimed again");
+
+        PlayerVoteData claimed = databaseManager.getPlayerData(playerId).get(5, TimeUnit.SECONDS);
+        assertEquals(2, claimed.getTotalVotes());
+        assertEquals(0, claimed.getOfflineVotes());
+    }
+
+    @Test
+    @DisplayName("Should seek leaderboard pages past the previous page's last row")
+    void testLeaderboardPages() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            PlayerVoteData data = new PlayerVoteData(UUID.randomUUID(), "Player" + i);
+            data.setTotalVotes(i % 2 == 0 ? 10 : 5);
+            databaseManager.savePlayerData(data).get(5, TimeUnit.SECONDS);
+        }
+
+        List<PlayerVoteData> first = databaseManager.getLeaderboardPage(1, 2, null).get(5, TimeUnit.SECONDS)
+                .entries();
+        PlayerVoteData last = first.get(1);
+        List<PlayerVoteData> second = databaseManager
+                .getLeaderboardPage(2, 2, new DatabaseManager.PageStart(last.getTotalVotes(), last.getUuid()))
+                .get(5, TimeUnit.SECONDS).entries();
+
+        assertEquals(2, second.size());
+        assertEquals(10, second.get(0).getTotalVotes(), "The tie across the page boundary should continue");
+        assertFalse(first.stream().anyMatch(data -> data.getUuid().equals(second.get(0).getUuid())),
+                "No player should be on both pages");
+    }
+
     @Test
     @DisplayName("Should handle database connection errors gracefully")
     void testDatabaseErrorHandling() {
@@ -0,0 +1,37 @@
+package cc.farlanders.votingmatters.database;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("KeyCodec Tests")
+class KeyCodecTest {
+
+    private static final String TEMPLATE = "SELECT {site} FROM {votes} JOIN {players} ON 1 = 1";
+
+    @Test
+    @DisplayName("Should round-trip UUIDs through 16 bytes")
+    void testUuidBytes() {
+        UUID uuid = UUID.randomUUID();
+        byte[] bytes = KeyCodec.toBytes(uuid);
+
+        assertEquals(16, bytes.length, "UUID should be stored in 16 bytes");
+        assertEquals(uuid, KeyCodec.fromBytes(bytes), "UUID should survive the round trip");
+    }
+
+    @Test
+    @DisplayName("Should resolve text format placeholders")
+    void testTextSql() {
+        assertEquals("SELECT site_name FROM vote_records JOIN player_vote_data ON 1 = 1",
+                KeyCodec.text().sql(TEMPLATE), "Text format should use the original tables");
+    }
+
+    @Test
+    @DisplayName("Should resolve compact format placeholders")
+    void testCompactSql() {
+        assertEquals("SELECT site_id FROM vote_records_compact JOIN player_vote_data_compact ON 1 = 1",
+                KeyCodec.compact().sql(TEMPLATE), "Compact format should use the compact tables");
+    }
+}
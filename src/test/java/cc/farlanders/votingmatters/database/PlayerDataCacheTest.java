@@ -0,0 +1,87 @@
+package cc.farlanders.votingmatters.database;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cc.farlanders.votingmatters.models.PlayerVoteData;
+
+@DisplayName("PlayerDataCache Tests")
+class PlayerDataCacheTest {
+
+    private AtomicLong clock;
+    private PlayerDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1000);
+        cache = new PlayerDataCache(true, 2, 100, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should return copies of saved data")
+    void testWriteThrough() {
+        PlayerVoteData data = new PlayerVoteData(UUID.randomUUID(), "Steve");
+        cache.put(data);
+        data.addVote();
+
+        PlayerDataCache.Hit hit = cache.get(data.getUuid());
+        assertNotNull(hit, "Saved player should be cached");
+        assertEquals(0, hit.data().getTotalVotes(), "Cache should hold a copy");
+        assertNotSame(hit.data(), cache.get(data.getUuid()).data(), "Each hit should be a fresh copy");
+        assertEquals(2, cache.getStats().hits());
+    }
+
+    @Test
+    @DisplayName("Should cache players without data")
+    void testNegativeEntries() {
+        UUID playerUuid = UUID.randomUUID();
+        assertNull(cache.get(playerUuid), "Unknown player should miss");
+        cache.putLoaded(playerUuid, null, cache.loadStamp());
+
+        PlayerDataCache.Hit hit = cache.get(playerUuid);
+        assertNotNull(hit, "Missing player should be a negative hit");
+        assertNull(hit.data());
+        assertEquals(1, cache.getStats().negativeHits());
+        assertEquals(1, cache.getStats().misses());
+    }
+
+    @Test
+    @DisplayName("Should not cache loads that raced with a save")
+    void testStaleLoad() {
+        PlayerVoteData data = new PlayerVoteData(UUID.randomUUID(), "Steve");
+        long stamp = cache.loadStamp();
+        cache.put(data);
+        cache.putLoaded(data.getUuid(), null, stamp);
+
+        assertNotNull(cache.get(data.getUuid()).data(), "Saved data should win over an older load");
+    }
+
+    @Test
+    @DisplayName("Should expire entries after access and evict the least recently used")
+    void testEviction() {
+        PlayerVoteData first = new PlayerVoteData(UUID.randomUUID(), "First");
+        PlayerVoteData second = new PlayerVoteData(UUID.randomUUID(), "Second");
+        PlayerVoteData third = new PlayerVoteData(UUID.randomUUID(), "Third");
+        cache.put(first);
+        clock.addAndGet(10);
+        cache.put(second);
+        clock.addAndGet(10);
+        cache.get(first.getUuid());
+        cache.put(third);
+
+        assertEquals(2, cache.getStats().size(), "Cache should stay within its size");
+        assertNull(cache.get(second.getUuid()), "Least recently used entry should be evicted");
+        assertNotNull(cache.get(first.getUuid()));
+
+        clock.addAndGet(100);
+        assertNull(cache.get(third.getUuid()), "Idle entry should expire");
+    }
+}
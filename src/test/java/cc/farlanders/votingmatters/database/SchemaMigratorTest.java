@@ -0,0 +1,98 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("SchemaMigrator Tests")
+class SchemaMigratorTest {
+
+    private static final List<SchemaMigrator.Migration> MIGRATIONS = List.of(
+            new SchemaMigrator.Migration(2, "Add index",
+                    List.of("CREATE INDEX IF NOT EXISTS idx_items_name ON items (name)"),
+                    List.of("CREATE INDEX idx_items_name ON items (name)")),
+            new SchemaMigrator.Migration(1, "Create table",
+                    List.of("CREATE TABLE IF NOT EXISTS items (id INTEGER PRIMARY KEY, name VARCHAR(20))"),
+                    List.of("CREATE TABLE IF NOT EXISTS items (id INTEGER PRIMARY KEY, name VARCHAR(20))")));
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        ConnectionPool.Settings settings = new ConnectionPool.Settings(1, 0, 1000, 60000, 1, 8);
+        pool = new ConnectionPool(() -> DriverManager.getConnection("jdbc:h2:mem:migratortest"), settings,
+                Logger.getLogger("SchemaMigratorTest"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private int countVersions(PooledConnection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply migrations in version order")
+    void testMigrate() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator("sqlite", Logger.getLogger("SchemaMigratorTest"), MIGRATIONS);
+
+        try (PooledConnection connection = pool.borrow()) {
+            assertEquals(2, migrator.migrate(connection), "Schema should reach the latest version");
+            assertEquals(2, countVersions(connection), "Each migration should be recorded");
+        }
+    }
+
+    @Test
+    @DisplayName("Should not re-apply recorded migrations")
+    void testMigrateTwice() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator("sqlite", Logger.getLogger("SchemaMigratorTest"), MIGRATIONS);
+
+        try (PooledConnection connection = pool.borrow()) {
+            migrator.migrate(connection);
+            assertEquals(2, migrator.migrate(connection), "Second run should keep the version");
+            assertEquals(2, countVersions(connection), "Migrations should only be recorded once");
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop at a failing migration")
+    void testFailingMigration() throws SQLException {
+        List<SchemaMigrator.Migration> migrations = List.of(MIGRATIONS.get(1),
+                new SchemaMigrator.Migration(2, "Broken", List.of("NOT VALID SQL"), List.of("NOT VALID SQL")));
+        SchemaMigrator migrator = new SchemaMigrator("sqlite", Logger.getLogger("SchemaMigratorTest"), migrations);
+
+        try (PooledConnection connection = pool.borrow()) {
+            assertThrows(SQLException.class, () -> migrator.migrate(connection), "Broken migration should fail");
+            assertEquals(1, migrator.getCurrentVersion(connection), "Earlier migrations should stay applied");
+        }
+    }
+
+    @Test
+    @DisplayName("Should tolerate a column an interrupted run already added")
+    void testDuplicateColumn() throws SQLException {
+        String addColumn = "ALTER TABLE items ADD COLUMN name VARCHAR(20)";
+        List<SchemaMigrator.Migration> migrations = List.of(MIGRATIONS.get(1),
+                new SchemaMigrator.Migration(2, "Add column", List.of(addColumn), List.of(addColumn)));
+        SchemaMigrator migrator = new SchemaMigrator("sqlite", Logger.getLogger("SchemaMigratorTest"), migrations);
+
+        try (PooledConnection connection = pool.borrow()) {
+            assertEquals(2, migrator.migrate(connection), "Existing column should not fail the migration");
+        }
+    }
+}
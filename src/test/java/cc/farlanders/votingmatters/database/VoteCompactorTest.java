@@ -0,0 +1,177 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("VoteCompactor Tests")
+class VoteCompactorTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final Logger LOGGER = Logger.getLogger("VoteCompactorTest");
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // H2 in MySQL mode runs the MySQL flavour of the real schema
+        ConnectionPool.Settings settings = new ConnectionPool.Settings(1, 0, 1000, 60000, 1, 8);
+        pool = new ConnectionPool(() -> DriverManager.getConnection(
+                "jdbc:h2:mem:compactor;MODE=MySQL;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1"), settings, LOGGER);
+        try (PooledConnection connection = pool.borrow()) {
+            new SchemaMigrator("mysql", LOGGER).migrate(connection);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (PooledConnection connection = pool.borrow()) {
+            connection.createStatement().execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+
+    private static void insertPlayer(PooledConnection connection, UUID uuid) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO player_vote_data (uuid, username) VALUES (?, ?)");
+        stmt.setString(1, uuid.toString());
+        stmt.setString(2, "Player");
+        stmt.executeUpdate();
+    }
+
+    private static long insertVote(PooledConnection connection, UUID uuid, String site, long voteTime,
+            boolean rewarded) throws SQLException {
+        PreparedStatement stmt = connection.getConnection().prepareStatement(
+                "INSERT INTO vote_records (player_uuid, site_name, vote_time, rewarded) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+        stmt.setString(1, uuid.toString());
+        stmt.setString(2, site);
+        stmt.setTimestamp(3, new Timestamp(voteTime));
+        stmt.setBoolean(4, rewarded);
+        stmt.executeUpdate();
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static int compactAll(PooledConnection connection, VoteCompactor compactor, Timestamp cutoff)
+            throws SQLException {
+        int total = 0;
+        int compacted;
+        while ((compacted = compactor.compactChunk(connection, KeyCodec.text(), cutoff, 2)) > 0) {
+            total += compacted;
+        }
+        return total;
+    }
+
+    private static int rollup(PooledConnection connection, UUID uuid, String site, long voteDay) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(
+                "SELECT vote_count FROM vote_rollups WHERE player_uuid = ? AND site_name = ? AND vote_day = ?");
+        stmt.setString(1, uuid.toString());
+        stmt.setString(2, site);
+        stmt.setLong(3, voteDay);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static List<Long> remainingVotes(PooledConnection connection) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rs = connection.createStatement().executeQuery("SELECT id FROM vote_records ORDER BY id")) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static int count(PooledConnection connection, String sql) throws SQLException {
+        try (ResultSet rs = connection.createStatement().executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should group vote times into UTC days")
+    void testToVoteDay() {
+        assertEquals(0, VoteCompactor.toVoteDay(new Timestamp(0)), "Epoch should be day 0");
+        assertEquals(0, VoteCompactor.toVoteDay(new Timestamp(DAY - 1)), "Last millisecond should stay on day 0");
+        assertEquals(1, VoteCompactor.toVoteDay(new Timestamp(DAY)), "Midnight UTC should start day 1");
+        assertEquals(-1, VoteCompactor.toVoteDay(new Timestamp(-1)), "Times before the epoch should round down");
+    }
+
+    @Test
+    @DisplayName("Should fold old rewarded votes into rollups and keep the rest")
+    void testCompaction() throws SQLException {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        long oldDay = 100;
+        long old = oldDay * DAY + 1000;
+        long recent = System.currentTimeMillis();
+        Timestamp cutoff = new Timestamp(recent - 30 * DAY);
+        VoteCompactor compactor = new VoteCompactor("mysql");
+
+        try (PooledConnection connection = pool.borrow()) {
+            insertPlayer(connection, alice);
+            insertPlayer(connection, bob);
+            insertVote(connection, alice, "site1", old, true);
+            insertVote(connection, alice, "site1", old + 60_000, true);
+            insertVote(connection, alice, "site2", old, true);
+            insertVote(connection, alice, "site1", old + DAY, true);
+            insertVote(connection, bob, "site1", old, true);
+            long unrewarded = insertVote(connection, bob, "site2", old, false);
+            long recentVote = insertVote(connection, alice, "site1", recent, true);
+
+            assertEquals(5, compactAll(connection, compactor, cutoff), "Every old rewarded vote should be folded");
+            assertEquals(2, rollup(connection, alice, "site1", oldDay), "Same player, site and day should add up");
+            assertEquals(1, rollup(connection, alice, "site2", oldDay));
+            assertEquals(1, rollup(connection, alice, "site1", oldDay + 1), "Each day should get its own rollup");
+            assertEquals(1, rollup(connection, bob, "site1", oldDay));
+            assertEquals(0, rollup(connection, bob, "site2", oldDay), "Unrewarded votes should not be rolled up");
+            assertEquals(List.of(unrewarded, recentVote), remainingVotes(connection),
+                    "Only unrewarded and recent votes should be kept");
+
+            // A second pass finds nothing left and leaves the rollups alone
+            assertEquals(0, compactAll(connection, compactor, cutoff));
+            assertEquals(4, count(connection, "SELECT COUNT(*) FROM vote_rollups"));
+            assertEquals(5, count(connection, "SELECT SUM(vote_count) FROM vote_rollups"));
+            assertEquals(List.of(unrewarded, recentVote), remainingVotes(connection));
+        }
+    }
+
+    @Test
+    @DisplayName("Should add to an existing rollup for the same day")
+    void testCompactionAddsToRollup() throws SQLException {
+        UUID player = UUID.randomUUID();
+        long old = 100 * DAY;
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - 30 * DAY);
+        VoteCompactor compactor = new VoteCompactor("mysql");
+
+        try (PooledConnection connection = pool.borrow()) {
+            insertPlayer(connection, player);
+            insertVote(connection, player, "site1", old, true);
+            compactAll(connection, compactor, cutoff);
+
+            // A vote rewarded late is folded into the same day's rollup
+            insertVote(connection, player, "site1", old + 1000, true);
+            assertEquals(1, compactAll(connection, compactor, cutoff));
+            assertEquals(2, rollup(connection, player, "site1", 100));
+            assertEquals(0, count(connection, "SELECT COUNT(*) FROM vote_records"));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package cc.farlanders.votingmatters.database;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cc.farlanders.votingmatters.models.PlayerVoteData;
+import cc.farlanders.votingmatters.models.VoteRecord;
+
+@DisplayName("WriteBehindBuffer Tests")
+class WriteBehindBufferTest {
+
+    private DatabaseExecutor executor;
+    private List<List<PlayerVoteData>> upsertBatches;
+    private List<List<VoteRecord>> insertBatches;
+
+    @BeforeEach
+    void setUp() {
+        executor = new DatabaseExecutor(1, 100, Logger.getLogger("WriteBehindBufferTest"));
+        upsertBatches = new ArrayList<>();
+        insertBatches = new ArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    private WriteBehindBuffer createBuffer(int maxBatchSize) {
+        // Long interval so only explicit flushes and the batch size trigger writes
+        return new WriteBehindBuffer((upserts, inserts) -> {
+            synchronized (this) {
+                upsertBatches.add(upserts);
+                insertBatches.add(inserts);
+            }
+        }, executor, Logger.getLogger("WriteBehindBufferTest"), true, 60_000, maxBatchSize);
+    }
+
+    @Test
+    @DisplayName("Should coalesce upserts for the same player")
+    void testCoalescing() {
+        WriteBehindBuffer buffer = createBuffer(100);
+        PlayerVoteData data = new PlayerVoteData(UUID.randomUUID(), "TestPlayer");
+
+        data.setTotalVotes(1);
+        buffer.upsert(data);
+        data.setTotalVotes(2);
+        buffer.upsert(data);
+
+        assertEquals(2, buffer.getPending(data.getUuid()).getTotalVotes(), "Pending state should be the latest");
+        buffer.flush();
+
+        assertEquals(1, upsertBatches.size(), "Everything should be written in one batch");
+        assertEquals(1, upsertBatches.get(0).size(), "Upserts should be coalesced into one row");
+        assertEquals(2, upsertBatches.get(0).get(0).getTotalVotes(), "Latest state should be written");
+        assertEquals(1, buffer.getStats().coalesced(), "Coalesced upsert should be counted");
+        assertNull(buffer.getPending(data.getUuid()), "Nothing should be pending after a flush");
+        buffer.close();
+    }
+
+    @Test
+    @DisplayName("Should flush once the batch size is reached")
+    void testBatchSizeFlush() throws Exception {
+        WriteBehindBuffer buffer = createBuffer(2);
+        UUID playerUuid = UUID.randomUUID();
+
+        buffer.insert(new VoteRecord(playerUuid, "site1", "127.0.0.1"));
+        buffer.insert(new VoteRecord(playerUuid, "site2", "127.0.0.1")).get(1, TimeUnit.SECONDS);
+
+        assertEquals(2, buffer.getStats().rowsWritten(), "Both inserts should be written");
+        assertEquals(2, insertBatches.get(0).size(), "Inserts should be written as one batch");
+        buffer.close();
+    }
+
+    @Test
+    @DisplayName("Should write pending rows on close")
+    void testFlushOnClose() {
+        WriteBehindBuffer buffer = createBuffer(100);
+        UUID playerUuid = UUID.randomUUID();
+
+        buffer.upsert(new PlayerVoteData(playerUuid, "TestPlayer"));
+        buffer.insert(new VoteRecord(playerUuid, "site1", "127.0.0.1"));
+        buffer.close();
+
+        assertEquals(1, upsertBatches.size(), "Pending upsert should be written on close");
+        assertEquals(1, insertBatches.get(0).size(), "Pending insert should be written on close");
+        assertTrue(buffer.awaitPending(playerUuid).isDone(), "Nothing should be pending after close");
+    }
+
+    @Test
+    @DisplayName("Should fail the futures of writes it gives up on")
+    void testDroppedWritesFail() {
+        WriteBehindBuffer buffer = new WriteBehindBuffer((upserts, inserts) -> {
+            throw new SQLException("disk full");
+        }, executor, Logger.getLogger("WriteBehindBufferTest"), true, 60_000, 100);
+        UUID playerUuid = UUID.randomUUID();
+
+        CompletableFuture<Void> upsert = buffer.upsert(new PlayerVoteData(playerUuid, "TestPlayer"));
+        CompletableFuture<Void> insert = buffer.insert(new VoteRecord(playerUuid, "site1", "127.0.0.1"));
+        for (int attempt = 0; attempt < 3; attempt++) {
+            buffer.flush();
+        }
+
+        ExecutionException upsertError = assertThrows(ExecutionException.class, () -> upsert.get(1, TimeUnit.SECONDS));
+        assertTrue(upsertError.getCause() instanceof SQLException, "Upsert should fail with the write error");
+        ExecutionException insertError = assertThrows(ExecutionException.class, () -> insert.get(1, TimeUnit.SECONDS));
+        assertEquals("disk full", insertError.getCause().getMessage(), "Insert should fail with the write error");
+        assertFalse(buffer.hasPending(playerUuid), "Dropped writes should no longer be pending");
+        buffer.close();
+    }
+
+    @Test
+    @DisplayName("Should retry the batch as a whole when the connection fails")
+    void testConnectionFailureRequeuesBatch() {
+        AtomicInteger writes = new AtomicInteger();
+        WriteBehindBuffer buffer = new WriteBehindBuffer((upserts, inserts) -> {
+            writes.incrementAndGet();
+            throw new SQLException("Communications link failure", "08S01");
+        }, executor, Logger.getLogger("WriteBehindBufferTest"), true, 60_000, 100);
+        UUID playerUuid = UUID.randomUUID();
+
+        buffer.upsert(new PlayerVoteData(playerUuid, "TestPlayer"));
+        buffer.insert(new VoteRecord(playerUuid, "site1", "127.0.0.1"));
+        buffer.insert(new VoteRecord(playerUuid, "site2", "127.0.0.1"));
+        buffer.flush();
+
+        assertEquals(1, writes.get(), "Rows should not be retried one by one on a connection failure");
+        assertEquals(2, buffer.getStats().pendingInserts(), "The whole batch should be requeued");
+        buffer.close();
+    }
+
+    @Test
+    @DisplayName("Should write rows one by one when a row is rejected")
+    void testRowFailureWritesIndividually() throws Exception {
+        WriteBehindBuffer buffer = new WriteBehindBuffer((upserts, inserts) -> {
+            if (inserts.stream().anyMatch(vote -> vote.getSiteName().equals("bad"))) {
+                throw new SQLException("Data too long for column 'site_name'", "22001");
+            }
+        }, executor, Logger.getLogger("WriteBehindBufferTest"), true, 60_000, 100);
+        UUID playerUuid = UUID.randomUUID();
+
+        CompletableFuture<Void> good = buffer.insert(new VoteRecord(playerUuid, "site1", "127.0.0.1"));
+        CompletableFuture<Void> bad = buffer.insert(new VoteRecord(playerUuid, "bad", "127.0.0.1"));
+        buffer.flush();
+
+        good.get(1, TimeUnit.SECONDS);
+        assertFalse(bad.isDone(), "The rejected row should be retried on its own");
+        assertEquals(1, buffer.getStats().pendingInserts(), "Only the rejected row should stay pending");
+        buffer.close();
+    }
+}
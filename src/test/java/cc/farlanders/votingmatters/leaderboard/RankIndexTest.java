@@ -0,0 +1,92 @@
+package cc.farlanders.votingmatters.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RankIndex Tests")
+class RankIndexTest {
+
+    @Test
+    @DisplayName("Should rank players by votes, most first")
+    void testRanks() {
+        RankIndex index = new RankIndex();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        index.update(first, 10);
+        index.update(second, 5);
+        index.update(third, 1);
+
+        assertEquals(1, index.rankOf(first));
+        assertEquals(3, index.rankOf(third));
+        assertEquals(second, index.playerAt(2));
+        assertEquals(0, index.rankOf(UUID.randomUUID()), "Unknown players should have no rank");
+        assertNull(index.playerAt(4), "Ranks past the end should be empty");
+        assertNull(index.playerAt(0), "Ranks start at 1");
+
+        index.update(third, 11);
+        assertEquals(1, index.rankOf(third), "Updated player should move up");
+        assertEquals(2, index.rankOf(first));
+        assertEquals(3, index.size(), "Updates should not add players");
+
+        index.remove(first);
+        assertEquals(0, index.rankOf(first));
+        assertEquals(2, index.rankOf(second), "Players below a removed one should move up");
+    }
+
+    @Test
+    @DisplayName("Should break ties in the database's uuid order")
+    void testTieOrder() {
+        RankIndex index = new RankIndex();
+        // Negative as a signed long, but sorts last as text and as bytes
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+        UUID low = UUID.fromString("00000000-0000-0001-8000-000000000000");
+        UUID lowest = UUID.fromString("00000000-0000-0001-0000-000000000000");
+        index.update(high, 5);
+        index.update(low, 5);
+        index.update(lowest, 5);
+
+        assertEquals(lowest, index.playerAt(1));
+        assertEquals(low, index.playerAt(2));
+        assertEquals(3, index.rankOf(high));
+    }
+
+    @Test
+    @DisplayName("Should match a sorted list after random updates")
+    void testRandomUpdates() {
+        RankIndex index = new RankIndex();
+        Map<UUID, Integer> votes = new HashMap<>();
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            players.add(UUID.randomUUID());
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            UUID player = players.get(random.nextInt(players.size()));
+            int total = random.nextInt(50);
+            votes.put(player, total);
+            index.update(player, total);
+        }
+
+        List<UUID> expected = new ArrayList<>(votes.keySet());
+        // The database orders ties by the uuid column, whose text sorts like the unsigned bytes
+        expected.sort(Comparator.comparing((UUID uuid) -> -votes.get(uuid)).thenComparing(UUID::toString));
+        assertEquals(expected.size(), index.size());
+        for (int rank = 1; rank <= expected.size(); rank++) {
+            UUID player = expected.get(rank - 1);
+            assertEquals(player, index.playerAt(rank), "Player at rank " + rank);
+            assertEquals(rank, index.rankOf(player), "Rank of " + player);
+        }
+    }
+}
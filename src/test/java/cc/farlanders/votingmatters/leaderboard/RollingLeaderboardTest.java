@@ -0,0 +1,73 @@
+package cc.farlanders.votingmatters.leaderboard;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import cc.farlanders.votingmatters.leaderboard.RollingLeaderboard.Window;
+
+@DisplayName("RollingLeaderboard Tests")
+class RollingLeaderboardTest {
+
+    private static final long TODAY = 20_000;
+
+    @Test
+    @DisplayName("Should count votes in every window that covers their day")
+    void testWindows() {
+        RollingLeaderboard leaderboard = new RollingLeaderboard(TODAY);
+        UUID player = UUID.randomUUID();
+        leaderboard.addVotes(player, TODAY, 1);
+        leaderboard.addVotes(player, TODAY - 3, 2);
+        leaderboard.addVotes(player, TODAY - 20, 4);
+        leaderboard.addVotes(player, TODAY - 30, 8);
+
+        assertEquals(1, leaderboard.getVotes(Window.DAILY, player, TODAY));
+        assertEquals(3, leaderboard.getVotes(Window.WEEKLY, player, TODAY));
+        assertEquals(7, leaderboard.getVotes(Window.MONTHLY, player, TODAY), "Days past 30 should be ignored");
+    }
+
+    @Test
+    @DisplayName("Should drop days as they leave a window")
+    void testAdvance() {
+        RollingLeaderboard leaderboard = new RollingLeaderboard(TODAY);
+        UUID player = UUID.randomUUID();
+        leaderboard.addVotes(player, TODAY, 1);
+        leaderboard.addVotes(player, TODAY - 6, 2);
+
+        assertEquals(0, leaderboard.getVotes(Window.DAILY, player, TODAY + 1), "Yesterday is not today");
+        assertEquals(1, leaderboard.getVotes(Window.WEEKLY, player, TODAY + 1), "Day 7 ago should leave the week");
+        assertEquals(3, leaderboard.getVotes(Window.MONTHLY, player, TODAY + 1));
+        assertEquals(0, leaderboard.size(Window.DAILY, TODAY + 1), "Players without votes should be removed");
+
+        leaderboard.addVotes(player, TODAY + 30, 5);
+        assertEquals(5, leaderboard.getVotes(Window.MONTHLY, player, TODAY + 30), "Old buckets should be reused");
+        assertEquals(0, leaderboard.getVotes(Window.MONTHLY, player, TODAY + 61), "Long gaps should clear everything");
+    }
+
+    @Test
+    @DisplayName("Should list the top players of a window")
+    void testTop() {
+        RollingLeaderboard leaderboard = new RollingLeaderboard(TODAY);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        leaderboard.addVotes(first, TODAY, 5);
+        leaderboard.addVotes(second, TODAY - 1, 3);
+        leaderboard.addVotes(third, TODAY - 10, 9);
+
+        List<RollingLeaderboard.Entry> weekly = leaderboard.getTop(Window.WEEKLY, 10, TODAY);
+        assertEquals(List.of(new RollingLeaderboard.Entry(first, 5), new RollingLeaderboard.Entry(second, 3)), weekly);
+
+        List<RollingLeaderboard.Entry> monthly = leaderboard.getTop(Window.MONTHLY, 2, TODAY);
+        assertEquals(2, monthly.size(), "Top list should respect the limit");
+        assertEquals(third, monthly.get(0).playerUuid());
+        assertEquals(3, leaderboard.getTop(Window.MONTHLY, Integer.MAX_VALUE, TODAY).size(),
+                "Huge limits should be capped to the players in the window");
+        assertEquals(Window.WEEKLY, Window.parse("week"));
+        assertNull(Window.parse("yearly"));
+    }
+}
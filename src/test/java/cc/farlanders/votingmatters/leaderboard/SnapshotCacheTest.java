@@ -0,0 +1,95 @@
+package cc.farlanders.votingmatters.leaderboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("SnapshotCache Tests")
+class SnapshotCacheTest {
+
+    // Loader whose builds complete only when the test says so
+    private static final class ManualLoader {
+        private final List<CompletableFuture<String>> builds = new ArrayList<>();
+
+        private CompletableFuture<String> load() {
+            CompletableFuture<String> build = new CompletableFuture<>();
+            builds.add(build);
+            return build;
+        }
+    }
+
+    @Test
+    @DisplayName("Should share one build between concurrent first reads")
+    void testFirstReadsShareBuild() {
+        ManualLoader loader = new ManualLoader();
+        SnapshotCache<String> cache = new SnapshotCache<>(loader::load);
+
+        CompletableFuture<String> first = cache.get();
+        CompletableFuture<String> second = cache.get();
+        assertEquals(1, loader.builds.size(), "Reads before the first snapshot should wait on one build");
+        assertSame(first, second);
+
+        loader.builds.get(0).complete("v1");
+        assertEquals("v1", first.join());
+        assertEquals("v1", cache.getNow());
+    }
+
+    @Test
+    @DisplayName("Should serve the stale snapshot while a refresh runs")
+    void testStaleWhileRefreshing() {
+        ManualLoader loader = new ManualLoader();
+        SnapshotCache<String> cache = new SnapshotCache<>(loader::load);
+        cache.refresh();
+        loader.builds.get(0).complete("v1");
+
+        cache.invalidate();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("v1", cache.get().join(), "Reads should not wait for the refresh");
+        }
+        assertEquals(2, loader.builds.size(), "Invalidation should start exactly one refresh");
+
+        loader.builds.get(1).complete("v2");
+        assertEquals("v2", cache.get().join());
+        assertEquals(2, loader.builds.size(), "Fresh snapshots should not be rebuilt");
+    }
+
+    @Test
+    @DisplayName("Should refresh again if invalidated during a refresh")
+    void testInvalidateDuringRefresh() {
+        ManualLoader loader = new ManualLoader();
+        SnapshotCache<String> cache = new SnapshotCache<>(loader::load);
+        cache.refresh();
+        loader.builds.get(0).complete("v1");
+
+        cache.invalidate();
+        cache.get();
+        cache.invalidate();
+        loader.builds.get(1).complete("v2");
+
+        assertEquals("v2", cache.get().join());
+        assertEquals(3, loader.builds.size(), "A change during the build may be missing from it");
+    }
+
+    @Test
+    @DisplayName("Should keep the last snapshot when a refresh fails")
+    void testFailedRefresh() {
+        AtomicInteger calls = new AtomicInteger();
+        SnapshotCache<String> cache = new SnapshotCache<>(() -> calls.incrementAndGet() == 2
+                ? CompletableFuture.failedFuture(new IllegalStateException("down"))
+                : CompletableFuture.completedFuture("v" + calls.get()));
+
+        assertNull(cache.getNow());
+        assertEquals("v1", cache.refresh().join());
+        assertTrue(cache.refresh().isCompletedExceptionally());
+        assertEquals("v1", cache.get().join(), "A failed refresh should not drop the snapshot");
+        assertEquals("v3", cache.get().join(), "A failed refresh should be retried on the next read");
+    }
+}
@@ -0,0 +1,81 @@
+package cc.farlanders.votingmatters.managers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import cc.farlanders.votingmatters.VotingMatters;
+import cc.farlanders.votingmatters.database.DatabaseManager;
+import cc.farlanders.votingmatters.models.PlayerVoteData;
+import cc.farlanders.votingmatters.models.VoteRecord;
+
+@DisplayName("LeaderboardManager Tests")
+class LeaderboardManagerTest {
+
+    @Mock
+    private VotingMatters plugin;
+
+    @Mock
+    private DatabaseManager databaseManager;
+
+    // One future per rebuild, completed by the test to finish loading
+    private final List<CompletableFuture<Void>> totalLoads = new ArrayList<>();
+    private LeaderboardManager leaderboardManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(plugin.getDatabaseManager()).thenReturn(databaseManager);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("LeaderboardManagerTest"));
+        when(databaseManager.loadVoteTotals(any())).thenAnswer(invocation -> {
+            CompletableFuture<Void> load = new CompletableFuture<>();
+            totalLoads.add(load);
+            return load;
+        });
+        when(databaseManager.loadVoteCounts(anyLong(), any())).thenReturn(CompletableFuture.completedFuture(0));
+
+        leaderboardManager = new LeaderboardManager(plugin);
+    }
+
+    @Test
+    @DisplayName("Should run rebuilds requested while one loads once it is done")
+    void testOverlappingRebuilds() {
+        CompletableFuture<Void> first = leaderboardManager.rebuild();
+        CompletableFuture<Void> second = leaderboardManager.rebuild();
+        CompletableFuture<Void> third = leaderboardManager.rebuild();
+        assertEquals(1, totalLoads.size(), "Only one rebuild should load at a time");
+        assertSame(second, third, "Rebuilds requested meanwhile should share one follow-up");
+
+        // Votes during the rebuild are replayed onto the new index
+        UUID playerUuid = UUID.randomUUID();
+        assertDoesNotThrow(() -> leaderboardManager.recordVote(
+                new PlayerVoteData(playerUuid, "Steve", 1, 1, 1, null, 0),
+                new VoteRecord(playerUuid, "site1", "127.0.0.1")));
+
+        totalLoads.get(0).complete(null);
+        assertTrue(first.isDone());
+        assertFalse(second.isDone(), "The follow-up should still be loading");
+        assertEquals(2, totalLoads.size(), "The follow-up should start after the first finishes");
+
+        totalLoads.get(1).complete(null);
+        assertTrue(second.isDone());
+        assertFalse(second.isCompletedExceptionally());
+        assertEquals(2, totalLoads.size(), "Nothing else should be queued");
+    }
+}
@@ -0,0 +1,56 @@
+package cc.farlanders.votingmatters.models;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("PlayerSession Tests")
+class PlayerSessionTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    @Test
+    @DisplayName("Should track votes recorded during the session")
+    void testRecordVote() {
+        UUID playerUuid = UUID.randomUUID();
+        Timestamp old = new Timestamp(System.currentTimeMillis() - 48 * HOUR);
+        PlayerSession session = new PlayerSession(null, 0, Map.of("site", old));
+        assertNull(session.getData(), "New players should have no data");
+        assertFalse(session.hasVotedWithin("site", 24 * HOUR), "Old vote should be outside the cooldown");
+
+        PlayerVoteData data = new PlayerVoteData(playerUuid, "Steve");
+        VoteRecord vote = new VoteRecord(playerUuid, "site", null);
+        data.applyVote(vote.getVoteTime());
+        session.recordVote(vote, data);
+
+        assertTrue(session.hasVotedWithin("site", 24 * HOUR), "New vote should start the cooldown");
+        assertEquals(1, session.getData().getTotalVotes());
+        assertEquals(1, session.getUnrewardedVotes());
+
+        session.voteRewarded();
+        session.voteRewarded();
+        assertEquals(0, session.getUnrewardedVotes(), "Count should not go negative");
+
+        session.voteDeferred();
+        assertEquals(1, session.getUnrewardedVotes(), "Deferred votes should be claimable again");
+    }
+
+    @Test
+    @DisplayName("Should keep the latest vote time per site")
+    void testLastVoteTime() {
+        Timestamp latest = new Timestamp(System.currentTimeMillis());
+        PlayerSession session = new PlayerSession(null, 0, Map.of("site", latest));
+        session.recordVote(new VoteRecord(0, UUID.randomUUID(), "site", new Timestamp(latest.getTime() - HOUR),
+                null, true), new PlayerVoteData(UUID.randomUUID(), "Steve"));
+
+        assertEquals(latest, session.getLastVoteTime("site"), "Older votes should not move the time back");
+        assertEquals(0, session.getUnrewardedVotes(), "Rewarded votes should not be counted");
+    }
+}
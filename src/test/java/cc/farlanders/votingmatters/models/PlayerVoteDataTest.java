@@ -142,4 +142,34 @@ class PlayerVoteDataTest {
         data.setLastVoteTime(oldTime);
         assertTrue(data.isStreakAtRisk());
     }
+
+    @Test
+    @DisplayName("Should update streak when applying votes")
+    void testApplyVote() {
+        UUID uuid = UUID.randomUUID();
+        PlayerVoteData data = new PlayerVoteData(uuid, "TestPlayer");
+        long hour = 60L * 60 * 1000;
+        long start = System.currentTimeMillis() - (200 * hour);
+
+        // First vote starts a streak
+        data.applyVote(new Timestamp(start));
+        assertEquals(1, data.getTotalVotes());
+        assertEquals(1, data.getCurrentStreak());
+
+        // Another vote within 20 hours keeps the streak
+        data.applyVote(new Timestamp(start + (2 * hour)));
+        assertEquals(2, data.getTotalVotes());
+        assertEquals(1, data.getCurrentStreak());
+
+        // A vote the next day continues it
+        data.applyVote(new Timestamp(start + (26 * hour)));
+        assertEquals(2, data.getCurrentStreak());
+        assertEquals(new Timestamp(start + (26 * hour)), data.getLastVoteTime());
+
+        // A gap of more than 48 hours starts over
+        data.applyVote(new Timestamp(start + (100 * hour)));
+        assertEquals(4, data.getTotalVotes());
+        assertEquals(1, data.getCurrentStreak());
+        assertEquals(2, data.getBestStreak());
+    }
 }
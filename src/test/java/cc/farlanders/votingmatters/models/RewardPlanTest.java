@@ -0,0 +1,62 @@
+package cc.farlanders.votingmatters.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RewardPlan Tests")
+class RewardPlanTest {
+
+    private static Reward money(double amount) {
+        return new Reward(Reward.RewardType.MONEY, amount, 100, null);
+    }
+
+    @Test
+    @DisplayName("Should match streak and milestone tiers exactly")
+    void testTiers() {
+        Reward week = money(7);
+        Reward month = money(30);
+        Reward milestone = money(100);
+        RewardPlan plan = new RewardPlan(List.of(), Map.of(), Map.of(30, List.of(month), 7, List.of(week)),
+                Map.of(100, List.of(milestone)), List.of(), List.of(), 1.5);
+
+        assertEquals(List.of(week), plan.getStreakRewards(7));
+        assertEquals(List.of(month), plan.getStreakRewards(30));
+        assertNull(plan.getStreakRewards(8), "Streaks between tiers should get nothing");
+        assertNull(plan.getStreakRewards(0));
+        assertEquals(List.of(milestone), plan.getMilestoneRewards(100));
+        assertNull(plan.getMilestoneRewards(101));
+        assertEquals(1.5, plan.getWeekendMultiplier());
+    }
+
+    @Test
+    @DisplayName("Should look up rewards by site")
+    void testSites() {
+        Reward siteReward = money(5);
+        RewardPlan plan = new RewardPlan(List.of(), Map.of("ExampleSite", List.of(siteReward)), Map.of(), Map.of(),
+                List.of(), List.of(), 1.0);
+
+        assertEquals(List.of(siteReward), plan.getSiteRewards("ExampleSite"));
+        assertTrue(plan.getSiteRewards("Unknown").isEmpty(), "Unknown sites should have no rewards");
+        assertTrue(plan.getSiteRewards(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not change when the source lists change")
+    void testImmutable() {
+        List<Reward> defaults = new ArrayList<>(List.of(money(1)));
+        RewardPlan plan = new RewardPlan(defaults, Map.of(), Map.of(), Map.of(), List.of(), List.of(), 1.0);
+
+        defaults.add(money(2));
+        assertEquals(1, plan.getDefaultRewards().size(), "The plan should copy its rewards");
+        assertThrows(UnsupportedOperationException.class, () -> plan.getDefaultRewards().add(money(3)));
+        assertTrue(RewardPlan.empty().getDefaultRewards().isEmpty());
+    }
+}
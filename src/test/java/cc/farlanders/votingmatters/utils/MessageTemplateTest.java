@@ -0,0 +1,68 @@
+package cc.farlanders.votingmatters.utils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("MessageTemplate Tests")
+class MessageTemplateTest {
+
+    @Test
+    @DisplayName("Should fill placeholders in one pass")
+    void testRender() {
+        MessageTemplate template = MessageTemplate.compile("§a%player% voted on %site%! Thanks %player%");
+
+        assertEquals(List.of("player", "site", "player"), template.getPlaceholders());
+        assertEquals("§aSteve voted on Example! Thanks Steve",
+                template.render("player", "Steve", "site", "Example"));
+    }
+
+    @Test
+    @DisplayName("Should not expand placeholders inside values")
+    void testValuesAreLiteral() {
+        MessageTemplate template = MessageTemplate.compile("%player% voted on %site%");
+
+        assertEquals("%site% voted on Example", template.render("player", "%site%", "site", "Example"),
+                "Values should not be scanned for placeholders");
+    }
+
+    @Test
+    @DisplayName("Should keep unknown placeholders and stray percent signs")
+    void testLiteralPercents() {
+        MessageTemplate template = MessageTemplate.compile("50% off for %player%, 100%% of %unknown%");
+
+        assertEquals(List.of("player", "unknown"), template.getPlaceholders());
+        assertEquals("50% off for Alex, 100%% of %unknown%", template.render("player", "Alex"));
+    }
+
+    @Test
+    @DisplayName("Should format non-string values")
+    void testValueTypes() {
+        MessageTemplate template = MessageTemplate.compile("#%rank% with %votes% votes");
+
+        assertEquals("#3 with 42 votes", template.render("rank", 3, "votes", 42L));
+    }
+
+    @Test
+    @DisplayName("Should return the text as is without placeholders")
+    void testNoPlaceholders() {
+        String text = "§6Thanks for voting!";
+        MessageTemplate template = MessageTemplate.compile(text);
+
+        assertSame(text, template.render(), "Static messages should not be copied");
+        assertEquals(text, template.render("player", "Steve"));
+        assertEquals("", MessageTemplate.compile("").render());
+    }
+
+    @Test
+    @DisplayName("Should reject unpaired replacements")
+    void testUnpairedReplacements() {
+        MessageTemplate template = MessageTemplate.compile("%player%");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render("player"));
+    }
+}
@@ -0,0 +1,112 @@
+package cc.farlanders.votingmatters.votifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.google.gson.JsonObject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("VotifierProtocol Tests")
+class VotifierProtocolTest {
+
+    private static KeyPair keyPair;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    static byte[] encryptV1(KeyPair keys, String message) throws Exception {
+        Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, keys.getPublic());
+        return cipher.doFinal(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static byte[] signV2(String serviceName, String username, String challenge, String token) throws Exception {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("serviceName", serviceName);
+        payload.addProperty("username", username);
+        payload.addProperty("address", "203.0.113.7");
+        payload.addProperty("timestamp", 1700000000000L);
+        payload.addProperty("challenge", challenge);
+        String payloadText = payload.toString();
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(token.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        JsonObject envelope = new JsonObject();
+        envelope.addProperty("payload", payloadText);
+        envelope.addProperty("signature",
+                Base64.getEncoder().encodeToString(mac.doFinal(payloadText.getBytes(StandardCharsets.UTF_8))));
+        return envelope.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should decrypt version 1 votes")
+    void testDecodeV1() throws Exception {
+        VotifierProtocol protocol = new VotifierProtocol(keyPair.getPrivate(), Map.of(), null);
+        byte[] block = encryptV1(keyPair, "VOTE\nExampleSite\nSteve\n203.0.113.7\n1700000000\n");
+
+        assertEquals(VotifierProtocol.V1_BLOCK_SIZE, block.length);
+        assertEquals(new VotifierVote("ExampleSite", "Steve", "203.0.113.7", "1700000000"), protocol.decodeV1(block));
+        // The thread's cipher is reused for the next vote
+        assertEquals("Alex", protocol.decodeV1(encryptV1(keyPair, "VOTE\nExampleSite\nAlex\n::1\n0\n")).username());
+    }
+
+    @Test
+    @DisplayName("Should reject version 1 votes for another key")
+    void testDecodeV1WrongKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair otherKeys = generator.generateKeyPair();
+        VotifierProtocol protocol = new VotifierProtocol(keyPair.getPrivate(), Map.of(), null);
+
+        assertThrows(IOException.class, () -> protocol.decodeV1(encryptV1(otherKeys, "VOTE\nA\nB\nC\nD\n")));
+        assertThrows(IOException.class, () -> protocol.decodeV1(encryptV1(keyPair, "NOT A VOTE")));
+    }
+
+    @Test
+    @DisplayName("Should verify version 2 votes with the service's token")
+    void testDecodeV2() throws Exception {
+        VotifierProtocol protocol = new VotifierProtocol(null, Map.of("SiteWithToken", "site-token"), "shared");
+
+        VotifierVote vote = protocol.decodeV2(signV2("ExampleSite", "Steve", "abc", "shared"), "abc");
+        assertEquals("ExampleSite", vote.serviceName());
+        assertEquals("Steve", vote.username());
+        assertEquals("203.0.113.7", vote.address());
+        assertEquals("1700000000000", vote.timestamp());
+
+        assertEquals("Alex", protocol.decodeV2(signV2("SiteWithToken", "Alex", "xyz", "site-token"), "xyz").username());
+        assertThrows(IOException.class, () -> protocol.decodeV2(signV2("SiteWithToken", "Alex", "xyz", "shared"), "xyz"),
+                "Sites with their own token should not accept the shared one");
+    }
+
+    @Test
+    @DisplayName("Should reject forged and replayed version 2 votes")
+    void testDecodeV2Rejected() throws Exception {
+        VotifierProtocol protocol = new VotifierProtocol(null, Map.of(), "shared");
+
+        assertThrows(IOException.class, () -> protocol.decodeV2(signV2("ExampleSite", "Steve", "abc", "wrong"), "abc"));
+        assertThrows(IOException.class, () -> protocol.decodeV2(signV2("ExampleSite", "Steve", "old", "shared"), "abc"),
+                "A vote signed for another connection's challenge should be rejected");
+        assertThrows(IOException.class, () -> protocol.decodeV2("not json".getBytes(StandardCharsets.UTF_8), "abc"));
+        assertThrows(IOException.class, () -> protocol.decodeV1(new byte[VotifierProtocol.V1_BLOCK_SIZE]),
+                "Version 1 should be disabled without a key");
+        assertThrows(IOException.class, () -> new VotifierProtocol(null, Map.of(), null)
+                .decodeV2(signV2("ExampleSite", "Steve", "abc", "shared"), "abc"), "No token should accept nothing");
+    }
+}
@@ -0,0 +1,131 @@
+package cc.farlanders.votingmatters.votifier;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("VotifierServer Tests")
+class VotifierServerTest {
+
+    private KeyPair keyPair;
+    private VotifierServer server;
+    private final BlockingQueue<VotifierVote> votes = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        server = new VotifierServer(new InetSocketAddress("127.0.0.1", 0),
+                new VotifierProtocol(keyPair.getPrivate(), Map.of(), "token"), 64, votes::add,
+                Logger.getLogger("VotifierServerTest"));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private Socket connect() throws Exception {
+        Socket socket = new Socket("127.0.0.1", server.getPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private static String readLine(Socket socket) throws Exception {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)).readLine();
+    }
+
+    @Test
+    @DisplayName("Should accept a version 2 vote and reply ok")
+    void testV2Vote() throws Exception {
+        try (Socket socket = connect()) {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String greeting = reader.readLine();
+            assertTrue(greeting.startsWith("VOTIFIER 2 "), "Greeting should offer version 2");
+            String challenge = greeting.substring("VOTIFIER 2 ".length());
+
+            byte[] message = VotifierProtocolTest.signV2("ExampleSite", "Steve", challenge, "token");
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeShort(VotifierProtocol.V2_MAGIC);
+            out.writeShort(message.length);
+            out.write(message);
+            out.flush();
+
+            assertEquals("{\"status\":\"ok\"}", reader.readLine());
+        }
+
+        VotifierVote vote = votes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(vote);
+        assertEquals("Steve", vote.username());
+    }
+
+    @Test
+    @DisplayName("Should reply with an error for a bad signature")
+    void testV2Rejected() throws Exception {
+        try (Socket socket = connect()) {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String challenge = reader.readLine().substring("VOTIFIER 2 ".length());
+
+            byte[] message = VotifierProtocolTest.signV2("ExampleSite", "Steve", challenge, "wrong");
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeShort(VotifierProtocol.V2_MAGIC);
+            out.writeShort(message.length);
+            out.write(message);
+            out.flush();
+
+            assertTrue(reader.readLine().contains("\"status\":\"error\""));
+        }
+        assertEquals(0, votes.size());
+    }
+
+    @Test
+    @DisplayName("Should accept version 1 votes sent in pieces over many connections")
+    void testV1Votes() throws Exception {
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                Socket socket = connect();
+                sockets.add(socket);
+                readLine(socket);
+                byte[] block = VotifierProtocolTest.encryptV1(keyPair, "VOTE\nExampleSite\nPlayer" + i + "\n::1\n0\n");
+                // Split the block to make the listener wait for the rest
+                socket.getOutputStream().write(block, 0, 100);
+                socket.getOutputStream().flush();
+                socket.getOutputStream().write(block, 100, block.length - 100);
+                socket.getOutputStream().flush();
+            }
+
+            for (int i = 0; i < 20; i++) {
+                assertNotNull(votes.poll(5, TimeUnit.SECONDS), "Every connection's vote should arrive");
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package cc.farlanders.votingmatters.webhook;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("WebhookServer Tests")
+class WebhookServerTest {
+
+    private WebhookServer server;
+    private HttpClient client;
+    private final BlockingQueue<WebhookVote> votes = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new WebhookServer(new InetSocketAddress("127.0.0.1", 0),
+                List.of(new WebhookRoute("plain", "/votes/plain", "secret", false),
+                        new WebhookRoute("signed", "/votes/signed", "secret", true)),
+                2, votes::add, Logger.getLogger("WebhookServerTest"));
+        server.start();
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /**
+     * @param headers Header names and values, in pairs
+     */
+    private HttpResponse<String> post(String path, String contentType, String body, String... headers)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> postSigned(String secret, long timestamp, String contentType, String body)
+            throws Exception {
+        return post("/votes/signed", contentType, body, "X-Timestamp", String.valueOf(timestamp),
+                "X-Signature", sign(secret, timestamp, body));
+    }
+
+    private static String sign(String secret, long timestamp, String body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String payload = timestamp + "." + body;
+        return "sha256=" + HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Test
+    @DisplayName("Should accept a JSON vote carrying the shared secret")
+    void testBearerSecret() throws Exception {
+        HttpResponse<String> response = post("/votes/plain", "application/json",
+                "{\"username\":\"Steve\",\"address\":\"203.0.113.7\"}", "Authorization", "Bearer secret");
+
+        assertEquals(200, response.statusCode());
+        WebhookVote vote = votes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(vote, "Vote should reach the handler");
+        assertEquals("plain", vote.siteName());
+        assertEquals("Steve", vote.username());
+        assertNull(vote.playerUuid());
+        assertEquals("203.0.113.7", vote.address());
+    }
+
+    @Test
+    @DisplayName("Should accept a signed form vote and fall back to the remote address")
+    void testSignedForm() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        String body = "uuid=" + uuid.toString().replace("-", "") + "&username=Alex";
+        HttpResponse<String> response = postSigned("secret", now(), "application/x-www-form-urlencoded", body);
+
+        assertEquals(200, response.statusCode());
+        WebhookVote vote = votes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(vote, "Vote should reach the handler");
+        assertEquals(uuid, vote.playerUuid());
+        assertEquals("Alex", vote.username());
+        assertEquals("127.0.0.1", vote.address());
+    }
+
+    @Test
+    @DisplayName("Should reject bad secrets, bad signatures, unknown paths and empty bodies")
+    void testRejections() throws Exception {
+        String body = "{\"username\":\"Steve\"}";
+        assertEquals(401, post("/votes/plain", "application/json", body, "Authorization", "Bearer wrong").statusCode());
+        assertEquals(401, post("/votes/plain", "application/json", body).statusCode());
+        // The secret is not taken from the query string, where it would be logged
+        assertEquals(401, post("/votes/plain?secret=secret", "application/json", body).statusCode());
+        assertEquals(401, postSigned("wrong", now(), "application/json", body).statusCode());
+        // The signature covers the timestamp, so a stale one cannot be swapped for a fresh one
+        assertEquals(401, post("/votes/signed", "application/json", body, "X-Timestamp", String.valueOf(now()),
+                "X-Signature", sign("secret", now() - 3600, body)).statusCode());
+        assertEquals(401, postSigned("secret", now() - 3600, "application/json", body).statusCode());
+        assertEquals(401, post("/votes/signed", "application/json", body, "X-Signature", sign("secret", now(), body))
+                .statusCode());
+        // A signature is required on signed routes even when the secret is sent
+        assertEquals(401, post("/votes/signed", "application/json", body, "Authorization", "Bearer secret")
+                .statusCode());
+        assertEquals(404, post("/votes/other", "application/json", body, "Authorization", "Bearer secret")
+                .statusCode());
+        assertEquals(400, post("/votes/plain", "application/json", "{}", "Authorization", "Bearer secret")
+                .statusCode());
+
+        HttpRequest get = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/votes/plain"))
+                .timeout(Duration.ofSeconds(5)).GET().build();
+        assertEquals(405, client.send(get, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        assertNull(votes.poll(200, TimeUnit.MILLISECONDS), "No rejected vote should reach the handler");
+    }
+
+    @Test
+    @DisplayName("Should reject a replayed signed vote")
+    void testReplay() throws Exception {
+        String body = "{\"username\":\"Steve\"}";
+        long timestamp = now();
+
+        assertEquals(200, postSigned("secret", timestamp, "application/json", body).statusCode());
+        assertEquals(401, postSigned("secret", timestamp, "application/json", body).statusCode());
+        assertNotNull(votes.poll(5, TimeUnit.SECONDS), "The first delivery should count");
+        assertNull(votes.poll(200, TimeUnit.MILLISECONDS), "The replay should not reach the handler");
+    }
+}